@@ -0,0 +1,27 @@
+package core.bench.jmh;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar. Takes the usual JMH command line (e.g. a benchmark name
+ * pattern, -f, -wi, -i) and always adds the GC profiler, so every result comes with the
+ * allocation rate per operation (gc.alloc.rate.norm).
+ *
+ * Usage: java -jar chess-bench/target/benchmarks.jar [JMH options] [benchmark regex]
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
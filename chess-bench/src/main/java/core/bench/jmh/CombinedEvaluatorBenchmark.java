@@ -0,0 +1,61 @@
+package core.bench.jmh;
+
+import core.bench.BenchmarkPositions;
+import core.board.Board;
+import core.eval.CombinedEvaluator;
+import core.eval.EndgameEvaluator;
+import core.eval.KingSafetyEvaluator;
+import core.eval.MaterialEvaluator;
+import core.eval.PawnStructureEvaluator;
+import core.eval.PositionalEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The full evaluation as the search uses it, with the evaluators Minimax adds, per position
+ * of {@link BenchmarkPositions#STANDARD}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CombinedEvaluatorBenchmark {
+    private static final int POSITIONS = Positions.COUNT;
+
+    private final CombinedEvaluator evaluator = new CombinedEvaluator();
+    private Board[] boards;
+
+    @Setup
+    public void setup() {
+        EndgameEvaluator.loadBitbases();
+        evaluator.addEvaluator(new MaterialEvaluator());
+        evaluator.addEvaluator(new PositionalEvaluator());
+        evaluator.addEvaluator(new PawnStructureEvaluator());
+        evaluator.addEvaluator(new EndgameEvaluator());
+        evaluator.addEvaluator(new KingSafetyEvaluator());
+        boards = Positions.load();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int evaluate() {
+        int sum = 0;
+        for (Board board : boards) {
+            sum += evaluator.evaluate(board);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,67 @@
+package core.bench.jmh;
+
+import core.bench.BenchmarkPositions;
+import core.board.Board;
+import core.eval.EndgameEvaluator;
+import core.eval.Evaluator;
+import core.eval.KingSafetyEvaluator;
+import core.eval.MaterialEvaluator;
+import core.eval.PawnStructureEvaluator;
+import core.eval.PositionalEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each evaluator on its own, per position of {@link BenchmarkPositions#STANDARD}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmark {
+    private static final int POSITIONS = Positions.COUNT;
+
+    @Param({"material", "positional", "pawnStructure", "endgame", "kingSafety"})
+    public String evaluatorName;
+
+    private Evaluator evaluator;
+    private Board[] boards;
+
+    @Setup
+    public void setup() {
+        EndgameEvaluator.loadBitbases();
+        boards = Positions.load();
+        switch (evaluatorName) {
+            case "material" -> evaluator = new MaterialEvaluator();
+            case "positional" -> evaluator = new PositionalEvaluator();
+            case "pawnStructure" -> evaluator = new PawnStructureEvaluator();
+            case "endgame" -> evaluator = new EndgameEvaluator();
+            case "kingSafety" -> evaluator = new KingSafetyEvaluator();
+            default -> throw new IllegalArgumentException("Unknown evaluator: " + evaluatorName);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int evaluate() {
+        int sum = 0;
+        for (Board board : boards) {
+            sum += evaluator.evaluate(board);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,120 @@
+package core.bench.jmh;
+
+import core.bench.BenchmarkPositions;
+import core.board.Board;
+import core.board.MoveGenerator;
+import core.board.MoveList;
+import core.fen.FenGenerator;
+import core.fen.FenParser;
+import core.fen.StreamingFenParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FEN loading into a reused board, per position: {@link FenParser#parseFen(String, Board)}
+ * on {@link BenchmarkPositions#STANDARD}, and on positions from random games compared with
+ * {@link StreamingFenParser} reading the same positions as raw bytes, one per line.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FenParserBenchmark {
+    private static final int POSITIONS = Positions.COUNT;
+    private static final int GAME_POSITIONS = 10_000;
+
+    private final Board board = new Board();
+    private final StreamingFenParser streamingParser = new StreamingFenParser();
+    private String[] gameLines;
+    private ByteBuffer gameBytes;
+
+    @Setup
+    public void setup() {
+        gameLines = generatePositions(GAME_POSITIONS, 42);
+        gameBytes = ByteBuffer.wrap((String.join("\n", gameLines) + "\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public long parseFen() {
+        long checksum = 0;
+        for (String fen : BenchmarkPositions.STANDARD) {
+            if (FenParser.parseFen(fen, board)) {
+                checksum += board.getAllPieces();
+            }
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAME_POSITIONS)
+    public long parseFenGamePositions() {
+        long checksum = 0;
+        for (String fen : gameLines) {
+            if (FenParser.parseFen(fen, board)) {
+                checksum += board.getAllPieces();
+            }
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAME_POSITIONS)
+    public long streamingParseGamePositions() {
+        long checksum = 0;
+        int limit = gameBytes.limit();
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (gameBytes.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            if (streamingParser.parse(gameBytes, lineStart, lineEnd, board) >= 0) {
+                checksum += board.getAllPieces();
+            }
+            lineStart = lineEnd + 1;
+        }
+        return checksum;
+    }
+
+    /**
+     * FENs of the positions of random games, replayed from a fixed seed.
+     */
+    private static String[] generatePositions(int count, long seed) {
+        Random random = new Random(seed);
+        String[] fens = new String[count];
+        Board game = new Board();
+        MoveGenerator moveGenerator = new MoveGenerator();
+        MoveList moves = new MoveList(256);
+        int generated = 0;
+
+        while (generated < count) {
+            game.setInitialPosition();
+            for (int ply = 0; ply < 120 && generated < count; ply++) {
+                moveGenerator.generateLegalMoves(game, moves);
+                if (moves.size() == 0) {
+                    break;
+                }
+                game.makeSearchMove(moves.get(random.nextInt(moves.size())));
+                fens[generated++] = FenGenerator.generateFen(game);
+            }
+        }
+        return fens;
+    }
+}
@@ -0,0 +1,75 @@
+package core.bench.jmh;
+
+import core.bench.BenchmarkPositions;
+import core.board.Board;
+import core.board.MoveGenerator;
+import core.board.MoveList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Legal move generation and make/unmake of every legal move, per position of
+ * {@link BenchmarkPositions#STANDARD}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGenerationBenchmark {
+    private static final int POSITIONS = Positions.COUNT;
+
+    private final MoveGenerator moveGenerator = new MoveGenerator();
+    private final MoveList moves = new MoveList(256);
+    private Board[] boards;
+    private MoveList[] legalMoves;
+
+    @Setup
+    public void setup() {
+        boards = Positions.load();
+        legalMoves = new MoveList[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            legalMoves[i] = new MoveList(256);
+            moveGenerator.generateLegalMoves(boards[i], legalMoves[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int generateLegalMoves() {
+        int count = 0;
+        for (Board board : boards) {
+            moveGenerator.generateLegalMoves(board, moves);
+            count += moves.size();
+        }
+        return count;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public long makeUnmakeAllMoves() {
+        long checksum = 0;
+        for (int i = 0; i < POSITIONS; i++) {
+            Board board = boards[i];
+            MoveList list = legalMoves[i];
+            for (int j = 0; j < list.size(); j++) {
+                board.makeSearchMove(list.get(j));
+                checksum += board.getAllPieces();
+                board.undoSearchMove();
+            }
+        }
+        return checksum;
+    }
+}
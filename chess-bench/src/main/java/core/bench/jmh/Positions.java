@@ -0,0 +1,30 @@
+package core.bench.jmh;
+
+import core.bench.BenchmarkPositions;
+import core.board.Board;
+import core.fen.FenParser;
+
+/**
+ * Boards of the standard benchmark positions
+ */
+final class Positions {
+    // Length of BenchmarkPositions.STANDARD; @OperationsPerInvocation needs a constant
+    static final int COUNT = 10;
+
+    private Positions() {
+    }
+
+    static Board[] load() {
+        if (BenchmarkPositions.STANDARD.length != COUNT) {
+            throw new IllegalStateException("Positions.COUNT does not match BenchmarkPositions.STANDARD");
+        }
+        Board[] boards = new Board[BenchmarkPositions.STANDARD.length];
+        for (int i = 0; i < boards.length; i++) {
+            boards[i] = new Board();
+            if (!FenParser.parseFen(BenchmarkPositions.STANDARD[i], boards[i])) {
+                throw new IllegalStateException("Invalid benchmark position: " + BenchmarkPositions.STANDARD[i]);
+            }
+        }
+        return boards;
+    }
+}
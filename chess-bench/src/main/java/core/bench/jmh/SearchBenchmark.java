@@ -0,0 +1,62 @@
+package core.bench.jmh;
+
+import core.bench.BenchmarkPositions;
+import core.board.Board;
+import core.board.MoveGenerator;
+import core.engine.Minimax;
+import core.eval.CombinedEvaluator;
+import core.eval.EndgameEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-depth search of every position of {@link BenchmarkPositions#STANDARD}; one
+ * operation searches the whole set. The transposition table is cleared before each
+ * operation so every one does the same work.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SearchBenchmark {
+    @Param({"5"})
+    public int depth;
+
+    private Minimax minimax;
+    private Board[] boards;
+
+    @Setup
+    public void setup() {
+        EndgameEvaluator.loadBitbases();
+        minimax = new Minimax(new CombinedEvaluator(), new MoveGenerator());
+        boards = Positions.load();
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTranspositionTable() {
+        minimax.clearTranspositionTable();
+    }
+
+    @Benchmark
+    public long findBestMove() {
+        long nodes = 0;
+        for (Board board : boards) {
+            nodes += minimax.findBestMove(board, depth).getNodesSearched();
+        }
+        return nodes;
+    }
+}
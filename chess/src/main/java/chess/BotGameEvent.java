@@ -0,0 +1,33 @@
+package chess;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of one game of the bot, from the game start event to the end of
+ * the game stream.
+ */
+@Name("chess.BotGame")
+@Label("Bot Game")
+@Category({"Chess", "Lichess Bot"})
+@Description("One game played by the bot")
+@StackTrace(false)
+class BotGameEvent extends Event {
+    @Label("Game Id")
+    String gameId;
+
+    @Label("Color")
+    String color;
+
+    @Label("Moves Played")
+    @Description("Moves posted by the bot")
+    int movesPlayed;
+
+    @Label("Completed")
+    @Description("The game stream ended normally rather than with an error")
+    boolean completed;
+}
@@ -0,0 +1,36 @@
+package chess;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of one move of the bot, from the game state received from Lichess
+ * to the answer posted back: parsing the moves, the search and the move request.
+ */
+@Name("chess.BotMove")
+@Label("Bot Move")
+@Category({"Chess", "Lichess Bot"})
+@Description("Round trip from a game state event to the move posted")
+@StackTrace(false)
+class BotMoveEvent extends Event {
+    @Label("Game Id")
+    String gameId;
+
+    @Label("Ply")
+    @Description("Number of moves played before this one")
+    int ply;
+
+    @Label("Move")
+    String move;
+
+    @Label("Book Move")
+    boolean bookMove;
+
+    @Label("Posted")
+    @Description("The move request completed without an error")
+    boolean posted;
+}
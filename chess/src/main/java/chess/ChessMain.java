@@ -1,14 +1,22 @@
 package chess;
 
+import core.bench.Bench;
 import gui.ChessGUI;
 
 import javax.swing.*;
+import java.util.Arrays;
 
 /**
- * Main class to start the chess application
+ * Main class to start the chess application. With the argument "bench [depth]" it runs the
+ * search benchmark instead of the GUI, see {@link Bench}.
  */
 public class ChessMain {
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("bench")) {
+            Bench.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         // Set look and feel to system default
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
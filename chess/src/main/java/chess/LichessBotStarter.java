@@ -7,6 +7,7 @@ import core.board.Board;
 import core.board.Move;
 import core.engine.ChessEngine;
 import core.engine.SearchResult;
+import core.eval.EvaluationParameters;
 import core.fen.FenParser;
 import core.util.MoveNotation;
 
@@ -18,6 +19,8 @@ public class LichessBotStarter {
 
     // Store the color globally so we can use it later
     private static String botColor = "unknown";
+    // Moves posted in the current game, for its flight recorder event
+    private static int movesPlayed = 0;
 
     public static void start(String token) {
         ClientAuth client = Client.auth(token);
@@ -299,31 +302,43 @@ public class LichessBotStarter {
     private static void handleGame(ClientAuth client, String gameId) {
         System.out.println("Starting game handler for: " + gameId);
 
-        try {
+        BotGameEvent gameEvent = new BotGameEvent();
+        gameEvent.begin();
+        movesPlayed = 0;
+        // One engine for the whole game keeps its hash table and opens the book and tablebases once
+        try (ChessEngine engine = new ChessEngine()) {
             var gameStream = client.bot().connectToGame(gameId);
 
-            gameStream.stream().forEach(gameEvent -> {
-                System.out.println("Game event: " + gameEvent.getClass().getSimpleName());
-                System.out.println("Game event content: " + gameEvent.toString());
+            gameStream.stream().forEach(event -> {
+                System.out.println("Game event: " + event.getClass().getSimpleName());
+                System.out.println("Game event content: " + event.toString());
 
-                processGameEvent(client, gameId, gameEvent);
+                processGameEvent(client, gameId, engine, event);
             });
+            gameEvent.completed = true;
 
         } catch (Exception e) {
             System.err.println("Error in game stream: " + e.getMessage());
             e.printStackTrace();
         }
+        gameEvent.end();
+        if (gameEvent.shouldCommit()) {
+            gameEvent.gameId = gameId;
+            gameEvent.color = botColor;
+            gameEvent.movesPlayed = movesPlayed;
+            gameEvent.commit();
+        }
     }
 
-    private static void processGameEvent(ClientAuth client, String gameId, Object gameEvent) {
+    private static void processGameEvent(ClientAuth client, String gameId, ChessEngine engine, Object gameEvent) {
         String eventType = gameEvent.getClass().getSimpleName();
 
         switch (eventType) {
             case "Full":
-                handleFullGameState(client, gameId, gameEvent);
+                handleFullGameState(client, gameId, engine, gameEvent);
                 break;
             case "State":
-                handleGameState(client, gameId, gameEvent);
+                handleGameState(client, gameId, engine, gameEvent);
                 break;
             case "ChatLine":
                 handleChatLine(gameEvent);
@@ -333,7 +348,7 @@ public class LichessBotStarter {
         }
     }
 
-    private static void handleFullGameState(ClientAuth client, String gameId, Object fullEvent) {
+    private static void handleFullGameState(ClientAuth client, String gameId, ChessEngine engine, Object fullEvent) {
         System.out.println("Processing full game state...");
 
         try {
@@ -353,7 +368,7 @@ public class LichessBotStarter {
                 botColor = determineOurColorFromFullEvent(fullEvent);
             }
 
-            processGameState(client, gameId, state, white, black);
+            processGameState(client, gameId, engine, state, white, black);
 
         } catch (Exception e) {
             System.err.println("Error processing full game state: " + e.getMessage());
@@ -404,13 +419,16 @@ public class LichessBotStarter {
         return "unknown";
     }
 
-    private static void handleGameState(ClientAuth client, String gameId, Object stateEvent) {
+    private static void handleGameState(ClientAuth client, String gameId, ChessEngine engine, Object stateEvent) {
         System.out.println("Processing game state...");
         // For state updates, we don't have player info, pass null
-        processGameState(client, gameId, stateEvent, null, null);
+        processGameState(client, gameId, engine, stateEvent, null, null);
     }
 
-    private static void processGameState(ClientAuth client, String gameId, Object state, Object white, Object black) {
+    private static void processGameState(ClientAuth client, String gameId, ChessEngine engine, Object state, Object white, Object black) {
+        // Committed only when we answer, so it times the round trip from the state received to the move posted
+        BotMoveEvent moveEvent = new BotMoveEvent();
+        moveEvent.begin();
         try {
             var movesMethod = state.getClass().getMethod("moves");
             String moves = (String) movesMethod.invoke(state);
@@ -422,8 +440,21 @@ public class LichessBotStarter {
             System.out.println("Is our turn: " + isOurTurn);
 
             if (isOurTurn && !"unknown".equals(botColor)) {
-                String nextMove = calculateMoveWithFen(moves, botColor);
-                makeMove(client, gameId, nextMove);
+                SearchResult result = calculateMoveWithFen(engine, moves, botColor);
+                String nextMove = MoveNotation.ToUci(result.getBestMove());
+                boolean posted = makeMove(client, gameId, nextMove);
+                if (posted) {
+                    movesPlayed++;
+                }
+                moveEvent.end();
+                if (moveEvent.shouldCommit()) {
+                    moveEvent.gameId = gameId;
+                    moveEvent.ply = moves == null || moves.isBlank() ? 0 : moves.trim().split(" ").length;
+                    moveEvent.move = nextMove;
+                    moveEvent.bookMove = result.isBookMove();
+                    moveEvent.posted = posted;
+                    moveEvent.commit();
+                }
             } else {
                 System.out.println("Waiting for opponent's move...");
             }
@@ -451,7 +482,7 @@ public class LichessBotStarter {
         }
     }
 
-    private static String calculateMoveWithFen(String moves, String ourColor) {
+    private static SearchResult calculateMoveWithFen(ChessEngine engine, String moves, String ourColor) {
         System.out.println("Calculating move with engine for color: " + ourColor);
 
         // Convert moves to FEN
@@ -462,13 +493,17 @@ public class LichessBotStarter {
         Board board = new Board();
         FenParser.loadPosition(board, fenPosition);
 
-        // Use engine with FEN-based board
-        ChessEngine engine = new ChessEngine();
+        // Use the game's engine with FEN-based board
         SearchResult result = engine.search(board);
         Move bestMove = result.getBestMove();
         String algebraicMove = MoveNotation.ToUci(bestMove);;
+        if (result.isBookMove()) {
+            System.out.println("Book move: " + algebraicMove);
+        } else {
+            System.out.println("Evaluation: " + result.getScore() + ", principal variation: " + result.getPrincipalVariationUci());
+        }
 
-        return algebraicMove;
+        return result;
     }
 
 
@@ -476,21 +511,23 @@ public class LichessBotStarter {
         System.out.println("Chat message received: " + chatEvent.toString());
     }
 
-    private static void makeMove(ClientAuth client, String gameId, String move) {
+    private static boolean makeMove(ClientAuth client, String gameId, String move) {
         System.out.println("Making move: " + move + " in game: " + gameId);
 
         try {
             var result = client.bot().move(gameId, move);
             System.out.println("Move result: " + result);
+            return true;
         } catch (Exception e) {
             System.err.println("Error making move: " + e.getMessage());
             e.printStackTrace();
+            return false;
         }
     }
 
     public static void main(String[] args) {
-        if (args.length != 1) {
-            System.out.println("Usage: java LichessBotStarter <lichess-token>");
+        if (args.length < 1 || args.length > 2) {
+            System.out.println("Usage: java LichessBotStarter <lichess-token> [evaluation-parameters-file]");
             System.out.println();
             System.out.println("Make sure to:");
             System.out.println("1. Create a Lichess account");
@@ -500,6 +537,10 @@ public class LichessBotStarter {
         }
 
         String token = args[0];
+        if (args.length == 2) {
+            // Evaluators read the parameter file once, when the first engine is created
+            System.setProperty(EvaluationParameters.PARAMETERS_FILE_PROPERTY, args[1]);
+        }
         System.out.println("Starting Lichess bot with token: " + token.substring(0, 8) + "...");
 
         try {
@@ -0,0 +1,80 @@
+package core.bench;
+
+import core.board.Board;
+import core.board.MoveGenerator;
+import core.engine.Minimax;
+import core.engine.SearchResult;
+import core.engine.SearchStatistics;
+import core.eval.CombinedEvaluator;
+import core.eval.EndgameEvaluator;
+import core.fen.FenParser;
+
+/**
+ * Searches every position of {@link BenchmarkPositions#BENCH} to a fixed depth on one
+ * thread, without opening book or tablebases, and prints the total nodes, time and nodes
+ * per second.
+ *
+ * The search is deterministic, so the node total is a signature of the search and the
+ * evaluation: a change that is not meant to alter them must leave it unchanged. The speed
+ * is a quick check of a machine, e.g. a new bot host.
+ *
+ * Usage: java core.bench.Bench [depth], or the bench argument of chess.ChessMain
+ */
+public class Bench {
+    public static final int DEFAULT_DEPTH = 6;
+
+    public static void main(String[] args) {
+        int depth = DEFAULT_DEPTH;
+        if (args.length > 0) {
+            try {
+                depth = Integer.parseInt(args[0]);
+            } catch (NumberFormatException e) {
+                depth = 0;
+            }
+            if (depth < 1) {
+                System.out.println("Usage: bench [depth]");
+                System.exit(1);
+            }
+        }
+        run(depth);
+    }
+
+    /**
+     * @return Total nodes searched
+     */
+    public static long run(int depth) {
+        EndgameEvaluator.loadBitbases();
+        Minimax minimax = new Minimax(new CombinedEvaluator(), new MoveGenerator());
+        String[] positions = BenchmarkPositions.BENCH;
+        long totalNodes = 0;
+        long totalNanos = 0;
+        SearchStatistics statistics = new SearchStatistics();
+
+        for (int i = 0; i < positions.length; i++) {
+            Board board = new Board();
+            if (!FenParser.parseFen(positions[i], board)) {
+                System.err.println("Invalid bench position: " + positions[i]);
+                continue;
+            }
+            // Every position starts from an empty table, so the result does not depend on the order
+            minimax.clearTranspositionTable();
+            long start = System.nanoTime();
+            SearchResult result = minimax.findBestMove(board, depth);
+            totalNanos += System.nanoTime() - start;
+            totalNodes += result.getNodesSearched();
+            statistics.add(result.getStatistics());
+            System.out.printf("Position %2d/%d: best %s, %,d nodes%n", i + 1, positions.length,
+                    result.getBestMove(), result.getNodesSearched());
+        }
+
+        long millis = totalNanos / 1_000_000;
+        System.out.println("===========================");
+        System.out.println("Depth           : " + depth);
+        System.out.println("Total time (ms) : " + millis);
+        System.out.println("Nodes searched  : " + totalNodes);
+        System.out.println("Nodes/second    : " + totalNodes * 1_000_000_000L / Math.max(1, totalNanos));
+        System.out.println("===========================");
+        System.out.println(statistics);
+        return totalNodes;
+    }
+}
@@ -0,0 +1,143 @@
+package core.bench;
+
+import core.board.Board;
+import core.tablebase.SyzygyTablebase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures Syzygy probe latency in nanoseconds per probe, for WDL and DTZ. Random legal
+ * positions are built for every table found in the given directory. The first pass over
+ * the positions is reported separately: it maps the files and faults their pages in from
+ * disk, later passes read them from the page cache.
+ *
+ * Usage: java core.bench.TablebaseBenchmark &lt;syzygy path&gt; [positions per table]
+ */
+public class TablebaseBenchmark {
+    private static final int MEASURED_ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java core.bench.TablebaseBenchmark <syzygy path> [positions per table]");
+            System.exit(1);
+        }
+        int perTable = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+        try (SyzygyTablebase tablebase = new SyzygyTablebase(args[0])) {
+            List<String> tables = tablebase.getTableNames();
+            if (tables.isEmpty()) {
+                System.out.println("No tables found in " + args[0]);
+                return;
+            }
+            Random random = new Random(42);
+            List<Board> positions = new ArrayList<>();
+            for (String table : tables) {
+                for (int i = 0; i < perTable; i++) {
+                    positions.add(randomPosition(table, random));
+                }
+            }
+            System.out.println("Tables: " + tables.size() + " (up to " + tablebase.getMaxPieces() +
+                    " pieces), positions: " + positions.size());
+
+            // The first pass maps the files and pays for the page faults
+            System.out.printf("WDL cold: %,10.0f ns/probe%n", runWdl(tablebase, positions));
+            System.out.printf("DTZ cold: %,10.0f ns/probe%n", runDtz(tablebase, positions));
+
+            double wdl = 0;
+            double dtz = 0;
+            for (int round = 0; round < MEASURED_ROUNDS; round++) {
+                wdl += runWdl(tablebase, positions) / MEASURED_ROUNDS;
+                dtz += runDtz(tablebase, positions) / MEASURED_ROUNDS;
+            }
+            System.out.printf("WDL warm: %,10.0f ns/probe%n", wdl);
+            System.out.printf("DTZ warm: %,10.0f ns/probe%n", dtz);
+        }
+    }
+
+    private static double runWdl(SyzygyTablebase tablebase, List<Board> positions) {
+        long checksum = 0;
+        int failed = 0;
+        long start = System.nanoTime();
+        for (Board board : positions) {
+            int wdl = tablebase.probeWdl(board);
+            if (wdl == SyzygyTablebase.PROBE_FAILED) {
+                failed++;
+            } else {
+                checksum += wdl;
+            }
+        }
+        return nanosPerProbe(positions.size(), start, checksum, failed);
+    }
+
+    private static double runDtz(SyzygyTablebase tablebase, List<Board> positions) {
+        long checksum = 0;
+        int failed = 0;
+        long start = System.nanoTime();
+        for (Board board : positions) {
+            int dtz = tablebase.probeDtz(board);
+            if (dtz == SyzygyTablebase.PROBE_FAILED) {
+                failed++;
+            } else {
+                checksum += dtz;
+            }
+        }
+        return nanosPerProbe(positions.size(), start, checksum, failed);
+    }
+
+    private static double nanosPerProbe(int probes, long startNanos, long checksum, int failed) {
+        double nanos = System.nanoTime() - startNanos;
+        if (checksum == 42) {
+            System.out.println(); // Keeps the results observable so the work is not optimized away
+        }
+        if (failed > 0) {
+            System.out.println("Failed probes: " + failed);
+        }
+        return nanos / probes;
+    }
+
+    /**
+     * A random legal position with the material of a table, white being the first side of the name.
+     */
+    private static Board randomPosition(String table, Random random) {
+        int separator = table.indexOf('v');
+        int[] white = countPieces(table.substring(0, separator));
+        int[] black = countPieces(table.substring(separator + 1));
+        Board board = new Board();
+        while (true) {
+            board.clear();
+            board.setWhiteToMove(random.nextBoolean());
+            long occupied = 0;
+            for (int type = 0; type < 6; type++) {
+                occupied = place(board, white[type], type, Board.WHITE_PAWN + type, occupied, random);
+                occupied = place(board, black[type], type, Board.BLACK_PAWN + type, occupied, random);
+            }
+            if (board.isValid()) {
+                return board;
+            }
+        }
+    }
+
+    private static int[] countPieces(String pieces) {
+        int[] counts = new int[6];
+        for (int i = 0; i < pieces.length(); i++) {
+            counts["PNBRQK".indexOf(pieces.charAt(i))]++;
+        }
+        return counts;
+    }
+
+    private static long place(Board board, int count, int type, int piece, long occupied, Random random) {
+        for (int i = 0; i < count; i++) {
+            int square;
+            do {
+                // Pawns stay off the first and last rank
+                square = type == 0 ? 8 + random.nextInt(48) : random.nextInt(64);
+            } while ((occupied & (1L << square)) != 0);
+            board.addPiece(square, piece);
+            occupied |= 1L << square;
+        }
+        return occupied;
+    }
+}
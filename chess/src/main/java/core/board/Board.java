@@ -1,6 +1,7 @@
 package core.board;
 
 import core.bitboard.Bitboard;
+import core.book.PolyglotKey;
 import core.fen.FenGenerator;
 import core.util.MoveNotation;
 
@@ -23,7 +24,16 @@ public class Board {
     private int enPassantSquare; // -1 if not available
     private int halfmoveClock;
     private int fullmoveNumber;
+    // Move generation is stateless, every board shares one generator
+    private static final MoveGenerator SHARED_MOVE_GENERATOR = new MoveGenerator();
     private MoveGenerator moveGenerator;
+    // Squares attacked by each side, computed on demand and reset whenever a piece moves
+    private long whiteAttacks, blackAttacks;
+    private boolean whiteAttacksValid, blackAttacksValid;
+    // Polyglot key while keyValid. A search or null move from a position with a valid key
+    // sets keyAfterMove instead, and getKey() updates the key saved with the move if asked.
+    private long key;
+    private boolean keyValid, keyAfterMove;
     public static final int WHITE_PAWN = 0;
     public static final int WHITE_KNIGHT = 1;
     public static final int WHITE_BISHOP = 2;
@@ -56,7 +66,7 @@ public class Board {
         enPassantSquare = -1;
         halfmoveClock = 0;
         fullmoveNumber = 1;
-        this.moveGenerator = new MoveGenerator();
+        this.moveGenerator = SHARED_MOVE_GENERATOR;
     }
     public void setInitialPosition() {
         // White pieces
@@ -94,6 +104,8 @@ public class Board {
         whitePieces = whitePawns | whiteKnights | whiteBishops | whiteRooks | whiteQueens | whiteKing;
         blackPieces = blackPawns | blackKnights | blackBishops | blackRooks | blackQueens | blackKing;
         allPieces = whitePieces | blackPieces;
+        whiteAttacksValid = blackAttacksValid = false;
+        keyValid = keyAfterMove = false;
     }
     public boolean isValid() {
         // Check if exactly one king of each color exists
@@ -169,8 +181,47 @@ public class Board {
         return true;
     }
     public boolean isInCheck() {
-        // Use the MoveGenerator's isKingInCheck method to determine if the current side's king is in check
-        return moveGenerator.isKingInCheck(this, isWhiteToMove());
+        // The opponent's attack map is shared with the evaluators looking at the same position
+        long king = whiteToMove ? whiteKing : blackKing;
+        return (getAttacks(!whiteToMove) & king) != 0;
+    }
+    /**
+     * Every square attacked by one side. The map is computed once per position and kept until
+     * the pieces change, so check detection and evaluation terms share the same work.
+     */
+    public long getAttacks(boolean white) {
+        if (white) {
+            if (!whiteAttacksValid) {
+                whiteAttacks = moveGenerator.computeAttacks(this, true);
+                whiteAttacksValid = true;
+            }
+            return whiteAttacks;
+        }
+        if (!blackAttacksValid) {
+            blackAttacks = moveGenerator.computeAttacks(this, false);
+            blackAttacksValid = true;
+        }
+        return blackAttacks;
+    }
+    /**
+     * Pieces of both colors attacking a square, see {@link MoveGenerator#attackersTo(Board, int, long)}.
+     */
+    public long attackersTo(int square, long occupancy) {
+        return moveGenerator.attackersTo(this, square, occupancy);
+    }
+    public boolean isSquareAttacked(int square, boolean byWhite) {
+        return (getAttacks(byWhite) & Bitboard.getBit(square)) != 0;
+    }
+    /**
+     * Static exchange evaluation of a move, see {@link MoveGenerator#staticExchangeEvaluation(Board, Move)}.
+     *
+     * @return Expected material gain in centipawns for the side making the move
+     */
+    public int staticExchangeEvaluation(Move move) {
+        return moveGenerator.staticExchangeEvaluation(this, move);
+    }
+    public boolean isCapture(Move move) {
+        return move.getMoveType() == Move.EN_PASSANT || hasPiece(move.getTo());
     }
     public int getHalfmoveClock() {
         return halfmoveClock;
@@ -290,6 +341,9 @@ public class Board {
         clonedBoard.halfmoveClock = this.halfmoveClock;
         clonedBoard.fullmoveNumber = this.fullmoveNumber;
 
+        // The search detects repetitions of earlier game positions through this history
+        clonedBoard.positionHistory = new HashMap<>(this.positionHistory);
+
         return clonedBoard;
     }
     public List<String> getGameHistoryAsFEN() {
@@ -309,10 +363,12 @@ public class Board {
         Board tempBoard = new Board();
         tempBoard.setInitialPosition();
         Stack<Move> moves = getMoveSequence();
+        MoveList legalMoves = new MoveList(256);
         int moveNumber = 1;
         boolean isWhiteMove = true;
         for (Move move : moves) {
-            String algebraicMove = MoveNotation.toAlgebraic(tempBoard, move);
+            tempBoard.generateLegalMoves(legalMoves);
+            String algebraicMove = MoveNotation.toAlgebraic(tempBoard, legalMoves, move);
             if (isWhiteMove) {
                 pgnMoves.add(moveNumber + ". " + algebraicMove);
             } else {
@@ -349,6 +405,12 @@ public class Board {
         boolean isWhitePiece; // Whether the captured piece was white
         public long positionHash;
         public long newPositionHash;
+        // Attack maps of the position before the move, restored on undo
+        long whiteAttacks, blackAttacks;
+        boolean whiteAttacksValid, blackAttacksValid;
+        // Key of the position before the move
+        long key;
+        boolean keyValid, keyAfterMove;
     }
     public boolean makeMove(Move move) {
         int from = move.getFrom();
@@ -366,6 +428,10 @@ public class Board {
         state.halfmoveClock = halfmoveClock;
         state.fullmoveNumber = fullmoveNumber;
         state.move = move;
+        state.whiteAttacks = whiteAttacks;
+        state.blackAttacks = blackAttacks;
+        state.whiteAttacksValid = whiteAttacksValid;
+        state.blackAttacksValid = blackAttacksValid;
 
         long fromBB = Bitboard.getBit(from);
         long toBB = Bitboard.getBit(to);
@@ -448,6 +514,11 @@ public class Board {
         state.halfmoveClock = halfmoveClock;
         state.fullmoveNumber = fullmoveNumber;
         state.move = move;
+        state.whiteAttacks = whiteAttacks;
+        state.blackAttacks = blackAttacks;
+        state.whiteAttacksValid = whiteAttacksValid;
+        state.blackAttacksValid = blackAttacksValid;
+        saveKey(state);
 
         long fromBB = Bitboard.getBit(from);
         long toBB = Bitboard.getBit(to);
@@ -524,6 +595,7 @@ public class Board {
 
         whiteToMove = !whiteToMove;
         updateConvenienceBitboards();
+        keyAfterMove = state.keyValid;
         return true;
     }
     public boolean undoSearchMove() {
@@ -567,6 +639,8 @@ public class Board {
             restoreCapturedPiece(state.capturedPieceBB, state.capturedPieceType, state.isWhitePiece);
         }
         updateConvenienceBitboards();
+        restoreAttacks(state);
+        restoreKey(state);
         return true;
     }
     public boolean undoMove() {
@@ -622,8 +696,120 @@ public class Board {
             }
         }
         updateConvenienceBitboards();
+        restoreAttacks(state);
         return true;
     }
+    /**
+     * Pass the turn without moving a piece, used by null-move pruning in the search.
+     * Only the side to move, en passant square and move counters change, so the piece
+     * bitboards and cached attack maps stay valid. Must be undone with {@link #undoNullMove()}.
+     */
+    public void makeNullMove() {
+        BoardState state = new BoardState();
+        state.whiteToMove = whiteToMove;
+        state.castleWhiteKingside = castleWhiteKingside; // Not changed, but part of the key
+        state.castleWhiteQueenside = castleWhiteQueenside;
+        state.castleBlackKingside = castleBlackKingside;
+        state.castleBlackQueenside = castleBlackQueenside;
+        state.enPassantSquare = enPassantSquare;
+        state.halfmoveClock = halfmoveClock;
+        state.fullmoveNumber = fullmoveNumber;
+        saveKey(state);
+        moveHistory.push(state);
+
+        if (!whiteToMove) {
+            fullmoveNumber++;
+        }
+        halfmoveClock++;
+        enPassantSquare = -1;
+        whiteToMove = !whiteToMove;
+        keyValid = false;
+        keyAfterMove = state.keyValid;
+    }
+    public void undoNullMove() {
+        BoardState state = moveHistory.pop();
+        whiteToMove = state.whiteToMove;
+        enPassantSquare = state.enPassantSquare;
+        halfmoveClock = state.halfmoveClock;
+        fullmoveNumber = state.fullmoveNumber;
+        restoreKey(state);
+    }
+    /**
+     * True if the side to move has at least one knight, bishop, rook or queen.
+     * Without them zugzwang is common and passing the turn is not a safe assumption.
+     */
+    public boolean hasNonPawnMaterial(boolean white) {
+        if (white) {
+            return (whiteKnights | whiteBishops | whiteRooks | whiteQueens) != 0;
+        }
+        return (blackKnights | blackBishops | blackRooks | blackQueens) != 0;
+    }
+    private void saveKey(BoardState state) {
+        state.key = key;
+        state.keyValid = keyValid;
+        state.keyAfterMove = keyAfterMove;
+    }
+    private void restoreKey(BoardState state) {
+        key = state.key;
+        keyValid = state.keyValid;
+        keyAfterMove = state.keyAfterMove;
+    }
+    /**
+     * Polyglot key of the position, the same as {@link PolyglotKey#hash(Board)}. After a search
+     * or null move from a position whose key was known, only the squares and rights the move
+     * changed are hashed; otherwise the whole board is.
+     */
+    public long getKey() {
+        if (!keyValid) {
+            key = keyAfterMove ? keyAfterLastMove() : PolyglotKey.hash(this);
+            keyValid = true;
+            keyAfterMove = false;
+        }
+        return key;
+    }
+    private long keyAfterLastMove() {
+        BoardState state = moveHistory.peek();
+        boolean white = state.whiteToMove;
+        long newKey = state.key ^ PolyglotKey.stateKey(this);
+        Move move = state.move;
+        if (move == null) { // Null move
+            return newKey ^ stateKeyBefore(state, white ? whitePawns : blackPawns);
+        }
+        int from = move.getFrom();
+        int to = move.getTo();
+        int pieceType = identifyPiece(to, white);
+        int movedType = move.getMoveType() == Move.PAWN_PROMOTION ? 0 : pieceType; // Pawn
+        newKey ^= PolyglotKey.pieceKey(movedType, white, from) ^ PolyglotKey.pieceKey(pieceType, white, to);
+
+        // The en passant part depends on the pawns of the side that moved, as they stood before
+        long pawns = white ? whitePawns : blackPawns;
+        if (movedType == 0) {
+            pawns = (pawns & ~Bitboard.getBit(to)) | Bitboard.getBit(from);
+        }
+        newKey ^= stateKeyBefore(state, pawns);
+        if (state.capturedPieceBB != 0) {
+            int capturedSquare = Long.numberOfTrailingZeros(state.capturedPieceBB);
+            newKey ^= PolyglotKey.pieceKey(state.capturedPieceType, state.isWhitePiece, capturedSquare);
+        }
+        if (move.getMoveType() == Move.CASTLING) {
+            // Rook squares as in executeCastlingMove
+            int rookFrom = to > from ? (white ? 7 : 63) : (white ? 0 : 56);
+            int rookTo = to > from ? (white ? 5 : 61) : (white ? 3 : 59);
+            newKey ^= PolyglotKey.pieceKey(3, white, rookFrom) ^ PolyglotKey.pieceKey(3, white, rookTo); // Rook
+        }
+        return newKey;
+    }
+    private static long stateKeyBefore(BoardState state, long pawnsToMove) {
+        return PolyglotKey.stateKey(state.castleWhiteKingside, state.castleWhiteQueenside,
+                state.castleBlackKingside, state.castleBlackQueenside, state.enPassantSquare,
+                state.whiteToMove, pawnsToMove);
+    }
+    private void restoreAttacks(BoardState state) {
+        whiteAttacks = state.whiteAttacks;
+        blackAttacks = state.blackAttacks;
+        whiteAttacksValid = state.whiteAttacksValid;
+        blackAttacksValid = state.blackAttacksValid;
+    }
     private void undoPositionHistoryUpdate() {
         if (moveHistory.isEmpty()) {
             return; // Nothing to undo
@@ -973,6 +1159,8 @@ public class Board {
         blackPawns = blackKnights = blackBishops = blackRooks = blackQueens = blackKing = 0L;
 
         whitePieces = blackPieces = allPieces = 0L;
+        whiteAttacksValid = blackAttacksValid = false;
+        keyValid = keyAfterMove = false;
 
         whiteToMove = true;
         castleWhiteKingside = castleWhiteQueenside = false;
@@ -1002,6 +1190,42 @@ public class Board {
         }
         updateConvenienceBitboards();
     }
+    /**
+     * Replace all piece bitboards at once, indexed by WHITE_PAWN..BLACK_KING starting at offset.
+     * Game state (side to move, castling, en passant) is left untouched.
+     */
+    public void setPieceBitboards(long[] bitboards, int offset) {
+        whitePawns = bitboards[offset + WHITE_PAWN];
+        whiteKnights = bitboards[offset + WHITE_KNIGHT];
+        whiteBishops = bitboards[offset + WHITE_BISHOP];
+        whiteRooks = bitboards[offset + WHITE_ROOK];
+        whiteQueens = bitboards[offset + WHITE_QUEEN];
+        whiteKing = bitboards[offset + WHITE_KING];
+        blackPawns = bitboards[offset + BLACK_PAWN];
+        blackKnights = bitboards[offset + BLACK_KNIGHT];
+        blackBishops = bitboards[offset + BLACK_BISHOP];
+        blackRooks = bitboards[offset + BLACK_ROOK];
+        blackQueens = bitboards[offset + BLACK_QUEEN];
+        blackKing = bitboards[offset + BLACK_KING];
+        updateConvenienceBitboards();
+    }
+    /**
+     * Copy all piece bitboards into the array, indexed by WHITE_PAWN..BLACK_KING starting at offset.
+     */
+    public void getPieceBitboards(long[] bitboards, int offset) {
+        bitboards[offset + WHITE_PAWN] = whitePawns;
+        bitboards[offset + WHITE_KNIGHT] = whiteKnights;
+        bitboards[offset + WHITE_BISHOP] = whiteBishops;
+        bitboards[offset + WHITE_ROOK] = whiteRooks;
+        bitboards[offset + WHITE_QUEEN] = whiteQueens;
+        bitboards[offset + WHITE_KING] = whiteKing;
+        bitboards[offset + BLACK_PAWN] = blackPawns;
+        bitboards[offset + BLACK_KNIGHT] = blackKnights;
+        bitboards[offset + BLACK_BISHOP] = blackBishops;
+        bitboards[offset + BLACK_ROOK] = blackRooks;
+        bitboards[offset + BLACK_QUEEN] = blackQueens;
+        bitboards[offset + BLACK_KING] = blackKing;
+    }
     public int getPiece(int squareIndex) {
         long bitboardPosition = Bitboard.getBit(squareIndex);
         if ((whitePawns & bitboardPosition) != 0) return 1;
@@ -1037,6 +1261,12 @@ public class Board {
         }
         return moves;
     }
+    /**
+     * Fill the list with the legal moves of the position, without the List copy of {@link #generateLegalMoves()}
+     */
+    public void generateLegalMoves(MoveList moveList) {
+        moveGenerator.generateLegalMoves(this, moveList);
+    }
     public long getPositionHash() {
         long hash = 0;
         hash ^= whitePawns;
@@ -1071,12 +1301,26 @@ public class Board {
     public void clearPositionHistory() {
         positionHistory.clear();
     }
+    /**
+     * Forget all moves made so far; they can no longer be undone.
+     * Used when a board is reused for many games so the undo stack does not keep growing.
+     */
+    public void clearMoveHistory() {
+        moveHistory.clear();
+    }
     public boolean isThreefoldRepetition() {
         long hash = getPositionHash();
         return positionHistory.getOrDefault(hash, 0) >= 3;
     }
 
     public boolean isThreefoldRepetitionDuringSearch(Map<Long, Integer> searchHistory) {
+        return isThreefoldRepetitionDuringSearch();
+    }
+    /**
+     * True if the position, reached by a search move, occurred twice before in the game.
+     * Search moves are not added to the position history, so this is the third occurrence.
+     */
+    public boolean isThreefoldRepetitionDuringSearch() {
         long currentHash = getPositionHash();
         return positionHistory.getOrDefault(currentHash, 0) >= 2;
     }
@@ -1093,7 +1337,11 @@ public class Board {
         }
         return isTFR || isStale || isInsuf;
     }
-    private boolean isInsufficientMaterial() {
+    /**
+     * True if neither side can mate: king against king, a lone knight or bishop, or bishops
+     * of the same colour on both sides. Counts pieces only, so the search can call it at every node.
+     */
+    public boolean isInsufficientMaterial() {
         int whitePieceCount = Long.bitCount(whitePieces);
         int blackPieceCount = Long.bitCount(blackPieces);
 
@@ -1132,21 +1380,27 @@ public class Board {
     }
     public void setWhiteToMove(boolean whiteToMove) {
         this.whiteToMove = whiteToMove;
+        keyValid = keyAfterMove = false;
     }
     public void setCastleWhiteKingside(boolean canCastle) {
         this.castleWhiteKingside = canCastle;
+        keyValid = keyAfterMove = false;
     }
     public void setCastleWhiteQueenside(boolean canCastle) {
         this.castleWhiteQueenside = canCastle;
+        keyValid = keyAfterMove = false;
     }
     public void setCastleBlackKingside(boolean canCastle) {
         this.castleBlackKingside = canCastle;
+        keyValid = keyAfterMove = false;
     }
     public void setCastleBlackQueenside(boolean canCastle) {
         this.castleBlackQueenside = canCastle;
+        keyValid = keyAfterMove = false;
     }
     public void setEnPassantSquare(int square) {
         this.enPassantSquare = square;
+        keyValid = keyAfterMove = false;
     }
     public void setHalfmoveClock(int halfmoveClock) {
         this.halfmoveClock = halfmoveClock;
@@ -32,6 +32,15 @@ public class Move {
             this.moveData = from | (to << 6) | (moveType << 14);
         }
     }
+    private Move(int moveData) {
+        this.moveData = moveData;
+    }
+    /**
+     * Recreate a move from the value returned by {@link #toInt()}.
+     */
+    public static Move fromInt(int moveData) {
+        return new Move(moveData);
+    }
     public static Move promotion(int from, int to, int promotionPieceType) {
         return new Move(from, to, promotionPieceType, PAWN_PROMOTION);
     }
@@ -59,6 +68,12 @@ public class Move {
     public boolean isPromotion() {
         return getMoveType() == PAWN_PROMOTION;
     }
+    /**
+     * The packed move data, for storing moves in primitive arrays.
+     */
+    public int toInt() {
+        return moveData;
+    }
 
     @Override
     public String toString() {
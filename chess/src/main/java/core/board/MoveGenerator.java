@@ -7,14 +7,37 @@ import core.bitboard.BitboardConstants;
  * Generates legal moves for a given chess position
  */
 public class MoveGenerator {
-    // Precomputed move patterns (would normally be initialized in static block)
-    private final long[] knightAttacks = new long[64];
-    private final long[] kingAttacks = new long[64];
+    // Precomputed move patterns, shared by all instances so creating a generator is free
+    private static final long[] knightAttacks = new long[64];
+    private static final long[] kingAttacks = new long[64];
+    // Squares attacked by a pawn of each color standing on the index square
+    private static final long[] whitePawnAttacks = new long[64];
+    private static final long[] blackPawnAttacks = new long[64];
+
+    // Piece types as returned by Board.getPieceType
+    private static final int PAWN = 0;
+    private static final int KNIGHT = 1;
+    private static final int BISHOP = 2;
+    private static final int ROOK = 3;
+    private static final int QUEEN = 4;
+    private static final int KING = 5;
+
+    // Piece values used by the static exchange evaluation, indexed by piece type
+    private static final int[] SEE_PIECE_VALUES = {100, 320, 330, 500, 900, 20000};
+
+    // Piece type created by each promotion (indexed by Move.QUEEN_PROMOTION..KNIGHT_PROMOTION)
+    private static final int[] PROMOTION_PIECE_TYPES = {QUEEN, ROOK, BISHOP, KNIGHT};
+
+    static {
+        initializeAttackTables();
+    }
 
+    /**
+     * Generators keep no state between calls, so one instance can be shared by any number of boards and threads.
+     */
     public MoveGenerator() {
-        initializeAttackTables();
     }
-    private void initializeAttackTables() {
+    private static void initializeAttackTables() {
         // Knight moves
         int[] knightOffsets = {-17, -15, -10, -6, 6, 10, 15, 17};
         for (int square = 0; square < 64; square++) {
@@ -40,8 +63,39 @@ public class MoveGenerator {
             }
             kingAttacks[square] = attacks;
         }
+
+        // Pawn captures
+        for (int square = 0; square < 64; square++) {
+            long squareBB = Bitboard.getBit(square);
+            whitePawnAttacks[square] = ((squareBB << 7) & ~BitboardConstants.FILE_H) | ((squareBB << 9) & ~BitboardConstants.FILE_A);
+            blackPawnAttacks[square] = ((squareBB >>> 7) & ~BitboardConstants.FILE_A) | ((squareBB >>> 9) & ~BitboardConstants.FILE_H);
+        }
+    }
+    /**
+     * Squares attacked by a king on the square
+     */
+    public static long getKingAttacks(int square) {
+        return kingAttacks[square];
+    }
+    /**
+     * Squares attacked by a pawn of the given color on the square
+     */
+    public static long getPawnAttacks(int square, boolean white) {
+        return white ? whitePawnAttacks[square] : blackPawnAttacks[square];
+    }
+    /**
+     * Squares attacked by a rook on the square, up to and including the first occupied square in each direction
+     */
+    public long getRookAttacks(int square, long occupancy) {
+        return generateHorizontalAndVerticalAttacks(square, occupancy);
+    }
+    /**
+     * Squares attacked by a queen on the square, up to and including the first occupied square in each direction
+     */
+    public long getQueenAttacks(int square, long occupancy) {
+        return generateDiagonalAttacks(square, occupancy) | generateHorizontalAndVerticalAttacks(square, occupancy);
     }
-    private int getSquareDistance(int sq1, int sq2) {
+    private static int getSquareDistance(int sq1, int sq2) {
         int file1 = sq1 % 8;
         int rank1 = sq1 / 8;
         int file2 = sq2 % 8;
@@ -591,90 +645,153 @@ public class MoveGenerator {
             moveList.add(legalMoves.get(i));
         }
     }
-    private boolean isSquareAttacked(Board board, int square, boolean byWhite) {
-        if (byWhite) {
-            // Check for attacks by white pawns
-            long pawns = board.getWhitePawns();
-            int rank = square / 8;
-            int file = square % 8;
-
-            // White pawns attack diagonally forward (up the board)
-            // Check if white pawn on southwest diagonal (rank-1, file-1) attacks this square
-            if (rank > 0 && file > 0) {
-                int pawnSquare = (rank - 1) * 8 + (file - 1);
-                if (Bitboard.isBitSet(pawns, pawnSquare)) return true;
-            }
-
-            // Check if white pawn on southeast diagonal (rank-1, file+1) attacks this square
-            if (rank > 0 && file < 7) {
-                int pawnSquare = (rank - 1) * 8 + (file + 1);
-                if (Bitboard.isBitSet(pawns, pawnSquare)) return true;
-            }
+    public boolean isSquareAttacked(Board board, int square, boolean byWhite) {
+        long sidePieces = byWhite ? board.getWhitePieces() : board.getBlackPieces();
+        return (attackersTo(board, square, board.getAllPieces()) & sidePieces) != 0;
+    }
+    /**
+     * All pieces of both colors attacking a square. Sliders are blocked by the given occupancy,
+     * so removing pieces from it reveals the attackers behind them (x-rays).
+     * Mask the result with a side's pieces to get the attackers of that side.
+     */
+    public long attackersTo(Board board, int square, long occupancy) {
+        // A white pawn attacks the square if a black pawn on the square would attack the pawn, and vice versa
+        long pawnAttackers = (blackPawnAttacks[square] & board.getWhitePawns()) |
+                (whitePawnAttacks[square] & board.getBlackPawns());
+        long diagonalSliders = board.getWhiteBishops() | board.getBlackBishops() | board.getWhiteQueens() | board.getBlackQueens();
+        long straightSliders = board.getWhiteRooks() | board.getBlackRooks() | board.getWhiteQueens() | board.getBlackQueens();
+
+        return pawnAttackers |
+                (knightAttacks[square] & (board.getWhiteKnights() | board.getBlackKnights())) |
+                (kingAttacks[square] & (board.getWhiteKing() | board.getBlackKing())) |
+                (generateDiagonalAttacks(square, occupancy) & diagonalSliders) |
+                (generateHorizontalAndVerticalAttacks(square, occupancy) & straightSliders);
+    }
+    /**
+     * Every square attacked by one side in the current position, whether it is empty or occupied.
+     * Board caches the result, use {@link Board#getAttacks(boolean)} instead of calling this directly.
+     */
+    public long computeAttacks(Board board, boolean white) {
+        long occupancy = board.getAllPieces();
+        long pawns = white ? board.getWhitePawns() : board.getBlackPawns();
+        long attacks;
+        if (white) {
+            attacks = ((pawns << 7) & ~BitboardConstants.FILE_H) | ((pawns << 9) & ~BitboardConstants.FILE_A);
+        } else {
+            attacks = ((pawns >>> 7) & ~BitboardConstants.FILE_A) | ((pawns >>> 9) & ~BitboardConstants.FILE_H);
+        }
 
-            // Check for attacks by white knights
-            if ((knightAttacks[square] & board.getWhiteKnights()) != 0) {
-                return true;
-            }
+        long knights = white ? board.getWhiteKnights() : board.getBlackKnights();
+        while (knights != 0) {
+            attacks |= knightAttacks[Long.numberOfTrailingZeros(knights)];
+            knights &= knights - 1;
+        }
 
-            // Check for attacks by white king
-            if ((kingAttacks[square] & board.getWhiteKing()) != 0) {
-                return true;
-            }
+        long diagonalSliders = white ? board.getWhiteBishops() | board.getWhiteQueens() : board.getBlackBishops() | board.getBlackQueens();
+        while (diagonalSliders != 0) {
+            attacks |= generateDiagonalAttacks(Long.numberOfTrailingZeros(diagonalSliders), occupancy);
+            diagonalSliders &= diagonalSliders - 1;
+        }
 
-            // Check for attacks by white bishops or queens
-            long bishopsAndQueens = board.getWhiteBishops() | board.getWhiteQueens();
-            if ((generateDiagonalAttacks(square, board.getAllPieces()) & bishopsAndQueens) != 0) {
-                return true;
-            }
+        long straightSliders = white ? board.getWhiteRooks() | board.getWhiteQueens() : board.getBlackRooks() | board.getBlackQueens();
+        while (straightSliders != 0) {
+            attacks |= generateHorizontalAndVerticalAttacks(Long.numberOfTrailingZeros(straightSliders), occupancy);
+            straightSliders &= straightSliders - 1;
+        }
 
-            // Check for attacks by white rooks or queens
-            long rooksAndQueens = board.getWhiteRooks() | board.getWhiteQueens();
-            if ((generateHorizontalAndVerticalAttacks(square, board.getAllPieces()) & rooksAndQueens) != 0) {
-                return true;
-            }
+        long king = white ? board.getWhiteKing() : board.getBlackKing();
+        if (king != 0) {
+            attacks |= kingAttacks[Long.numberOfTrailingZeros(king)];
+        }
+        return attacks;
+    }
+    /**
+     * Static exchange evaluation: the material balance of the capture sequence started by
+     * the move on its target square, assuming both sides always recapture with their least
+     * valuable attacker and may stop whenever continuing would lose material.
+     * Sliders hidden behind pieces that join the exchange are discovered as the square is cleared.
+     *
+     * @return Expected material gain in centipawns for the side making the move (negative if it loses material)
+     */
+    public int staticExchangeEvaluation(Board board, Move move) {
+        int from = move.getFrom();
+        int to = move.getTo();
+        int attackerType = board.getPieceType(from);
+        if (attackerType == -1) {
+            return 0;
+        }
+
+        boolean whiteMoving = board.isWhitePiece(from);
+        long occupancy = board.getAllPieces() & ~Bitboard.getBit(from);
+        int[] gain = new int[32];
+        int depth = 0;
+
+        if (move.getMoveType() == Move.EN_PASSANT) {
+            gain[0] = SEE_PIECE_VALUES[PAWN];
+            occupancy &= ~Bitboard.getBit(whiteMoving ? to - 8 : to + 8);
         } else {
-            // Check for attacks by black pawns
-            long pawns = board.getBlackPawns();
-            int rank = square / 8;
-            int file = square % 8;
-
-            // Black pawns attack diagonally forward (down the board)
-            // Check if black pawn on northwest diagonal (rank+1, file-1) attacks this square
-            if (rank < 7 && file > 0) {
-                int pawnSquare = (rank + 1) * 8 + (file - 1);
-                if (Bitboard.isBitSet(pawns, pawnSquare)) return true;
-            }
+            int capturedType = board.getPieceType(to);
+            gain[0] = capturedType == -1 ? 0 : SEE_PIECE_VALUES[capturedType];
+        }
 
-            // Check if black pawn on northeast diagonal (rank+1, file+1) attacks this square
-            if (rank < 7 && file < 7) {
-                int pawnSquare = (rank + 1) * 8 + (file + 1);
-                if (Bitboard.isBitSet(pawns, pawnSquare)) return true;
-            }
+        if (move.isPromotion()) {
+            attackerType = PROMOTION_PIECE_TYPES[move.getPromotionPieceType()];
+            gain[0] += SEE_PIECE_VALUES[attackerType] - SEE_PIECE_VALUES[PAWN];
+        }
 
-            // Check for attacks by black knights
-            if ((knightAttacks[square] & board.getBlackKnights()) != 0) {
-                return true;
-            }
+        long diagonalSliders = board.getWhiteBishops() | board.getBlackBishops() | board.getWhiteQueens() | board.getBlackQueens();
+        long straightSliders = board.getWhiteRooks() | board.getBlackRooks() | board.getWhiteQueens() | board.getBlackQueens();
+        long attackers = attackersTo(board, to, occupancy) & occupancy;
+        int pieceOnSquareValue = SEE_PIECE_VALUES[attackerType];
+        boolean whiteSide = !whiteMoving;
 
-            // Check for attacks by black king
-            if ((kingAttacks[square] & board.getBlackKing()) != 0) {
-                return true;
+        while (true) {
+            long sideAttackers = attackers & (whiteSide ? board.getWhitePieces() : board.getBlackPieces());
+            if (sideAttackers == 0) {
+                break;
             }
 
-            // Check for attacks by black bishops or queens
-            long bishopsAndQueens = board.getBlackBishops() | board.getBlackQueens();
-            if ((generateDiagonalAttacks(square, board.getAllPieces()) & bishopsAndQueens) != 0) {
-                return true;
+            // Recapture with the least valuable attacker
+            int type = PAWN;
+            long candidates = 0L;
+            for (; type <= KING; type++) {
+                candidates = sideAttackers & getPieces(board, type, whiteSide);
+                if (candidates != 0) {
+                    break;
+                }
             }
 
-            // Check for attacks by black rooks or queens
-            long rooksAndQueens = board.getBlackRooks() | board.getBlackQueens();
-            if ((generateHorizontalAndVerticalAttacks(square, board.getAllPieces()) & rooksAndQueens) != 0) {
-                return true;
-            }
+            // Speculative score if this recapture is itself recaptured
+            depth++;
+            gain[depth] = pieceOnSquareValue - gain[depth - 1];
+
+            occupancy &= ~(candidates & -candidates);
+
+            // Removing the attacker may uncover a slider behind it (x-ray)
+            attackers |= (generateDiagonalAttacks(to, occupancy) & diagonalSliders) |
+                    (generateHorizontalAndVerticalAttacks(to, occupancy) & straightSliders);
+            attackers &= occupancy;
+
+            pieceOnSquareValue = SEE_PIECE_VALUES[type];
+            whiteSide = !whiteSide;
         }
 
-        return false;
+        while (depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+    private long getPieces(Board board, int pieceType, boolean white) {
+        switch (pieceType) {
+            case PAWN: return white ? board.getWhitePawns() : board.getBlackPawns();
+            case KNIGHT: return white ? board.getWhiteKnights() : board.getBlackKnights();
+            case BISHOP: return white ? board.getWhiteBishops() : board.getBlackBishops();
+            case ROOK: return white ? board.getWhiteRooks() : board.getBlackRooks();
+            case QUEEN: return white ? board.getWhiteQueens() : board.getBlackQueens();
+            case KING: return white ? board.getWhiteKing() : board.getBlackKing();
+            default: return 0L;
+        }
     }
     public boolean isKingInCheck(Board board, boolean whiteKing) {
         long king = whiteKing ? board.getWhiteKing() : board.getBlackKing();
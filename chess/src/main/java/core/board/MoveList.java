@@ -22,12 +22,25 @@ public class MoveList {
         }
         return moves[index];
     }
+    public void swap(int i, int j) {
+        Move temp = moves[i];
+        moves[i] = moves[j];
+        moves[j] = temp;
+    }
     public int size() {
         return size;
     }
     public void clear() {
         size = 0;
     }
+    /**
+     * Keep only the first moves of the list
+     */
+    public void truncate(int newSize) {
+        if (newSize < size) {
+            size = Math.max(0, newSize);
+        }
+    }
 
     @Override
     public String toString() {
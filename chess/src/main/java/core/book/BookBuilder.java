@@ -0,0 +1,298 @@
+package core.book;
+
+import core.board.Board;
+import core.board.Move;
+import core.io.ParallelPgnReader;
+import core.io.PgnGame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Builds a Polyglot opening book from PGN files.
+ *
+ * Games are replayed on several threads with {@link ParallelPgnReader}. Every move of the
+ * first {@code maxPly} plies is counted per (Polyglot key, move) in an off-heap
+ * {@link BookEntryMap}, one per thread, scoring 2 for a win and 1 for a draw of the side
+ * that played it. When writing, the maps are merged, moves seen in fewer than
+ * {@code minGames} games or that never scored are dropped, and the entries are sorted by key
+ * and descending weight as Polyglot readers expect.
+ *
+ * Each map, and the merged map, holds at most {@link BookEntryMap#MAX_ENTRIES} different
+ * (position, move) pairs; adding more fails with an IllegalStateException.
+ */
+public class BookBuilder {
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    private int maxPly = 40;
+    private int minGames = 3;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private final List<BookEntryMap> maps = new ArrayList<>();
+    private final LongAdder positions = new LongAdder();
+
+    public void setMaxPly(int maxPly) {
+        this.maxPly = maxPly;
+    }
+    public void setMinGames(int minGames) {
+        this.minGames = minGames;
+    }
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+    /**
+     * Number of positions counted so far
+     */
+    public long getPositions() {
+        return positions.sum();
+    }
+
+    /**
+     * Replay the first maxPly moves of every game of a PGN file and count them. Games without
+     * a result are skipped.
+     *
+     * @throws IllegalStateException If the counts no longer fit in a map
+     */
+    public void addPgn(Path file) throws IOException {
+        // One map per worker thread, so counting needs no locking
+        ThreadLocal<BookEntryMap> threadMaps = ThreadLocal.withInitial(() -> {
+            BookEntryMap map = new BookEntryMap();
+            synchronized (maps) {
+                maps.add(map);
+            }
+            return map;
+        });
+
+        try {
+            ParallelPgnReader.forEachPosition(file, threads, maxPly, () -> {
+                BookEntryMap map = threadMaps.get();
+                return (PgnGame game, Board board, Move move, int ply) -> {
+                    float result = game.getResultValue();
+                    if (Float.isNaN(result)) {
+                        return;
+                    }
+                    float moverResult = board.isWhiteToMove() ? result : 1 - result;
+                    map.add(PolyglotKey.hash(board), PolyglotBook.encodeMove(move), Math.round(moverResult * 2), 1);
+                    positions.increment();
+                };
+            });
+        } catch (IOException e) {
+            if (e.getCause() instanceof IllegalStateException) {
+                throw (IllegalStateException) e.getCause(); // A full map, not a read error
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Merge the counts and write the book.
+     *
+     * @return Number of entries written
+     * @throws IllegalStateException If the merged counts do not fit in a map
+     */
+    public int write(Path output) throws IOException {
+        BookEntryMap merged = mergeMaps();
+
+        // Collect the entries that make it into the book
+        int count = 0;
+        for (int slot = 0; slot < merged.capacity(); slot++) {
+            if (isKept(merged, slot)) {
+                count++;
+            }
+        }
+        long[] keys = new long[count];
+        int[] moves = new int[count];
+        int[] weights = new int[count];
+        int index = 0;
+        for (int slot = 0; slot < merged.capacity(); slot++) {
+            if (isKept(merged, slot)) {
+                keys[index] = merged.getKey(slot);
+                moves[index] = merged.getMove(slot);
+                weights[index] = merged.getScore(slot);
+                index++;
+            }
+        }
+
+        sortEntries(keys, moves, weights);
+        scaleWeights(keys, weights);
+
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(PolyglotBook.ENTRY_SIZE * 4096).order(ByteOrder.BIG_ENDIAN);
+            for (int i = 0; i < count; i++) {
+                if (!buffer.hasRemaining()) {
+                    flush(channel, buffer);
+                }
+                buffer.putLong(keys[i]);
+                buffer.putShort((short) moves[i]);
+                buffer.putShort((short) weights[i]);
+                buffer.putInt(0); // Learn value
+            }
+            flush(channel, buffer);
+        }
+        return count;
+    }
+
+    private BookEntryMap mergeMaps() {
+        synchronized (maps) {
+            if (maps.isEmpty()) {
+                return new BookEntryMap();
+            }
+            // Merge into the largest map to move the fewest entries
+            BookEntryMap merged = maps.get(0);
+            for (BookEntryMap map : maps) {
+                if (map.size() > merged.size()) {
+                    merged = map;
+                }
+            }
+            for (BookEntryMap map : maps) {
+                if (map != merged) {
+                    merged.addAll(map);
+                }
+            }
+            maps.clear();
+            maps.add(merged);
+            return merged;
+        }
+    }
+
+    private boolean isKept(BookEntryMap map, int slot) {
+        return map.getMove(slot) != 0 && map.getGames(slot) >= minGames && map.getScore(slot) > 0;
+    }
+
+    /**
+     * Sort by unsigned key, then by descending weight. Keys are uniformly distributed hashes,
+     * so a bucket pass on the top bits leaves only a handful of entries per bucket to order.
+     */
+    private static void sortEntries(long[] keys, int[] moves, int[] weights) {
+        int count = keys.length;
+        int bits = Math.max(1, Math.min(24, 32 - Integer.numberOfLeadingZeros(Math.max(1, count / 4))));
+        int shift = 64 - bits;
+
+        int[] bucketStart = new int[(1 << bits) + 1];
+        for (long key : keys) {
+            bucketStart[(int) (key >>> shift) + 1]++;
+        }
+        for (int i = 1; i < bucketStart.length; i++) {
+            bucketStart[i] += bucketStart[i - 1];
+        }
+
+        long[] sortedKeys = new long[count];
+        int[] sortedMoves = new int[count];
+        int[] sortedWeights = new int[count];
+        int[] next = bucketStart.clone();
+        for (int i = 0; i < count; i++) {
+            int target = next[(int) (keys[i] >>> shift)]++;
+            sortedKeys[target] = keys[i];
+            sortedMoves[target] = moves[i];
+            sortedWeights[target] = weights[i];
+        }
+
+        // Insertion sort inside each bucket
+        for (int bucket = 0; bucket + 1 < bucketStart.length; bucket++) {
+            for (int i = bucketStart[bucket] + 1; i < bucketStart[bucket + 1]; i++) {
+                long key = sortedKeys[i];
+                int move = sortedMoves[i];
+                int weight = sortedWeights[i];
+                int j = i - 1;
+                while (j >= bucketStart[bucket] && comesAfter(sortedKeys[j], sortedWeights[j], key, weight)) {
+                    sortedKeys[j + 1] = sortedKeys[j];
+                    sortedMoves[j + 1] = sortedMoves[j];
+                    sortedWeights[j + 1] = sortedWeights[j];
+                    j--;
+                }
+                sortedKeys[j + 1] = key;
+                sortedMoves[j + 1] = move;
+                sortedWeights[j + 1] = weight;
+            }
+        }
+
+        System.arraycopy(sortedKeys, 0, keys, 0, count);
+        System.arraycopy(sortedMoves, 0, moves, 0, count);
+        System.arraycopy(sortedWeights, 0, weights, 0, count);
+    }
+
+    private static boolean comesAfter(long key1, int weight1, long key2, int weight2) {
+        int keyOrder = Long.compareUnsigned(key1, key2);
+        return keyOrder > 0 || (keyOrder == 0 && weight1 < weight2);
+    }
+
+    /**
+     * Polyglot weights are 16 bit. Scale down the positions whose best move does not fit,
+     * keeping the proportions between their moves.
+     */
+    private static void scaleWeights(long[] keys, int[] weights) {
+        int start = 0;
+        while (start < keys.length) {
+            int end = start + 1;
+            while (end < keys.length && keys[end] == keys[start]) {
+                end++;
+            }
+            int maxWeight = weights[start]; // Sorted by descending weight
+            if (maxWeight > MAX_WEIGHT) {
+                for (int i = start; i < end; i++) {
+                    weights[i] = Math.max(1, (int) ((long) weights[i] * MAX_WEIGHT / maxWeight));
+                }
+            }
+            start = end;
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Build a book from one or more PGN files.
+     */
+    public static void main(String[] args) throws IOException {
+        BookBuilder builder = new BookBuilder();
+        List<Path> inputs = new ArrayList<>();
+        Path output = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-maxply": builder.setMaxPly(Integer.parseInt(args[++i])); break;
+                case "-mingames": builder.setMinGames(Integer.parseInt(args[++i])); break;
+                case "-threads": builder.setThreads(Integer.parseInt(args[++i])); break;
+                default:
+                    if (output == null) {
+                        output = Paths.get(args[i]);
+                    } else {
+                        inputs.add(Paths.get(args[i]));
+                    }
+            }
+        }
+        if (output == null || inputs.isEmpty()) {
+            System.out.println("Usage: java core.book.BookBuilder <output.bin> <input.pgn>... " +
+                    "[-maxply N] [-mingames N] [-threads N]");
+            System.exit(1);
+        }
+
+        long start = System.currentTimeMillis();
+        int entries;
+        try {
+            for (Path input : inputs) {
+                System.out.println("Reading " + input);
+                builder.addPgn(input);
+            }
+            entries = builder.write(output);
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+            return;
+        }
+        System.out.println("Wrote " + entries + " entries from " + builder.getPositions() + " positions to " + output +
+                " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
@@ -0,0 +1,122 @@
+package core.book;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Open addressing hash map from (position key, move) to game statistics, stored off-heap in
+ * a direct buffer so tens of millions of entries cost no object headers and no GC work.
+ *
+ * Each slot holds the Polyglot key (8 bytes), the Polyglot move (4 bytes), the score
+ * (4 bytes, 2 per win and 1 per draw for the side that played the move) and the number of
+ * games (4 bytes). Move 0 never occurs in a book and marks an empty slot.
+ * Not thread-safe; the builder keeps one map per thread and merges them at the end.
+ */
+class BookEntryMap {
+    static final int SLOT_SIZE = 20;
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    // Keeps every buffer under the 2 GB limit of a ByteBuffer
+    private static final int MAX_CAPACITY = 1 << 26;
+    // The map grows at half load, so this is the most entries it can hold
+    static final int MAX_ENTRIES = MAX_CAPACITY / 2;
+
+    private ByteBuffer slots;
+    private int capacity;
+    private int size;
+
+    BookEntryMap() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    int size() {
+        return size;
+    }
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Add one game's result to the statistics of a move.
+     */
+    void add(long key, int move, int score, int games) {
+        if (size * 2 >= capacity) {
+            grow();
+        }
+        int mask = capacity - 1;
+        int slot = hash(key, move) & mask;
+        while (true) {
+            int offset = slot * SLOT_SIZE;
+            int slotMove = slots.getInt(offset + 8);
+            if (slotMove == 0) {
+                slots.putLong(offset, key);
+                slots.putInt(offset + 8, move);
+                slots.putInt(offset + 12, score);
+                slots.putInt(offset + 16, games);
+                size++;
+                return;
+            }
+            if (slotMove == move && slots.getLong(offset) == key) {
+                slots.putInt(offset + 12, slots.getInt(offset + 12) + score);
+                slots.putInt(offset + 16, slots.getInt(offset + 16) + games);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Add every entry of another map to this one.
+     */
+    void addAll(BookEntryMap other) {
+        for (int slot = 0; slot < other.capacity; slot++) {
+            if (other.getMove(slot) != 0) {
+                add(other.getKey(slot), other.getMove(slot), other.getScore(slot), other.getGames(slot));
+            }
+        }
+    }
+
+    // Slot accessors, a slot with move 0 is empty
+    long getKey(int slot) {
+        return slots.getLong(slot * SLOT_SIZE);
+    }
+    int getMove(int slot) {
+        return slots.getInt(slot * SLOT_SIZE + 8);
+    }
+    int getScore(int slot) {
+        return slots.getInt(slot * SLOT_SIZE + 12);
+    }
+    int getGames(int slot) {
+        return slots.getInt(slot * SLOT_SIZE + 16);
+    }
+
+    private void grow() {
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("Opening book is full: more than " + MAX_ENTRIES +
+                    " different (position, move) pairs. Use a smaller -maxply or fewer games.");
+        }
+        ByteBuffer old = slots;
+        int oldCapacity = capacity;
+        allocate(capacity * 2);
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            int offset = slot * SLOT_SIZE;
+            int move = old.getInt(offset + 8);
+            if (move != 0) {
+                add(old.getLong(offset), move, old.getInt(offset + 12), old.getInt(offset + 16));
+            }
+        }
+    }
+
+    private void allocate(int newCapacity) {
+        // allocateDirect returns zeroed memory, so every slot starts empty
+        slots = ByteBuffer.allocateDirect(newCapacity * SLOT_SIZE).order(ByteOrder.nativeOrder());
+        capacity = newCapacity;
+        size = 0;
+    }
+
+    private static int hash(long key, int move) {
+        // The Polyglot key is already a random hash; mix in the move so the moves of one
+        // position do not all probe the same run of slots
+        long h = key ^ (move * 0x9E3779B97F4A7C15L);
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,30 @@
+package core.book;
+
+import core.board.Move;
+
+/**
+ * A legal move found in an opening book with its weight
+ */
+public class BookMove {
+    private final Move move;
+    private final int weight;
+
+    public BookMove(Move move, int weight) {
+        this.move = move;
+        this.weight = weight;
+    }
+    public Move getMove() {
+        return move;
+    }
+    /**
+     * Relative frequency of the move in the book, usually derived from game results
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return move + " (" + weight + ")";
+    }
+}
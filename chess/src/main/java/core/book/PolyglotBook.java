@@ -0,0 +1,182 @@
+package core.book;
+
+import core.board.Board;
+import core.board.Move;
+import core.board.MoveList;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reader for Polyglot .bin opening books.
+ *
+ * A book is a sequence of 16 byte big-endian entries sorted by key: the {@link PolyglotKey}
+ * of the position (8 bytes), the move (2 bytes), its weight (2 bytes) and a learn value
+ * (4 bytes, unused). The file is memory-mapped and the entries of a position are found by
+ * binary search, so opening a book costs nothing and a lookup touches only a few pages.
+ * Lookups only read the mapping and can run on several threads.
+ */
+public class PolyglotBook implements AutoCloseable {
+    public static final int ENTRY_SIZE = 16;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer entries;
+    private final int size;
+
+    public PolyglotBook(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            if (fileSize % ENTRY_SIZE != 0) {
+                throw new IOException("Not a Polyglot book: " + file);
+            }
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Opening book too large: " + file);
+            }
+            this.size = (int) (fileSize / ENTRY_SIZE);
+            this.entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            entries.order(ByteOrder.BIG_ENDIAN);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Number of entries in the book
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The book moves of the position that are legal on the board, in book order (usually by
+     * descending weight). Entries that do not decode to a legal move are skipped.
+     */
+    public List<BookMove> getMoves(Board board) {
+        List<BookMove> moves = new ArrayList<>();
+        long key = PolyglotKey.hash(board);
+        int index = findFirst(key);
+        if (index >= size || getKey(index) != key) {
+            return moves;
+        }
+
+        MoveList legalMoves = new MoveList(256);
+        board.generateLegalMoves(legalMoves);
+        for (; index < size && getKey(index) == key; index++) {
+            int offset = index * ENTRY_SIZE;
+            int bookMove = entries.getShort(offset + 8) & 0xFFFF;
+            int weight = entries.getShort(offset + 10) & 0xFFFF;
+            Move move = decodeMove(board, legalMoves, bookMove);
+            if (move != null) {
+                moves.add(new BookMove(move, weight));
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Pick one of the book moves of the position at random, with probability proportional
+     * to its weight.
+     *
+     * @return The move, or null if the position is not in the book
+     */
+    public Move pickMove(Board board, Random random) {
+        List<BookMove> moves = getMoves(board);
+        long totalWeight = 0;
+        for (BookMove move : moves) {
+            totalWeight += move.getWeight();
+        }
+        if (totalWeight == 0) {
+            // Zero weights mean "never play" in Polyglot, unless that is all the book has
+            return moves.isEmpty() ? null : moves.get(random.nextInt(moves.size())).getMove();
+        }
+
+        long choice = (long) (random.nextDouble() * totalWeight);
+        for (BookMove move : moves) {
+            choice -= move.getWeight();
+            if (choice < 0) {
+                return move.getMove();
+            }
+        }
+        return moves.get(moves.size() - 1).getMove();
+    }
+
+    /**
+     * Polyglot encoding of a move: to square in bits 0-5, from square in bits 6-11 and the
+     * promotion piece in bits 12-14 (1 = knight .. 4 = queen). Castling is written as the
+     * king capturing its own rook (e1h1, e1a1, e8h8, e8a8).
+     */
+    public static int encodeMove(Move move) {
+        int from = move.getFrom();
+        int to = move.getTo();
+        if (move.getMoveType() == Move.CASTLING) {
+            to = to > from ? to + 1 : to - 2;
+        }
+        int promotion = move.isPromotion() ? Move.KNIGHT_PROMOTION + 1 - move.getPromotionPieceType() : 0;
+        return to | (from << 6) | (promotion << 12);
+    }
+
+    /**
+     * Find the legal move with the given Polyglot encoding.
+     *
+     * @return The move, or null if no legal move matches
+     */
+    public static Move decodeMove(Board board, MoveList legalMoves, int bookMove) {
+        int to = bookMove & 0x3F;
+        int from = (bookMove >> 6) & 0x3F;
+        int promotion = (bookMove >> 12) & 0x7;
+
+        for (int i = 0; i < legalMoves.size(); i++) {
+            Move move = legalMoves.get(i);
+            if (move.getFrom() != from) {
+                continue;
+            }
+            if (move.getMoveType() == Move.CASTLING) {
+                int rookSquare = move.getTo() > from ? move.getTo() + 1 : move.getTo() - 2;
+                if (rookSquare == to) {
+                    return move;
+                }
+            } else if (move.getTo() == to) {
+                int movePromotion = move.isPromotion() ? Move.KNIGHT_PROMOTION + 1 - move.getPromotionPieceType() : 0;
+                if (movePromotion == promotion) {
+                    return move;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Index of the first entry with a key not below the given key, comparing keys unsigned
+     */
+    private int findFirst(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(getKey(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long getKey(int index) {
+        return entries.getLong(index * ENTRY_SIZE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
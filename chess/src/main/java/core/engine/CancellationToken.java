@@ -0,0 +1,16 @@
+package core.engine;
+
+/**
+ * Lets another thread stop a running search. The search polls the flag every few
+ * thousand nodes and returns the result of the last completed iteration.
+ */
+public class CancellationToken {
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        cancelled = true;
+    }
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
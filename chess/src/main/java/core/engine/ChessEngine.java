@@ -1,31 +1,152 @@
 package core.engine;
 
 import core.board.Board;
+import core.board.Move;
 import core.board.MoveGenerator;
+import core.book.PolyglotBook;
 import core.eval.CombinedEvaluator;
-public class ChessEngine {
+import core.eval.EndgameEvaluator;
+import core.tablebase.SyzygyTablebase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+public class ChessEngine implements AutoCloseable {
     private Minimax minimax;
     private SearchParameters params;
-    private int searchDepth;
     private MoveGenerator moveGenerator;
     private CombinedEvaluator evaluator;
+    private volatile CancellationToken currentSearch;
+    private PolyglotBook openingBook;
+    private SyzygyTablebase tablebase;
+    private final Random bookRandom = new Random();
 
     public ChessEngine() {
         this.params = new SearchParameters();
-        this.searchDepth = params.getMaxDepth();
 
     }
     public void init() {
         this.moveGenerator = new MoveGenerator();
         this.evaluator = new CombinedEvaluator();
         this.minimax = new Minimax(evaluator, moveGenerator);
+        this.minimax.setNullMovePruning(params.isNullMovePruning());
+        this.minimax.setHashSize(params.getHashSizeMb());
+        this.openingBook = openOpeningBook(params.getOpeningBookPath());
+        this.tablebase = openTablebase(params.getSyzygyPath());
+        this.minimax.setTablebase(tablebase);
+        EndgameEvaluator.loadBitbases();
+    }
+    private static PolyglotBook openOpeningBook(String path) {
+        if (path == null) {
+            return null;
+        }
+        Path file = Paths.get(path);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            PolyglotBook book = new PolyglotBook(file);
+            System.out.println("Opening book " + file + " loaded with " + book.size() + " entries");
+            return book;
+        } catch (IOException e) {
+            System.err.println("Error loading opening book " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+    private static SyzygyTablebase openTablebase(String path) {
+        if (path == null) {
+            return null;
+        }
+        SyzygyTablebase tablebase = new SyzygyTablebase(path);
+        if (tablebase.getMaxPieces() == 0) {
+            return null;
+        }
+        System.out.println("Syzygy tablebases loaded: " + tablebase.getTableNames().size() +
+                " tables, up to " + tablebase.getMaxPieces() + " pieces");
+        return tablebase;
     }
     public SearchResult search(Board board) {
+        return search(board, new CancellationToken());
+    }
+    /**
+     * Search with the depth, node and time limits of the search parameters. Positions found
+     * in the opening book are answered with a book move straight away when the book is enabled.
+     * The search can be stopped early through the token or with {@link #stop()}.
+     */
+    public SearchResult search(Board board, CancellationToken cancellationToken) {
+        return search(board, cancellationToken, null);
+    }
+    /**
+     * Search as above, reporting each completed iteration to the listener (may be null).
+     * The listener is called on the searching thread.
+     */
+    public SearchResult search(Board board, CancellationToken cancellationToken, SearchListener listener) {
         if (minimax == null) {
             init(); // Initialize if not already initialized
         }
 
-        return minimax.findBestMove(board, searchDepth);
+        if (params.isUseOpeningBook() && openingBook != null) {
+            Move bookMove = openingBook.pickMove(board, bookRandom);
+            if (bookMove != null) {
+                return SearchResult.fromBook(bookMove);
+            }
+        }
+
+        currentSearch = cancellationToken;
+        minimax.setMultiPv(params.getMultiPv());
+        try {
+            return minimax.findBestMove(board, params.getMaxDepth(), params.getNodeLimit(),
+                    params.getTimeLimitMillis(), cancellationToken, listener);
+        } finally {
+            currentSearch = null;
+        }
+    }
+    /**
+     * Stop the running search, if any. It returns the best move of its last completed iteration.
+     */
+    public void stop() {
+        CancellationToken search = currentSearch;
+        if (search != null) {
+            search.cancel();
+        }
+    }
+    /**
+     * Forget the positions stored by earlier searches, e.g. when a new game starts.
+     */
+    public void clearHash() {
+        if (minimax != null) {
+            minimax.clearTranspositionTable();
+        }
+    }
+    /**
+     * Release the opening book and tablebase files. Keep one engine for a whole game rather
+     * than one per move; a search after closing opens them again.
+     */
+    @Override
+    public void close() {
+        if (openingBook != null) {
+            try {
+                openingBook.close();
+            } catch (IOException e) {
+                System.err.println("Error closing opening book: " + e.getMessage());
+            }
+            openingBook = null;
+        }
+        if (tablebase != null) {
+            try {
+                tablebase.close();
+            } catch (IOException e) {
+                System.err.println("Error closing Syzygy tablebases: " + e.getMessage());
+            }
+            tablebase = null;
+        }
+        minimax = null;
+    }
+    public SearchParameters getParameters() {
+        return params;
     }
     public MoveGenerator getMoveGenerator() {
         return this.moveGenerator;
@@ -0,0 +1,91 @@
+package core.engine;
+
+import core.board.Move;
+import core.util.MoveNotation;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Summary of one iterative deepening iteration
+ */
+public class IterationInfo {
+    private final int depth;
+    private final Move bestMove;
+    private final int score;
+    private final long nodesSearched;
+    private final long timeMillis;
+    private final int failHighs;
+    private final int failLows;
+    private final int[] principalVariation;
+    private final List<SearchLine> lines;
+
+    public IterationInfo(int depth, Move bestMove, int score, long nodesSearched, long timeMillis,
+                         int failHighs, int failLows, int[] principalVariation, List<SearchLine> lines) {
+        this.depth = depth;
+        this.bestMove = bestMove;
+        this.score = score;
+        this.nodesSearched = nodesSearched;
+        this.timeMillis = timeMillis;
+        this.failHighs = failHighs;
+        this.failLows = failLows;
+        this.principalVariation = principalVariation;
+        this.lines = lines;
+    }
+    public int getDepth() {
+        return depth;
+    }
+    public Move getBestMove() {
+        return bestMove;
+    }
+    /**
+     * Score from white's point of view
+     */
+    public int getScore() {
+        return score;
+    }
+    public long getNodesSearched() {
+        return nodesSearched;
+    }
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+    /**
+     * Number of times the aspiration window was too low and the root had to be searched again
+     */
+    public int getFailHighs() {
+        return failHighs;
+    }
+    /**
+     * Number of times the aspiration window was too high and the root had to be searched again
+     */
+    public int getFailLows() {
+        return failLows;
+    }
+    public int getResearches() {
+        return failHighs + failLows;
+    }
+    /**
+     * Best line of this iteration as {@link Move#toInt()} values
+     */
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+    /**
+     * Best root moves of this iteration with their scores and lines, best first (one per multi-PV line)
+     */
+    public List<SearchLine> getLines() {
+        return Collections.unmodifiableList(lines);
+    }
+
+    @Override
+    public String toString() {
+        return "Depth " + depth +
+                ", Best move: " + bestMove +
+                ", Score: " + score +
+                ", Nodes: " + nodesSearched +
+                ", Time: " + timeMillis + " ms" +
+                ", Re-searches: " + failHighs + " high / " + failLows + " low" +
+                ", PV: " + MoveNotation.ToUci(principalVariation);
+    }
+}
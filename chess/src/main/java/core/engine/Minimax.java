@@ -5,132 +5,863 @@ import core.board.Move;
 import core.board.MoveGenerator;
 import core.board.MoveList;
 import core.eval.*;
+import core.fen.FenGenerator;
+import core.tablebase.SyzygyTablebase;
+import core.util.MoveNotation;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 
 public class Minimax {
     private final CombinedEvaluator evaluator;
     private final MoveGenerator moveGenerator;
-    private int nodesSearched;
-    private int maxDepth; // Track the original search depth
+    private long nodesSearched;
 
     private Map<Long, Integer> searchPositionHistory;
 
+    // Ordering score of the move stored in the transposition table, searched before everything else
+    private static final int HASH_MOVE_SCORE = Integer.MAX_VALUE;
+    // Ordering score added to captures that do not lose material
+    private static final int GOOD_CAPTURE_SCORE = 1_000_000;
+
+    // Null-move pruning: minimum remaining depth, base reduction and the depth from which it grows
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    private static final int NULL_MOVE_REDUCTION = 2;
+    private static final int NULL_MOVE_DEEP_REDUCTION_DEPTH = 7;
+    // Scores beyond this are mate scores and are never trusted from a null-move search
+    private static final int MATE_THRESHOLD = CombinedEvaluator.MATE_VALUE - 1000;
+    // Bound above any reachable score, safe to negate
+    private static final int INFINITY = CombinedEvaluator.MATE_VALUE + 1;
+
+    // Late move reductions: quiet moves after the first few are searched shallower first
+    private static final int LMR_MIN_DEPTH = 3;
+    private static final int LMR_MIN_MOVE_INDEX = 3;
+    private static final int[][] LMR_REDUCTIONS = new int[64][256];
+    // Quiet moves with a history score above this are reduced one ply less
+    private static final int LMR_HISTORY_THRESHOLD = 1000;
+
+    // Aspiration windows: first iteration that uses one and the initial half-width in centipawns
+    private static final int ASPIRATION_MIN_DEPTH = 4;
+    private static final int ASPIRATION_WINDOW = 25;
+
+    // History scores are halved once one reaches this value, so they stay below capture scores
+    private static final int HISTORY_MAX = 100_000;
+
+    static {
+        for (int depth = 1; depth < LMR_REDUCTIONS.length; depth++) {
+            for (int moveIndex = 1; moveIndex < LMR_REDUCTIONS[depth].length; moveIndex++) {
+                LMR_REDUCTIONS[depth][moveIndex] = (int) (0.75 + Math.log(depth) * Math.log(moveIndex) / 2.25);
+            }
+        }
+    }
+
+    // Time and cancellation are polled when the node count is a multiple of this (power of two)
+    private static final int LIMIT_CHECK_INTERVAL = 2048;
+
+    // Deepest ply the search can reach, quiescence included
+    private static final int MAX_PLY = 128;
+
+    // Tablebase wins score below every mate, and shorter paths to a tablebase win score higher
+    private static final int TB_WIN = MATE_THRESHOLD - MAX_PLY;
+
+    // Triangular principal variation table: row ply holds the best line from that ply,
+    // stored in columns ply..pvLength[ply]-1 as Move.toInt() values
+    private final int[][] pvTable = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+
+    // Quiet moves that caused a beta cutoff, indexed by side to move, from and to square
+    private final int[][][] history = new int[2][64][64];
+
+    private boolean nullMovePruning = true;
+    // Number of best root moves searched with exact scores
+    private int multiPv = 1;
+
+    // Kept across searches, cleared only on request (e.g. a new game)
+    private static final int DEFAULT_HASH_SIZE_MB = 16;
+    private final TranspositionTable transpositionTable = new TranspositionTable(DEFAULT_HASH_SIZE_MB);
+
+    // Endgame tablebases probed during the search, null if none
+    private SyzygyTablebase tablebase;
+    private int tablebaseHits;
+
+    // Counters of the running search, replaced at the start of every search
+    private SearchStatistics statistics = new SearchStatistics();
+    // Measure the time spent in move generation and evaluation (two clock reads per call)
+    private boolean timingEnabled;
+
+    // Best move of the current root search, null if no move beat alpha
+    private Move rootBestMove;
+    private final List<IterationInfo> iterations = new ArrayList<>();
+
+    // Limits of the running search, checked by checkLimits
+    private CancellationToken cancellationToken;
+    private long nodeLimit;
+    private long deadline;
+    private boolean stopped;
+
     public Minimax(CombinedEvaluator evaluator, MoveGenerator moveGenerator) {
+        this(evaluator, moveGenerator, EvaluationParameters.getActive());
+    }
+
+    /**
+     * Search with evaluators built from the given weights instead of the active ones, e.g. to
+     * play two parameter sets against each other in one process.
+     */
+    public Minimax(CombinedEvaluator evaluator, MoveGenerator moveGenerator, EvaluationParameters parameters) {
         this.evaluator = evaluator;
-        this.evaluator.addEvaluator(new MaterialEvaluator());
-        this.evaluator.addEvaluator(new PositionalEvaluator());
-        this.evaluator.addEvaluator(new PawnStructureEvaluator());
-        this.evaluator.addEvaluator(new EndgameEvaluator());
-        this.evaluator.addEvaluator(new KingSafetyEvaluator());
+        this.evaluator.addEvaluator(new MaterialEvaluator(parameters));
+        this.evaluator.addEvaluator(new PositionalEvaluator(parameters));
+        this.evaluator.addEvaluator(new PawnStructureEvaluator(parameters));
+        this.evaluator.addEvaluator(new EndgameEvaluator(parameters));
+        this.evaluator.addEvaluator(new KingSafetyEvaluator(parameters));
         this.moveGenerator = moveGenerator;
     }
 
+    public void setNullMovePruning(boolean nullMovePruning) {
+        this.nullMovePruning = nullMovePruning;
+    }
+
+    /**
+     * Search the given number of best root moves with exact scores and lines instead of only
+     * the best one. Each iteration finds them one after the other, every search excluding the
+     * moves already found; they share the transposition table, so later lines are cheap.
+     */
+    public void setMultiPv(int multiPv) {
+        this.multiPv = Math.max(1, multiPv);
+    }
+
+    /**
+     * Resize the transposition table, dropping its contents; the next search allocates it.
+     */
+    public void setHashSize(int megabytes) {
+        transpositionTable.resize(megabytes);
+    }
+
+    /**
+     * Forget everything stored by earlier searches.
+     */
+    public void clearTranspositionTable() {
+        transpositionTable.clear();
+    }
+
+    /**
+     * Probe these tablebases once few pieces are left (null = none).
+     */
+    public void setTablebase(SyzygyTablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Measure the time spent in move generation and in the static evaluation, reported by
+     * {@link SearchStatistics}. Reading the clock around every call slows the search down,
+     * so this is off by default.
+     */
+    public void setTimingEnabled(boolean timingEnabled) {
+        this.timingEnabled = timingEnabled;
+    }
+
+    /**
+     * Statistics of the last search; also attached to its {@link SearchResult}
+     */
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Number of successful tablebase probes in the last search
+     */
+    public int getTablebaseHits() {
+        return tablebaseHits;
+    }
+
+    /**
+     * Iterative deepening search up to the given depth. Each iteration after the first few
+     * starts with an aspiration window around the previous score and widens it exponentially
+     * when the result falls outside.
+     */
     public SearchResult findBestMove(Board board, int depth) {
+        return findBestMove(board, depth, 0, 0, null);
+    }
+
+    /**
+     * Search with limits. When a limit is hit or the token is cancelled the running iteration
+     * is abandoned and the result of the last completed iteration is returned.
+     *
+     * @param nodeLimit Maximum number of nodes (0 = no limit)
+     * @param timeLimitMillis Maximum search time in milliseconds (0 = no limit)
+     * @param cancellationToken Token to stop the search from another thread (may be null)
+     */
+    public SearchResult findBestMove(Board board, int depth, long nodeLimit, long timeLimitMillis,
+                                     CancellationToken cancellationToken) {
+        return findBestMove(board, depth, nodeLimit, timeLimitMillis, cancellationToken, null);
+    }
+
+    /**
+     * Search with limits, reporting every completed iteration to the listener (may be null).
+     */
+    public SearchResult findBestMove(Board board, int depth, long nodeLimit, long timeLimitMillis,
+                                     CancellationToken cancellationToken, SearchListener listener) {
+        long startNanos = System.nanoTime();
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        this.cancellationToken = cancellationToken;
+        this.nodeLimit = nodeLimit;
+        this.deadline = timeLimitMillis > 0 ? System.currentTimeMillis() + timeLimitMillis : 0;
+        this.stopped = false;
         nodesSearched = 0;
-        maxDepth = depth;
+        tablebaseHits = 0;
+        statistics = new SearchStatistics();
         searchPositionHistory = new HashMap<>();
         searchPositionHistory.put(board.getPositionHash(), 1);
-        Move bestMove = null;
-        boolean isMaximizing = board.isWhiteToMove();  // Determine if White or Black
-        int bestScore = isMaximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
-        int alpha = Integer.MIN_VALUE;
-        int beta = Integer.MAX_VALUE;
+        clearHistory();
+        iterations.clear();
+        transpositionTable.newSearch();
+        long rootKey = board.getKey();
 
         MoveList moves = new MoveList(256);
-        moveGenerator.generateLegalMoves(board, moves);
+        generateMoves(board, moves);
 
         if (moves.size() == 0) {
-            return new SearchResult(null, 0, nodesSearched);
+            return withStatistics(new SearchResult(null, 0, nodesSearched), board, event, startNanos);
+        }
+
+        if (tablebase != null && tablebase.canProbe(board)) {
+            int[] dtz = tablebase.probeRootDtz(board, moves);
+            if (dtz != null) {
+                tablebaseHits++;
+                SearchResult result = tablebaseRootResult(board, moves, dtz);
+                if (result != null) {
+                    return withStatistics(result, board, event, startNanos);
+                }
+            }
         }
+        int rootEntry = transpositionTable.probe(rootKey);
+        orderMoves(board, moves, rootEntry >= 0 ? transpositionTable.getMove(rootEntry) : 0);
 
+        Move bestMove = moves.get(0);
+        int bestScore = 0;
+        int[] principalVariation = {bestMove.toInt()};
+        // Moves 0..lineCount-1 hold the lines of the last iteration in order, with their scores
+        int lineCount = Math.min(multiPv, moves.size());
+        int[] lineScores = new int[lineCount];
+        List<SearchLine> lines = new ArrayList<>();
+
+        for (int iterationDepth = 1; iterationDepth <= depth; iterationDepth++) {
+            long start = System.currentTimeMillis();
+            long startNodes = nodesSearched;
+            int failHighs = 0;
+            int failLows = 0;
+            List<SearchLine> iterationLines = new ArrayList<>(lineCount);
+
+            for (int line = 0; line < lineCount; line++) {
+                int delta = ASPIRATION_WINDOW;
+                int alpha = -INFINITY;
+                int beta = INFINITY;
+                if (iterationDepth >= ASPIRATION_MIN_DEPTH && Math.abs(lineScores[line]) < MATE_THRESHOLD) {
+                    alpha = Math.max(-INFINITY, lineScores[line] - delta);
+                    beta = Math.min(INFINITY, lineScores[line] + delta);
+                }
+
+                int score;
+                while (true) {
+                    score = searchRoot(board, moves, line, iterationDepth, alpha, beta);
+                    if (stopped) {
+                        break;
+                    }
+                    if (score <= alpha && alpha > -INFINITY) {
+                        failLows++;
+                        alpha = Math.max(-INFINITY, score - delta);
+                    } else if (score >= beta && beta < INFINITY) {
+                        failHighs++;
+                        if (rootBestMove != null) {
+                            if (line == 0) {
+                                // Already known to be better than the old best move. Should the search
+                                // stop before the wider window settles it, it is reported with the
+                                // fail-high bound and its line so far.
+                                bestMove = rootBestMove;
+                                bestScore = score;
+                                principalVariation = pvLength[0] > 0 ?
+                                        Arrays.copyOf(pvTable[0], pvLength[0]) : new int[]{rootBestMove.toInt()};
+                                lines = withFirstLine(lines, new SearchLine(bestMove,
+                                        board.isWhiteToMove() ? score : -score, principalVariation));
+                            }
+                            moveToFront(moves, rootBestMove, line);
+                        }
+                        beta = Math.min(INFINITY, score + delta);
+                    } else {
+                        break;
+                    }
+                    delta *= 2;
+                }
+                if (stopped) {
+                    break;
+                }
+
+                // The line's move goes right after the moves found before it, so the next search skips it
+                moveToFront(moves, rootBestMove, line);
+                lineScores[line] = score;
+                int[] linePv = pvLength[0] > 0 ?
+                        Arrays.copyOf(pvTable[0], pvLength[0]) : new int[]{rootBestMove.toInt()};
+                iterationLines.add(new SearchLine(rootBestMove, board.isWhiteToMove() ? score : -score, linePv));
+            }
+            if (stopped) {
+                break; // Keep the last completed iteration
+            }
+            // Search instability can leave a later line scored above an earlier one
+            for (int i = 2; i < lineCount; i++) {
+                for (int j = i; j > 1 && lineScores[j] > lineScores[j - 1]; j--) {
+                    moves.swap(j, j - 1);
+                    Collections.swap(iterationLines, j, j - 1);
+                    int score = lineScores[j];
+                    lineScores[j] = lineScores[j - 1];
+                    lineScores[j - 1] = score;
+                }
+            }
+
+            lines = iterationLines;
+            bestMove = moves.get(0);
+            bestScore = lineScores[0];
+            principalVariation = lines.get(0).getPrincipalVariation();
+
+            transpositionTable.store(rootKey, bestMove.toInt(), scoreToTable(bestScore, 0), iterationDepth,
+                    TranspositionTable.BOUND_EXACT);
+
+            long iterationMillis = System.currentTimeMillis() - start;
+            statistics.addIteration(nodesSearched - startNodes, iterationMillis);
+            int whiteScore = board.isWhiteToMove() ? bestScore : -bestScore;
+            IterationInfo info = new IterationInfo(iterationDepth, bestMove, whiteScore, nodesSearched - startNodes,
+                    iterationMillis, failHighs, failLows, principalVariation, lines);
+            iterations.add(info);
+            if (listener != null) {
+                listener.onIteration(info);
+            }
+        }
+
+        // Search scores are relative to the side to move, results are reported from white's point of view
+        int whiteScore = board.isWhiteToMove() ? bestScore : -bestScore;
+        if (lines.isEmpty()) {
+            lines.add(new SearchLine(bestMove, whiteScore, principalVariation));
+        }
+        return withStatistics(new SearchResult(bestMove, whiteScore, nodesSearched, principalVariation, lines), board, event, startNanos);
+    }
+
+    private SearchResult withStatistics(SearchResult result, Board board, SearchEvent event, long startNanos) {
+        statistics.nodes = nodesSearched;
+        statistics.timeNanos = System.nanoTime() - startNanos;
+        result.setStatistics(statistics);
+        event.end();
+        if (event.shouldCommit()) {
+            event.fen = FenGenerator.generateFen(board);
+            event.depth = statistics.getDepth();
+            event.selectiveDepth = statistics.selectiveDepth;
+            event.nodes = nodesSearched;
+            event.score = result.getScore();
+            event.bestMove = result.getBestMove() != null ? MoveNotation.ToUci(result.getBestMove()) : null;
+            event.stopped = stopped;
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * Rank the root moves by their tablebase distance to zeroing. A won or lost position is
+     * played straight from the tables: the fastest win, or the longest resistance. Otherwise
+     * only the moves that keep the best result (a draw, or a win or loss that the 50-move
+     * rule turns into a draw) are left in the list for the search to choose from.
+     *
+     * @return The tablebase move, or null if the remaining moves must be searched
+     */
+    private SearchResult tablebaseRootResult(Board board, MoveList moves, int[] dtz) {
+        int[] ranks = new int[moves.size()];
+        int best = 0;
         for (int i = 0; i < moves.size(); i++) {
+            ranks[i] = SyzygyTablebase.rankDtz(dtz[i], board.getHalfmoveClock());
+            if (ranks[i] > ranks[best]) {
+                best = i;
+            }
+        }
+
+        int bound = SyzygyTablebase.MAX_DTZ / 2 - 100;
+        if (Math.abs(ranks[best]) >= bound) {
+            Move move = moves.get(best);
+            int score = ranks[best] > 0 ? TB_WIN - 1 : -TB_WIN + 1;
+            return new SearchResult(move, board.isWhiteToMove() ? score : -score, nodesSearched, new int[]{move.toInt()});
+        }
+
+        // Drop the moves that give away the result
+        int kept = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            if (ranks[i] == ranks[best]) {
+                moves.swap(kept++, i);
+            }
+        }
+        moves.truncate(kept);
+        return null;
+    }
+
+    /**
+     * Statistics of every iteration of the last search, including aspiration re-searches
+     */
+    public List<IterationInfo> getIterations() {
+        return new ArrayList<>(iterations);
+    }
+
+    /**
+     * Search the root moves from index first on within the window; the moves before it are
+     * the lines already found in a multi-PV search. The best move is left in {@link #rootBestMove}.
+     *
+     * @return Score relative to the side to move; at most alpha on a fail low, at least beta on a fail high
+     */
+    private int searchRoot(Board board, MoveList moves, int first, int depth, int alpha, int beta) {
+        rootBestMove = null;
+        pvLength[0] = 0;
+        int bestScore = -INFINITY;
+
+        for (int i = first; i < moves.size(); i++) {
             Move move = moves.get(i);
             board.makeSearchMove(move);
             long newPosHash = board.getPositionHash();
             searchPositionHistory.put(newPosHash, searchPositionHistory.getOrDefault(newPosHash, 0) + 1);
 
-            int score = alphaBeta(board, depth - 1, alpha, beta, !isMaximizing);
+            int score;
+            if (i == first) {
+                score = -alphaBeta(board, depth - 1, 1, -beta, -alpha, true);
+            } else {
+                // The first move is expected to be best, prove it with a null window
+                score = -alphaBeta(board, depth - 1, 1, -alpha - 1, -alpha, true);
+                if (score > alpha && score < beta) {
+                    score = -alphaBeta(board, depth - 1, 1, -beta, -alpha, true);
+                }
+            }
 
             searchPositionHistory.put(newPosHash, searchPositionHistory.get(newPosHash) - 1);
             board.undoSearchMove();
+            if (stopped) {
+                break;
+            }
 
-
-            if ((isMaximizing && score > bestScore) || (!isMaximizing && score < bestScore)) {
+            if (score > bestScore) {
                 bestScore = score;
-                bestMove = move;
-
-                if (isMaximizing) {
-                    alpha = Math.max(alpha, bestScore);
-                } else {
-                    beta = Math.min(beta, bestScore);
+            }
+            if (score > alpha) {
+                alpha = score;
+                rootBestMove = move;
+                updatePrincipalVariation(0, move);
+                if (alpha >= beta) {
+                    break; // Fail high, the window is widened by the caller
                 }
             }
         }
 
-        return new SearchResult(bestMove, bestScore, nodesSearched);
+        if (rootBestMove == null) {
+            // Fail low: every move is at most alpha, keep the first (previous best) move
+            rootBestMove = moves.get(first);
+        }
+        return bestScore;
+    }
+
+    /**
+     * Set the stop flag once the node or time limit is reached or the search was cancelled.
+     * The clock and the token are only read every {@link #LIMIT_CHECK_INTERVAL} nodes.
+     */
+    private boolean checkLimits() {
+        if (nodeLimit > 0 && nodesSearched >= nodeLimit) {
+            stopped = true;
+        } else if ((nodesSearched & (LIMIT_CHECK_INTERVAL - 1)) == 0) {
+            if ((cancellationToken != null && cancellationToken.isCancelled()) ||
+                    (deadline > 0 && System.currentTimeMillis() >= deadline)) {
+                stopped = true;
+            }
+        }
+        return stopped;
+    }
+
+    /**
+     * The move becomes the best line at this ply, followed by the best line found below it.
+     */
+    private void updatePrincipalVariation(int ply, Move move) {
+        int[] row = pvTable[ply];
+        int[] childRow = pvTable[ply + 1];
+        row[ply] = move.toInt();
+        int childLength = pvLength[ply + 1];
+        for (int i = ply + 1; i < childLength; i++) {
+            row[i] = childRow[i];
+        }
+        pvLength[ply] = Math.max(ply + 1, childLength);
     }
 
-    private int alphaBeta(Board board, int depth, int alpha, int beta, boolean isMaximizing) {
+    /**
+     * The lines with a new best line in front; the old line of the same move is dropped and
+     * the number of lines kept
+     */
+    private static List<SearchLine> withFirstLine(List<SearchLine> lines, SearchLine first) {
+        List<SearchLine> result = new ArrayList<>(lines.size());
+        result.add(first);
+        for (SearchLine line : lines) {
+            if (result.size() < lines.size() && !line.getMove().equals(first.getMove())) {
+                result.add(line);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Move the move to index first, keeping the order of the moves in between
+     */
+    private void moveToFront(MoveList moves, Move move, int first) {
+        for (int i = first; i < moves.size(); i++) {
+            if (moves.get(i).equals(move)) {
+                for (int j = i; j > first; j--) {
+                    moves.swap(j, j - 1);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Negamax alpha-beta search with principal variation search, null-move pruning and
+     * late move reductions.
+     *
+     * @return Score relative to the side to move
+     */
+    private int alphaBeta(Board board, int depth, int ply, int alpha, int beta, boolean allowNullMove) {
         nodesSearched++;
+        if (ply > statistics.selectiveDepth) {
+            statistics.selectiveDepth = ply;
+        }
+        pvLength[ply] = ply;
+        if (checkLimits()) {
+            return 0; // Discarded by the caller
+        }
 
-        if (board.isThreefoldRepetitionDuringSearch(searchPositionHistory)) {
+        if (board.isThreefoldRepetitionDuringSearch(searchPositionHistory) || board.isInsufficientMaterial()) {
             return CombinedEvaluator.STALEMATE_VALUE; // Return draw evaluation
         }
 
-        // Calculate current search depth for mate scoring
-        int currentDepth = maxDepth - depth;
-
         if (depth <= 0) {
-            int eval = evaluator.evaluate(board, currentDepth);
-            return eval * (isMaximizing ? 1 : -1); // Flip for black
+            return quiescence(board, alpha, beta, ply);
+        }
+
+        // A result of a search at least as deep settles the node if its bound fits the window
+        long key = board.getKey();
+        int hashMove = 0;
+        int entry = transpositionTable.probe(key);
+        statistics.transpositionProbes++;
+        if (entry >= 0) {
+            statistics.transpositionHits++;
+            hashMove = transpositionTable.getMove(entry);
+            if (transpositionTable.getDepth(entry) >= depth) {
+                int score = scoreFromTable(transpositionTable.getScore(entry), ply);
+                int bound = transpositionTable.getBound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT ||
+                        (bound == TranspositionTable.BOUND_LOWER && score >= beta) ||
+                        (bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+                    statistics.transpositionCutoffs++;
+                    return score;
+                }
+            }
+        }
+
+        // Right after a capture or pawn move the tablebase result is exact, the 50-move rule included
+        if (tablebase != null && board.getHalfmoveClock() == 0 && tablebase.canProbe(board)) {
+            int wdl = tablebase.probeWdl(board);
+            if (wdl != SyzygyTablebase.PROBE_FAILED) {
+                tablebaseHits++;
+                if (wdl == SyzygyTablebase.WDL_WIN) {
+                    return TB_WIN - ply;
+                }
+                if (wdl == SyzygyTablebase.WDL_LOSS) {
+                    return -TB_WIN + ply;
+                }
+                return CombinedEvaluator.STALEMATE_VALUE;
+            }
+        }
+
+        boolean inCheck = board.isInCheck();
+        boolean white = board.isWhiteToMove();
+
+        // Null move: if passing the turn still fails high, a real move will too
+        if (allowNullMove && nullMovePruning && depth >= NULL_MOVE_MIN_DEPTH &&
+                !inCheck && board.hasNonPawnMaterial(white) && beta < MATE_THRESHOLD) {
+            int reduction = depth >= NULL_MOVE_DEEP_REDUCTION_DEPTH ? NULL_MOVE_REDUCTION + 1 : NULL_MOVE_REDUCTION;
+            board.makeNullMove();
+            int score = -alphaBeta(board, depth - 1 - reduction, ply + 1, -beta, -beta + 1, false);
+            board.undoNullMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return beta;
+            }
         }
 
         MoveList moves = new MoveList(256);
-        moveGenerator.generateLegalMoves(board, moves);
+        generateMoves(board, moves);
 
         if (moves.size() == 0) {
-            if (board.isInCheck()) {
+            if (inCheck) {
                 // Use depth-aware mate scoring
-                int mateScore = CombinedEvaluator.MATE_VALUE - currentDepth;
-                return isMaximizing ? -mateScore : mateScore;
+                return -(CombinedEvaluator.MATE_VALUE - ply);
             } else {
                 return CombinedEvaluator.STALEMATE_VALUE; // Stalemate
             }
         }
+        int[] scores = orderMoves(board, moves, hashMove);
+        int[][] sideHistory = history[white ? 0 : 1];
+        int bestScore = -INFINITY;
+        Move bestMove = null;
+
+        for (int i = 0; i < moves.size(); i++) {
+            Move move = moves.get(i);
+            boolean quiet = !isTactical(board, move);
+            board.makeSearchMove(move);
+
+            int score;
+            if (i == 0) {
+                score = -alphaBeta(board, depth - 1, ply + 1, -beta, -alpha, true);
+            } else {
+                // Late quiet moves rarely matter, search them shallower unless they give check
+                int reduction = 0;
+                if (quiet && !inCheck && depth >= LMR_MIN_DEPTH && i >= LMR_MIN_MOVE_INDEX && !board.isInCheck()) {
+                    reduction = LMR_REDUCTIONS[Math.min(depth, 63)][Math.min(i, 255)];
+                    if (scores[i] > LMR_HISTORY_THRESHOLD) {
+                        reduction--;
+                    }
+                    reduction = Math.max(0, Math.min(reduction, depth - 2));
+                }
 
-        if (isMaximizing) {
-            int maxEval = Integer.MIN_VALUE;
-            for (int i = 0; i < moves.size(); i++) {
-                Move move = moves.get(i);
-                board.makeSearchMove(move);
-                int eval = alphaBeta(board, depth - 1, alpha, beta, false);
-                board.undoSearchMove();
+                score = -alphaBeta(board, depth - 1 - reduction, ply + 1, -alpha - 1, -alpha, true);
+                if (score > alpha && reduction > 0) {
+                    // Fail high on the reduced search, verify at full depth
+                    score = -alphaBeta(board, depth - 1, ply + 1, -alpha - 1, -alpha, true);
+                }
+                if (score > alpha && score < beta) {
+                    // Better than the first move, it needs an exact score
+                    score = -alphaBeta(board, depth - 1, ply + 1, -beta, -alpha, true);
+                }
+            }
+            board.undoSearchMove();
+            if (stopped) {
+                return 0;
+            }
 
-                maxEval = Math.max(maxEval, eval);
-                alpha = Math.max(alpha, eval);
-                if (beta <= alpha) {
-                    break;  // Beta cutoff
+            if (score > bestScore) {
+                bestScore = score;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestMove = move;
+                updatePrincipalVariation(ply, move);
+            }
+            if (alpha >= beta) {
+                statistics.betaCutoffs++;
+                if (i == 0) {
+                    statistics.firstMoveBetaCutoffs++;
+                }
+                if (quiet) {
+                    updateHistory(sideHistory, move, depth);
                 }
+                break;  // Beta cutoff
+            }
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.BOUND_LOWER :
+                bestMove != null ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+        transpositionTable.store(key, bestMove != null ? bestMove.toInt() : 0, scoreToTable(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    /**
+     * Mate and tablebase scores count plies from the root; the table stores them counted
+     * from the position so they stay valid when it is reached at another ply.
+     */
+    private static int scoreToTable(int score, int ply) {
+        if (score >= TB_WIN - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -(TB_WIN - MAX_PLY)) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int scoreFromTable(int score, int ply) {
+        if (score >= TB_WIN - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -(TB_WIN - MAX_PLY)) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Search captures only until the position is quiet, so the static evaluation is never
+     * taken in the middle of an exchange. Captures that lose material according to the static
+     * exchange evaluation are skipped; when in check every evasion is searched instead.
+     */
+    private int quiescence(Board board, int alpha, int beta, int ply) {
+        nodesSearched++;
+        statistics.quiescenceNodes++;
+        if (ply > statistics.selectiveDepth) {
+            statistics.selectiveDepth = ply;
+        }
+        pvLength[ply] = ply;
+        if (checkLimits()) {
+            return 0;
+        }
+
+        // Captures lead here, and the evaluation does not know these positions are dead draws
+        if (board.isInsufficientMaterial()) {
+            return CombinedEvaluator.STALEMATE_VALUE;
+        }
+
+        if (ply >= MAX_PLY) {
+            return evaluate(board);
+        }
+
+        MoveList moves = new MoveList(256);
+        generateMoves(board, moves);
+        boolean inCheck = board.isInCheck();
+
+        if (moves.size() == 0) {
+            if (inCheck) {
+                return -(CombinedEvaluator.MATE_VALUE - ply);
+            }
+            return CombinedEvaluator.STALEMATE_VALUE;
+        }
+
+        int bestScore;
+        if (inCheck) {
+            bestScore = -INFINITY;
+        } else {
+            // Stand pat: the side to move may decline all captures
+            bestScore = evaluate(board);
+            if (bestScore >= beta) return bestScore;
+            alpha = Math.max(alpha, bestScore);
+        }
+
+        int[] scores = orderMoves(board, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            Move move = moves.get(i);
+            if (!inCheck) {
+                if (!isTactical(board, move)) continue;
+                if (scores[i] < 0) break; // Remaining captures all lose material
             }
-            return maxEval;
+
+            board.makeSearchMove(move);
+            int eval = -quiescence(board, -beta, -alpha, ply + 1);
+            board.undoSearchMove();
+            if (stopped) {
+                return 0;
+            }
+
+            bestScore = Math.max(bestScore, eval);
+            alpha = Math.max(alpha, eval);
+            if (alpha >= beta) {
+                break;
+            }
+        }
+        return bestScore;
+    }
+
+    private void generateMoves(Board board, MoveList moves) {
+        statistics.moveGenerations++;
+        if (timingEnabled) {
+            long start = System.nanoTime();
+            moveGenerator.generateLegalMoves(board, moves);
+            statistics.moveGenerationNanos += System.nanoTime() - start;
         } else {
-            int minEval = Integer.MAX_VALUE;
-            for (int i = 0; i < moves.size(); i++) {
-                Move move = moves.get(i);
-                board.makeSearchMove(move);
-                int eval = alphaBeta(board, depth - 1, alpha, beta, true);
-                board.undoSearchMove();
+            moveGenerator.generateLegalMoves(board, moves);
+        }
+    }
+
+    private int evaluate(Board board) {
+        statistics.evaluations++;
+        if (timingEnabled) {
+            long start = System.nanoTime();
+            int score = evaluator.evaluateStatic(board);
+            statistics.evaluationNanos += System.nanoTime() - start;
+            return score;
+        }
+        return evaluator.evaluateStatic(board);
+    }
+
+    private boolean isTactical(Board board, Move move) {
+        return board.isCapture(move) ||
+                (move.isPromotion() && move.getPromotionPieceType() == Move.QUEEN_PROMOTION);
+    }
+
+    private void updateHistory(int[][] sideHistory, Move move, int depth) {
+        int value = sideHistory[move.getFrom()][move.getTo()] += depth * depth;
+        if (value >= HISTORY_MAX) {
+            for (int[][] side : history) {
+                for (int[] from : side) {
+                    for (int to = 0; to < from.length; to++) {
+                        from[to] /= 2;
+                    }
+                }
+            }
+        }
+    }
 
-                minEval = Math.min(minEval, eval);
-                beta = Math.min(beta, eval);
-                if (beta <= alpha) {
-                    break;  // Alpha cutoff
+    private void clearHistory() {
+        for (int[][] side : history) {
+            for (int[] from : side) {
+                Arrays.fill(from, 0);
+            }
+        }
+    }
+
+    private int[] orderMoves(Board board, MoveList moves) {
+        return orderMoves(board, moves, 0);
+    }
+
+    /**
+     * Sort moves so that the hash move comes first, then winning and equal captures (by static
+     * exchange evaluation), then quiet moves by history score, then captures that lose material.
+     *
+     * @param hashMove Best move from the transposition table as {@link Move#toInt()}, 0 if none
+     * @return The ordering score of each move, aligned with the sorted list
+     */
+    private int[] orderMoves(Board board, MoveList moves, int hashMove) {
+        int size = moves.size();
+        int[] scores = new int[size];
+        int[][] sideHistory = history[board.isWhiteToMove() ? 0 : 1];
+
+        for (int i = 0; i < size; i++) {
+            Move move = moves.get(i);
+            if (hashMove != 0 && move.toInt() == hashMove) {
+                scores[i] = HASH_MOVE_SCORE;
+            } else if (isTactical(board, move)) {
+                int see = board.staticExchangeEvaluation(move);
+                scores[i] = see >= 0 ? GOOD_CAPTURE_SCORE + see : see;
+            } else {
+                scores[i] = sideHistory[move.getFrom()][move.getTo()];
+            }
+        }
+
+        // Selection sort, move lists are short
+        for (int i = 0; i < size - 1; i++) {
+            int best = i;
+            for (int j = i + 1; j < size; j++) {
+                if (scores[j] > scores[best]) {
+                    best = j;
                 }
             }
-            return minEval;
+            if (best != i) {
+                moves.swap(i, best);
+                int temp = scores[i];
+                scores[i] = scores[best];
+                scores[best] = temp;
+            }
         }
+        return scores;
     }
 }
\ No newline at end of file
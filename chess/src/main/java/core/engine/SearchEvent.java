@@ -0,0 +1,44 @@
+package core.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of one search, from the call of {@link Minimax#findBestMove} to its
+ * result. Recorded with e.g. {@code java -XX:StartFlightRecording=filename=engine.jfr ...};
+ * while no recording is running the event is disabled and costs next to nothing.
+ */
+@Name("chess.Search")
+@Label("Search")
+@Category({"Chess", "Engine"})
+@Description("One search of the engine")
+@StackTrace(false)
+class SearchEvent extends Event {
+    @Label("Position")
+    String fen;
+
+    @Label("Depth")
+    @Description("Depth of the last completed iteration")
+    int depth;
+
+    @Label("Selective Depth")
+    int selectiveDepth;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Score")
+    @Description("Score in centipawns from white's point of view")
+    int score;
+
+    @Label("Best Move")
+    String bestMove;
+
+    @Label("Stopped")
+    @Description("The search was stopped by a limit or cancelled before reaching its depth")
+    boolean stopped;
+}
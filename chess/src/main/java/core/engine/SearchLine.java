@@ -0,0 +1,39 @@
+package core.engine;
+
+import core.board.Move;
+import core.util.MoveNotation;
+
+/**
+ * One root move of a multi-PV search with its exact score and the line the engine expects after it
+ */
+public class SearchLine {
+    private final Move move;
+    private final int score;
+    private final int[] principalVariation;
+
+    public SearchLine(Move move, int score, int[] principalVariation) {
+        this.move = move;
+        this.score = score;
+        this.principalVariation = principalVariation;
+    }
+    public Move getMove() {
+        return move;
+    }
+    /**
+     * Score from white's point of view
+     */
+    public int getScore() {
+        return score;
+    }
+    /**
+     * The line starting with the move, as {@link Move#toInt()} values
+     */
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "Score: " + score + ", PV: " + MoveNotation.ToUci(principalVariation);
+    }
+}
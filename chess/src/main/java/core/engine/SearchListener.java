@@ -0,0 +1,12 @@
+package core.engine;
+
+/**
+ * Receives progress of a running search. Called on the searching thread, so implementations
+ * that update a user interface must hand the information over to their own thread.
+ */
+public interface SearchListener {
+    /**
+     * Called after every completed iterative deepening iteration.
+     */
+    void onIteration(IterationInfo info);
+}
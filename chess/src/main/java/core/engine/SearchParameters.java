@@ -2,11 +2,101 @@ package core.engine;
 
 public class SearchParameters {
     private int maxDepth;
+    private boolean nullMovePruning;
+    private long nodeLimit; // 0 = no limit
+    private long timeLimitMillis; // 0 = no limit
+    private boolean useOpeningBook;
+    private String openingBookPath; // Polyglot .bin file, null = no book
+    private String syzygyPath; // Directories with Syzygy tables, null = no tablebases
+    private int hashSizeMb;
+    private int multiPv;
     public SearchParameters() {
         this.maxDepth = 5;
+        this.nullMovePruning = true;
+        this.nodeLimit = 0;
+        this.timeLimitMillis = 0;
+        this.useOpeningBook = true;
+        this.openingBookPath = "book.bin";
+        this.syzygyPath = "syzygy";
+        this.hashSizeMb = 16;
+        this.multiPv = 1;
 
     }
     public int getMaxDepth() {
         return maxDepth;
     }
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+    public boolean isNullMovePruning() {
+        return nullMovePruning;
+    }
+    public void setNullMovePruning(boolean nullMovePruning) {
+        this.nullMovePruning = nullMovePruning;
+    }
+    public long getNodeLimit() {
+        return nodeLimit;
+    }
+    /**
+     * Stop searching after this many nodes (0 = no limit).
+     */
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+    public long getTimeLimitMillis() {
+        return timeLimitMillis;
+    }
+    /**
+     * Stop searching after this many milliseconds (0 = no limit).
+     */
+    public void setTimeLimitMillis(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+    }
+    public boolean isUseOpeningBook() {
+        return useOpeningBook;
+    }
+    /**
+     * Play a move from the opening book without searching when the position is in the book.
+     */
+    public void setUseOpeningBook(boolean useOpeningBook) {
+        this.useOpeningBook = useOpeningBook;
+    }
+    public String getOpeningBookPath() {
+        return openingBookPath;
+    }
+    /**
+     * Polyglot book opened by {@link ChessEngine#init()}; a missing file means no book.
+     */
+    public void setOpeningBookPath(String openingBookPath) {
+        this.openingBookPath = openingBookPath;
+    }
+    public String getSyzygyPath() {
+        return syzygyPath;
+    }
+    /**
+     * Directories searched for Syzygy tables by {@link ChessEngine#init()}, separated by the
+     * platform path separator; directories without tables mean no tablebases.
+     */
+    public void setSyzygyPath(String syzygyPath) {
+        this.syzygyPath = syzygyPath;
+    }
+    public int getHashSizeMb() {
+        return hashSizeMb;
+    }
+    /**
+     * Size of the transposition table in megabytes, allocated by {@link ChessEngine#init()}.
+     */
+    public void setHashSizeMb(int hashSizeMb) {
+        this.hashSizeMb = hashSizeMb;
+    }
+    public int getMultiPv() {
+        return multiPv;
+    }
+    /**
+     * Number of best root moves reported with exact scores and lines (1 = best move only).
+     * More lines make each iteration slower.
+     */
+    public void setMultiPv(int multiPv) {
+        this.multiPv = multiPv;
+    }
 }
\ No newline at end of file
@@ -1,6 +1,10 @@
 package core.engine;
 
 import core.board.Move;
+import core.util.MoveNotation;
+
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Container for search results
@@ -8,12 +12,33 @@ import core.board.Move;
 public class SearchResult {
     private final Move bestMove;
     private final int score;
-    private final int nodesSearched;
+    private final long nodesSearched;
+    private final int[] principalVariation;
+    private final List<SearchLine> lines;
+    private boolean bookMove;
+    private SearchStatistics statistics;
 
-    public SearchResult(Move bestMove, int score, int nodesSearched) {
+    public SearchResult(Move bestMove, int score, long nodesSearched) {
+        this(bestMove, score, nodesSearched, new int[0]);
+    }
+    public SearchResult(Move bestMove, int score, long nodesSearched, int[] principalVariation) {
+        this(bestMove, score, nodesSearched, principalVariation, bestMove == null ? Collections.emptyList() :
+                Collections.singletonList(new SearchLine(bestMove, score, principalVariation)));
+    }
+    public SearchResult(Move bestMove, int score, long nodesSearched, int[] principalVariation, List<SearchLine> lines) {
         this.bestMove = bestMove;
         this.score = score;
         this.nodesSearched = nodesSearched;
+        this.principalVariation = principalVariation;
+        this.lines = lines;
+    }
+    /**
+     * Result for a move played from the opening book, without a search
+     */
+    public static SearchResult fromBook(Move move) {
+        SearchResult result = new SearchResult(move, 0, 0, new int[] {move.toInt()});
+        result.bookMove = true;
+        return result;
     }
     public Move getBestMove() {
         return bestMove;
@@ -21,14 +46,47 @@ public class SearchResult {
     public int getScore() {
         return score;
     }
-    public int getNodesSearched() {
+    public long getNodesSearched() {
         return nodesSearched;
     }
+    public boolean isBookMove() {
+        return bookMove;
+    }
+    /**
+     * Moves the engine expects to be played, starting with the best move,
+     * as {@link Move#toInt()} values. Use {@link Move#fromInt(int)} to decode them.
+     */
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+    /**
+     * Best root moves of a multi-PV search with their scores and lines, best first.
+     * Holds only the best move when a single line was searched.
+     */
+    public List<SearchLine> getLines() {
+        return Collections.unmodifiableList(lines);
+    }
+    /**
+     * Counters of the search that produced this result, null for book moves
+     */
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+    void setStatistics(SearchStatistics statistics) {
+        this.statistics = statistics;
+    }
+    public String getPrincipalVariationUci() {
+        return MoveNotation.ToUci(principalVariation);
+    }
 
     @Override
     public String toString() {
+        if (bookMove) {
+            return "Book move: " + bestMove;
+        }
         return "Best move: " + bestMove +
                 ", Score: " + score +
-                ", Nodes searched: " + nodesSearched;
+                ", Nodes searched: " + nodesSearched +
+                ", PV: " + getPrincipalVariationUci();
     }
 }
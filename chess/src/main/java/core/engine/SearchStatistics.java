@@ -0,0 +1,166 @@
+package core.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counters of one search. The search increments the fields directly: they are plain longs
+ * owned by the searching thread, so counting costs no more than an increment. Statistics of
+ * several searches or threads are combined afterwards with {@link #add(SearchStatistics)}.
+ */
+public class SearchStatistics {
+    long nodes;
+    long quiescenceNodes;
+    long transpositionProbes;
+    long transpositionHits;
+    long transpositionCutoffs;
+    long betaCutoffs;
+    long firstMoveBetaCutoffs;
+    int selectiveDepth;
+    long moveGenerations;
+    long evaluations;
+    // Only measured when timing is enabled, see Minimax#setTimingEnabled
+    long moveGenerationNanos;
+    long evaluationNanos;
+    long timeNanos;
+    private final List<Long> iterationNodes = new ArrayList<>();
+    private final List<Long> iterationMillis = new ArrayList<>();
+
+    void addIteration(long nodes, long millis) {
+        iterationNodes.add(nodes);
+        iterationMillis.add(millis);
+    }
+
+    /**
+     * Add the counters of another search, e.g. of another thread or the next position of a
+     * test suite. Iteration nodes and times are added up by depth.
+     */
+    public void add(SearchStatistics other) {
+        for (int i = 0; i < other.iterationNodes.size(); i++) {
+            if (i < iterationNodes.size()) {
+                iterationNodes.set(i, iterationNodes.get(i) + other.iterationNodes.get(i));
+                iterationMillis.set(i, iterationMillis.get(i) + other.iterationMillis.get(i));
+            } else {
+                iterationNodes.add(other.iterationNodes.get(i));
+                iterationMillis.add(other.iterationMillis.get(i));
+            }
+        }
+        nodes += other.nodes;
+        quiescenceNodes += other.quiescenceNodes;
+        transpositionProbes += other.transpositionProbes;
+        transpositionHits += other.transpositionHits;
+        transpositionCutoffs += other.transpositionCutoffs;
+        betaCutoffs += other.betaCutoffs;
+        firstMoveBetaCutoffs += other.firstMoveBetaCutoffs;
+        selectiveDepth = Math.max(selectiveDepth, other.selectiveDepth);
+        moveGenerations += other.moveGenerations;
+        evaluations += other.evaluations;
+        moveGenerationNanos += other.moveGenerationNanos;
+        evaluationNanos += other.evaluationNanos;
+        timeNanos += other.timeNanos;
+    }
+
+    /**
+     * Main search and quiescence nodes
+     */
+    public long getNodes() {
+        return nodes;
+    }
+    public long getQuiescenceNodes() {
+        return quiescenceNodes;
+    }
+    public long getTimeMillis() {
+        return timeNanos / 1_000_000;
+    }
+    public long getNodesPerSecond() {
+        return timeNanos > 0 ? nodes * 1_000_000_000L / timeNanos : 0;
+    }
+    public long getTranspositionProbes() {
+        return transpositionProbes;
+    }
+    public long getTranspositionHits() {
+        return transpositionHits;
+    }
+    /**
+     * Nodes answered by the transposition table without searching
+     */
+    public long getTranspositionCutoffs() {
+        return transpositionCutoffs;
+    }
+    public long getBetaCutoffs() {
+        return betaCutoffs;
+    }
+    /**
+     * Beta cutoffs by the first move searched; their share of all cutoffs measures move ordering
+     */
+    public long getFirstMoveBetaCutoffs() {
+        return firstMoveBetaCutoffs;
+    }
+    public double getFirstMoveCutoffRate() {
+        return betaCutoffs > 0 ? (double) firstMoveBetaCutoffs / betaCutoffs : 0;
+    }
+    /**
+     * Depth of the last completed iteration
+     */
+    public int getDepth() {
+        return iterationNodes.size();
+    }
+    /**
+     * Deepest ply reached, quiescence included
+     */
+    public int getSelectiveDepth() {
+        return selectiveDepth;
+    }
+    /**
+     * Effective branching factor: the average growth of the node count from one iteration to
+     * the next, 0 with fewer than two iterations
+     */
+    public double getBranchingFactor() {
+        int count = iterationNodes.size();
+        if (count < 2 || iterationNodes.get(0) == 0) {
+            return 0;
+        }
+        return Math.pow((double) iterationNodes.get(count - 1) / iterationNodes.get(0), 1.0 / (count - 1));
+    }
+    /**
+     * Time of each completed iteration in milliseconds, by depth starting at 1
+     */
+    public List<Long> getIterationMillis() {
+        return new ArrayList<>(iterationMillis);
+    }
+    public long getMoveGenerations() {
+        return moveGenerations;
+    }
+    public long getEvaluations() {
+        return evaluations;
+    }
+    /**
+     * Time spent generating moves, 0 unless timing was enabled
+     */
+    public long getMoveGenerationNanos() {
+        return moveGenerationNanos;
+    }
+    /**
+     * Time spent in the static evaluation, 0 unless timing was enabled
+     */
+    public long getEvaluationNanos() {
+        return evaluationNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Nodes: %,d (quiescence %,d), %,d nps, seldepth %d%n",
+                nodes, quiescenceNodes, getNodesPerSecond(), selectiveDepth));
+        text.append(String.format("TT: %,d probes, %,d hits, %,d cutoffs%n",
+                transpositionProbes, transpositionHits, transpositionCutoffs));
+        text.append(String.format("Beta cutoffs: %,d, first move %.1f%%, branching factor %.2f%n",
+                betaCutoffs, 100 * getFirstMoveCutoffRate(), getBranchingFactor()));
+        text.append(String.format("Move generations: %,d, evaluations: %,d", moveGenerations, evaluations));
+        if (moveGenerationNanos > 0 || evaluationNanos > 0) {
+            text.append(String.format(" (%,d ms / %,d ms of %,d ms)",
+                    moveGenerationNanos / 1_000_000, evaluationNanos / 1_000_000, getTimeMillis()));
+        }
+        return text.toString();
+    }
+}
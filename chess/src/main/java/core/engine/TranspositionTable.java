@@ -0,0 +1,129 @@
+package core.engine;
+
+import java.util.Arrays;
+
+/**
+ * Hash table of search results keyed by position, kept across searches so a position that
+ * is searched again (the next move of a game, or the same position in analysis) starts from
+ * what was already found.
+ *
+ * Each entry is a 64-bit key and a 64-bit data word packing the score (32 bits), the best
+ * move (16 bits, 0 = none), the depth (8 bits), the bound type (2 bits) and the age of the
+ * search that stored it (6 bits). Entries of older searches are always replaced, entries of
+ * the current search only by a search at least as deep. Not thread-safe.
+ */
+public class TranspositionTable {
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2; // Score is at least the stored value (fail high)
+    public static final int BOUND_UPPER = 3; // Score is at most the stored value (fail low)
+
+    private static final int ENTRY_SIZE = 16;
+
+    private int size;
+    private long[] keys; // Allocated by the first search, so a resize before it costs nothing
+    private long[] data;
+    private int mask;
+    private int age;
+
+    /**
+     * @param megabytes Memory to use, rounded down to a power of two number of entries
+     */
+    public TranspositionTable(int megabytes) {
+        size = entriesFor(megabytes);
+    }
+
+    /**
+     * Drop the table; the next search allocates it with the new size.
+     */
+    public void resize(int megabytes) {
+        size = entriesFor(megabytes);
+        keys = null;
+        data = null;
+        age = 0;
+    }
+
+    private static int entriesFor(int megabytes) {
+        long entries = Math.max(1, (long) megabytes * 1024 * 1024 / ENTRY_SIZE);
+        return Integer.highestOneBit((int) Math.min(entries, 1 << 30));
+    }
+
+    public void clear() {
+        if (keys != null) {
+            Arrays.fill(keys, 0);
+            Arrays.fill(data, 0);
+        }
+        age = 0;
+    }
+
+    /**
+     * Start a new search: entries stored from now on replace older ones first.
+     * Must be called before the first probe or store.
+     */
+    public void newSearch() {
+        if (keys == null) {
+            keys = new long[size];
+            data = new long[size];
+            mask = size - 1;
+        }
+        age = (age + 1) & 0x3F;
+    }
+
+    /**
+     * Index of the entry for the key, or -1 if the table does not hold the position.
+     * Use the accessors with the index to read the entry.
+     */
+    public int probe(long key) {
+        int index = (int) key & mask;
+        return keys[index] == key && data[index] != 0 ? index : -1;
+    }
+
+    public int getScore(int index) {
+        return (int) data[index];
+    }
+    /**
+     * Best move as {@link core.board.Move#toInt()}, 0 if none was found
+     */
+    public int getMove(int index) {
+        return (int) (data[index] >>> 32) & 0xFFFF;
+    }
+    public int getDepth(int index) {
+        return (int) (data[index] >>> 48) & 0xFF;
+    }
+    public int getBound(int index) {
+        return (int) (data[index] >>> 56) & 0x3;
+    }
+
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = (int) key & mask;
+        long entry = data[index];
+        if (entry != 0 && keys[index] != key && (int) (entry >>> 58) == age && ((int) (entry >>> 48) & 0xFF) > depth) {
+            return; // Keep the deeper result of the current search
+        }
+        if (keys[index] == key && move == 0) {
+            move = getMove(index); // Keep the best move of an earlier search of the position
+        }
+        keys[index] = key;
+        data[index] = (score & 0xFFFFFFFFL)
+                | (long) (move & 0xFFFF) << 32
+                | (long) Math.max(0, Math.min(depth, 0xFF)) << 48
+                | (long) bound << 56
+                | (long) age << 58;
+    }
+
+    /**
+     * Per mille of the table filled by the current search, sampled over the first entries
+     */
+    public int getHashFull() {
+        if (keys == null) {
+            return 0;
+        }
+        int sample = Math.min(1000, keys.length);
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            if (data[i] != 0 && (int) (data[i] >>> 58) == age) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+}
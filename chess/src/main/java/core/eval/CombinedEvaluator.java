@@ -6,6 +6,8 @@ import java.util.List;
 
 public class CombinedEvaluator implements Evaluator {
     private final List<Evaluator> evaluators;
+    // Answers the endgames covered by bitbases exactly, if one was added
+    private EndgameEvaluator endgameEvaluator;
     public static final int MATE_VALUE = Integer.MAX_VALUE - 1000; // Base mate value
     public static final int STALEMATE_VALUE = 0;
 
@@ -15,6 +17,9 @@ public class CombinedEvaluator implements Evaluator {
 
     public void addEvaluator(Evaluator evaluator) {
         evaluators.add(evaluator);
+        if (evaluator instanceof EndgameEvaluator) {
+            endgameEvaluator = (EndgameEvaluator) evaluator;
+        }
     }
 
     @Override
@@ -25,15 +30,30 @@ public class CombinedEvaluator implements Evaluator {
     public int evaluate(Board board, int depth) {
         // Check for special cases first
         if (board.isCheckmate()) {
-            int adjustedMateValue = MATE_VALUE - depth;
-            int score = board.isWhiteToMove() ? -adjustedMateValue : adjustedMateValue;
-            return score;
+            // The side to move is mated
+            return -(MATE_VALUE - depth);
         }
 
         if (board.isDraw()) {
             return STALEMATE_VALUE;
         }
 
+        return evaluateStatic(board);
+    }
+
+    /**
+     * Combine the evaluators without checking for checkmate or draws.
+     * Used by the search when it already knows the position has legal moves.
+     */
+    public int evaluateStatic(Board board) {
+        // Bitbase results replace the heuristic evaluation
+        if (endgameEvaluator != null) {
+            int known = endgameEvaluator.evaluateKnownEndgame(board);
+            if (known != EndgameEvaluator.NO_KNOWN_RESULT) {
+                return known;
+            }
+        }
+
         // For normal positions, combine the evaluations
         int score = 0;
         for (Evaluator evaluator : evaluators) {
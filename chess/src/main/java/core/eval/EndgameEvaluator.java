@@ -1,24 +1,35 @@
 package core.eval;
 import core.bitboard.Bitboard;
 import core.board.Board;
+import core.util.Piece;
 
 public class EndgameEvaluator implements Evaluator {
+    // Score of a position the bitbases know to be won, above any material advantage
+    public static final int KNOWN_WIN = 10000;
+    // Returned by evaluateKnownEndgame when the bitbases do not cover the position
+    public static final int NO_KNOWN_RESULT = Integer.MIN_VALUE;
+
     // Different piece-square tables for endgame
-    private static final int[] KING_ENDGAME_TABLE = {
-            -50,-40,-30,-20,-20,-30,-40,-50,
-            -30,-20,-10,  0,  0,-10,-20,-30,
-            -30,-10, 20, 30, 30, 20,-10,-30,
-            -30,-10, 30, 40, 40, 30,-10,-30,
-            -30,-10, 30, 40, 40, 30,-10,-30,
-            -30,-10, 20, 30, 30, 20,-10,-30,
-            -30,-30,  0,  0,  0,  0,-30,-30,
-            -50,-30,-30,-30,-30,-30,-30,-50
-    };
+    private final int[] kingEndgameTable;
+    private final int passedPawnBonus;
+    private final int passedPawnRankBonus;
+    private final GamePhaseDetector phaseDetector;
+
+    public EndgameEvaluator() {
+        this(EvaluationParameters.getActive());
+    }
+
+    public EndgameEvaluator(EvaluationParameters params) {
+        this.kingEndgameTable = params.getTable(EvaluationParameters.KING_ENDGAME_TABLE);
+        this.passedPawnBonus = params.get(EvaluationParameters.ENDGAME_PASSED_PAWN_BONUS);
+        this.passedPawnRankBonus = params.get(EvaluationParameters.ENDGAME_PASSED_PAWN_RANK_BONUS);
+        this.phaseDetector = new GamePhaseDetector(params);
+    }
 
     @Override
     public int evaluate(Board board) {
         // Only apply significant weight in endgame situations
-        if (GamePhaseDetector.detectPhase(board) != GamePhaseDetector.GamePhase.ENDGAME) {
+        if (phaseDetector.detectPhase(board) != GamePhaseDetector.GamePhase.ENDGAME) {
             return 0;
         }
 
@@ -33,6 +44,56 @@ public class EndgameEvaluator implements Evaluator {
         return board.isWhiteToMove() ? score : -score;
     }
 
+    /**
+     * Generate the bitbases now rather than on the first endgame position the search meets.
+     */
+    public static void loadBitbases() {
+        KpkBitbase.isWin(0, 8, 63, true, true);
+        MateDistanceTable.rook();
+        MateDistanceTable.queen();
+    }
+
+    /**
+     * Exact result of king and pawn, rook or queen against king from the bitbases. Wins score
+     * {@link #KNOWN_WIN} plus a bonus that rewards progress: pawn advances in KPK, shorter
+     * mates in KRK and KQK, which in turn score above any KPK win so the pawn promotes.
+     * King and knight or bishop against king is a draw.
+     *
+     * @return Score relative to the side to move, or {@link #NO_KNOWN_RESULT} for other material
+     */
+    public int evaluateKnownEndgame(Board board) {
+        long all = board.getAllPieces();
+        if (Long.bitCount(all) != 3) {
+            return NO_KNOWN_RESULT;
+        }
+        long kings = board.getWhiteKing() | board.getBlackKing();
+        int pieceSquare = Bitboard.getLSB(all & ~kings);
+        int pieceType = board.getPieceType(pieceSquare);
+        boolean strongWhite = board.isWhitePiece(pieceSquare);
+        int strongKing = Bitboard.getLSB(strongWhite ? board.getWhiteKing() : board.getBlackKing());
+        int weakKing = Bitboard.getLSB(strongWhite ? board.getBlackKing() : board.getWhiteKing());
+        boolean strongToMove = board.isWhiteToMove() == strongWhite;
+
+        int score;
+        if (pieceType == Piece.PAWN) {
+            if (!KpkBitbase.isWin(strongKing, pieceSquare, weakKing, strongWhite, strongToMove)) {
+                return 0;
+            }
+            int relativeRank = strongWhite ? pieceSquare / 8 : 7 - pieceSquare / 8;
+            score = KNOWN_WIN + 10 * relativeRank;
+        } else if (pieceType == Piece.ROOK || pieceType == Piece.QUEEN) {
+            MateDistanceTable table = pieceType == Piece.QUEEN ? MateDistanceTable.queen() : MateDistanceTable.rook();
+            int plies = table.getPliesToMate(strongKing, pieceSquare, weakKing, strongToMove);
+            if (plies < 0) {
+                return 0; // The piece hangs or stalemate
+            }
+            score = KNOWN_WIN + 200 - plies;
+        } else {
+            return 0; // A lone knight or bishop cannot mate
+        }
+        return strongToMove ? score : -score;
+    }
+
     private int evaluateKingCentralization(Board board) {
         int score = 0;
 
@@ -42,13 +103,13 @@ public class EndgameEvaluator implements Evaluator {
 
         if (whiteKing != 0) {
             int whiteKingSquare = Bitboard.getLSB(whiteKing);
-            score += KING_ENDGAME_TABLE[whiteKingSquare];
+            score += kingEndgameTable[whiteKingSquare];
         }
 
         if (blackKing != 0) {
             int blackKingSquare = Bitboard.getLSB(blackKing);
             // For black, we flip the square to use the same table
-            score -= KING_ENDGAME_TABLE[63 - blackKingSquare];
+            score -= kingEndgameTable[63 - blackKingSquare];
         }
 
         return score;
@@ -90,7 +151,7 @@ public class EndgameEvaluator implements Evaluator {
 
             if (isPassed) {
                 // The further advanced a passed pawn is, the more valuable it becomes
-                score += 20 + (rank * 10); // More bonus for pawns closer to promotion
+                score += passedPawnBonus + (rank * passedPawnRankBonus); // More bonus for pawns closer to promotion
             }
 
             // Clear the processed pawn
@@ -123,7 +184,7 @@ public class EndgameEvaluator implements Evaluator {
             }
 
             if (isPassed) {
-                score -= 20 + (rank * 10); // More penalty for black pawns closer to promotion
+                score -= passedPawnBonus + (rank * passedPawnRankBonus); // More penalty for black pawns closer to promotion
             }
 
             // Clear the processed pawn
@@ -0,0 +1,357 @@
+package core.eval;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Flat vector of evaluation weights read by the evaluators.
+ * Every weight lives at a fixed index so the tuner can treat the whole set as one int array.
+ * Parameter files are either properties (one key per weight or table) or a compact binary dump
+ * of the vector; evaluators copy the values into final fields once, when they are constructed.
+ */
+public class EvaluationParameters {
+    // System property pointing to a parameter file loaded at startup
+    public static final String PARAMETERS_FILE_PROPERTY = "chess.evalParams";
+
+    // "CEVP" header identifying binary parameter files
+    private static final int BINARY_MAGIC = 0x43455650;
+
+    private static final List<Entry> ENTRIES = new ArrayList<>();
+    private static int size = 0;
+
+    // Material values in centipawns
+    public static final int MATERIAL_PAWN = scalar("MATERIAL_PAWN", 100);
+    public static final int MATERIAL_KNIGHT = scalar("MATERIAL_KNIGHT", 320);
+    public static final int MATERIAL_BISHOP = scalar("MATERIAL_BISHOP", 330);
+    public static final int MATERIAL_ROOK = scalar("MATERIAL_ROOK", 500);
+    public static final int MATERIAL_QUEEN = scalar("MATERIAL_QUEEN", 900);
+
+    // Pawn structure
+    public static final int DOUBLED_PAWN_PENALTY = scalar("DOUBLED_PAWN_PENALTY", -10);
+    public static final int ISOLATED_PAWN_PENALTY = scalar("ISOLATED_PAWN_PENALTY", -20);
+    public static final int PASSED_PAWN_BONUS = scalar("PASSED_PAWN_BONUS", 20);
+    public static final int PROTECTED_PAWN_BONUS = scalar("PROTECTED_PAWN_BONUS", 10);
+    public static final int PASSED_PAWN_ADVANCEMENT_BONUS = scalar("PASSED_PAWN_ADVANCEMENT_BONUS", 5);
+
+    // King safety
+    public static final int KING_SHIELD_BONUS = scalar("KING_SHIELD_BONUS", 10);
+    public static final int KING_SHIELD_DISTANCE_PENALTY = scalar("KING_SHIELD_DISTANCE_PENALTY", 2);
+    public static final int KING_OPEN_FILE_PENALTY = scalar("KING_OPEN_FILE_PENALTY", -30);
+    public static final int KING_SEMI_OPEN_FILE_PENALTY = scalar("KING_SEMI_OPEN_FILE_PENALTY", -15);
+    public static final int CASTLED_BONUS = scalar("CASTLED_BONUS", 50);
+    public static final int PAWN_STORM_PENALTY = scalar("PAWN_STORM_PENALTY", -10);
+    public static final int QUEEN_TROPISM_PENALTY = scalar("QUEEN_TROPISM_PENALTY", -5);
+    public static final int KING_ZONE_ATTACK_PENALTY = scalar("KING_ZONE_ATTACK_PENALTY", -6);
+
+    // Endgame
+    public static final int ENDGAME_PASSED_PAWN_BONUS = scalar("ENDGAME_PASSED_PAWN_BONUS", 20);
+    public static final int ENDGAME_PASSED_PAWN_RANK_BONUS = scalar("ENDGAME_PASSED_PAWN_RANK_BONUS", 10);
+
+    // Game phase boundaries (total non-king material of both sides)
+    public static final int OPENING_MATERIAL_THRESHOLD = scalar("OPENING_MATERIAL_THRESHOLD", 2800);
+    public static final int ENDGAME_MATERIAL_THRESHOLD = scalar("ENDGAME_MATERIAL_THRESHOLD", 1500);
+
+    // Piece-square tables (64 entries each, a1 = index 0)
+    public static final int PAWN_TABLE = table("PAWN_TABLE", new int[]{
+            0,  0,  0,  0,  0,  0,  0,  0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5,  5, 10, 25, 25, 10,  5,  5,
+            0,  0,  0, 20, 20,  0,  0,  0,
+            5, -5,-10,  0,  0,-10, -5,  5,
+            5, 10, 10,-20,-20, 10, 10,  5,
+            0,  0,  0,  0,  0,  0,  0,  0
+    });
+
+    public static final int KNIGHT_TABLE = table("KNIGHT_TABLE", new int[]{
+            -50,-40,-30,-30,-30,-30,-40,-50,
+            -40,-20,  0,  0,  0,  0,-20,-40,
+            -30,  0, 10, 15, 15, 10,  0,-30,
+            -30,  5, 15, 20, 20, 15,  5,-30,
+            -30,  0, 15, 20, 20, 15,  0,-30,
+            -30,  5, 10, 15, 15, 10,  5,-30,
+            -40,-20,  0,  5,  5,  0,-20,-40,
+            -50,-40,-30,-30,-30,-30,-40,-50
+    });
+
+    public static final int BISHOP_TABLE = table("BISHOP_TABLE", new int[]{
+            -20,-10,-10,-10,-10,-10,-10,-20,
+            -10,  0,  0,  0,  0,  0,  0,-10,
+            -10,  0, 10, 10, 10, 10,  0,-10,
+            -10,  5,  5, 10, 10,  5,  5,-10,
+            -10,  0,  5, 10, 10,  5,  0,-10,
+            -10,  5,  5,  5,  5,  5,  5,-10,
+            -10,  0,  5,  0,  0,  5,  0,-10,
+            -20,-10,-10,-10,-10,-10,-10,-20
+    });
+
+    public static final int ROOK_TABLE = table("ROOK_TABLE", new int[]{
+            0,  0,  0,  0,  0,  0,  0,  0,
+            5, 10, 10, 10, 10, 10, 10,  5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            0,  0,  0,  5,  5,  0,  0,  0
+    });
+
+    public static final int QUEEN_TABLE = table("QUEEN_TABLE", new int[]{
+            -20,-10,-10, -5, -5,-10,-10,-20,
+            -10,  0,  0,  0,  0,  0,  0,-10,
+            -10,  0,  5,  5,  5,  5,  0,-10,
+            -5,  0,  5,  5,  5,  5,  0, -5,
+            0,  0,  5,  5,  5,  5,  0, -5,
+            -10,  5,  5,  5,  5,  5,  0,-10,
+            -10,  0,  5,  0,  0,  0,  0,-10,
+            -20,-10,-10, -5, -5,-10,-10,-20
+    });
+
+    public static final int KING_MIDGAME_TABLE = table("KING_MIDGAME_TABLE", new int[]{
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -20,-30,-30,-40,-40,-30,-30,-20,
+            -10,-20,-20,-20,-20,-20,-20,-10,
+            20, 20,  0,  0,  0,  0, 20, 20,
+            20, 30, 10,  0,  0, 10, 30, 20
+    });
+
+    public static final int KING_ENDGAME_TABLE = table("KING_ENDGAME_TABLE", new int[]{
+            -50,-40,-30,-20,-20,-30,-40,-50,
+            -30,-20,-10,  0,  0,-10,-20,-30,
+            -30,-10, 20, 30, 30, 20,-10,-30,
+            -30,-10, 30, 40, 40, 30,-10,-30,
+            -30,-10, 30, 40, 40, 30,-10,-30,
+            -30,-10, 20, 30, 30, 20,-10,-30,
+            -30,-30,  0,  0,  0,  0,-30,-30,
+            -50,-30,-30,-30,-30,-30,-30,-50
+    });
+
+    // Total number of weights in the vector
+    public static final int SIZE = size;
+
+    private static final int[] DEFAULT_VALUES = buildDefaults();
+    private static EvaluationParameters active;
+
+    private final int[] values;
+
+    private EvaluationParameters(int[] values) {
+        this.values = values;
+    }
+
+    /**
+     * @return The built-in weights the evaluators were written with
+     */
+    public static EvaluationParameters defaults() {
+        return new EvaluationParameters(DEFAULT_VALUES.clone());
+    }
+
+    /**
+     * Wrap an existing weight vector (as produced by the tuner) without copying it.
+     */
+    public static EvaluationParameters fromArray(int[] values) {
+        if (values.length != SIZE) {
+            throw new IllegalArgumentException("Expected " + SIZE + " parameters, got " + values.length);
+        }
+        return new EvaluationParameters(values);
+    }
+
+    /**
+     * Parameters used by evaluators created without explicit weights.
+     * Loaded once from the file named by the {@value #PARAMETERS_FILE_PROPERTY} system property,
+     * falling back to the built-in defaults.
+     */
+    public static synchronized EvaluationParameters getActive() {
+        if (active == null) {
+            String file = System.getProperty(PARAMETERS_FILE_PROPERTY);
+            if (file == null || file.isEmpty()) {
+                active = defaults();
+            } else {
+                try {
+                    active = load(Paths.get(file));
+                    System.out.println("Loaded evaluation parameters from " + file);
+                } catch (IOException | IllegalArgumentException e) {
+                    System.err.println("Could not load evaluation parameters from " + file + ": " + e.getMessage());
+                    active = defaults();
+                }
+            }
+        }
+        return active;
+    }
+
+    public static synchronized void setActive(EvaluationParameters parameters) {
+        active = parameters;
+    }
+
+    public int get(int index) {
+        return values[index];
+    }
+
+    /**
+     * Copy a 64-entry piece-square table out of the vector.
+     */
+    public int[] getTable(int offset) {
+        int[] table = new int[64];
+        System.arraycopy(values, offset, table, 0, 64);
+        return table;
+    }
+
+    /**
+     * @return A copy of the whole weight vector
+     */
+    public int[] toArray() {
+        return values.clone();
+    }
+
+    /**
+     * @return Names of the weights in vector order, one per index (table entries are suffixed with their square)
+     */
+    public static List<String> getNames() {
+        List<String> names = new ArrayList<>(SIZE);
+        for (Entry entry : ENTRIES) {
+            if (entry.length == 1) {
+                names.add(entry.name);
+            } else {
+                for (int i = 0; i < entry.length; i++) {
+                    names.add(entry.name + "[" + i + "]");
+                }
+            }
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Load weights from a parameter file. Binary files (see {@link #saveBinary(Path)}) are recognised
+     * by their header, anything else is read as a properties file.
+     */
+    public static EvaluationParameters load(Path file) throws IOException {
+        byte[] content = Files.readAllBytes(file);
+        if (content.length >= 4 && ByteBuffer.wrap(content).getInt() == BINARY_MAGIC) {
+            return loadBinary(ByteBuffer.wrap(content));
+        }
+        return loadProperties(new String(content, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Missing keys keep their default value, tables are stored as comma separated lists of 64 values.
+     */
+    private static EvaluationParameters loadProperties(String content) throws IOException {
+        Properties properties = new Properties();
+        properties.load(new StringReader(content));
+
+        int[] values = DEFAULT_VALUES.clone();
+        for (Entry entry : ENTRIES) {
+            String value = properties.getProperty(entry.name);
+            if (value == null) {
+                continue;
+            }
+
+            String[] parts = value.split(",");
+            if (parts.length != entry.length) {
+                throw new IllegalArgumentException(entry.name + " needs " + entry.length + " values, got " + parts.length);
+            }
+            for (int i = 0; i < parts.length; i++) {
+                values[entry.offset + i] = Integer.parseInt(parts[i].trim());
+            }
+        }
+        return new EvaluationParameters(values);
+    }
+
+    /**
+     * Binary layout: magic, parameter count, then one big-endian int per parameter in vector order.
+     */
+    private static EvaluationParameters loadBinary(ByteBuffer buffer) {
+        buffer.getInt(); // magic
+        int count = buffer.getInt();
+        if (count != SIZE) {
+            throw new IllegalArgumentException("Parameter file has " + count + " values, expected " + SIZE);
+        }
+        if (buffer.remaining() < count * Integer.BYTES) {
+            throw new IllegalArgumentException("Parameter file is truncated");
+        }
+
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        return new EvaluationParameters(values);
+    }
+
+    /**
+     * Write the weights to a file, in binary form if the name ends with ".bin" and as properties otherwise.
+     */
+    public void save(Path file) throws IOException {
+        if (file.getFileName().toString().endsWith(".bin")) {
+            saveBinary(file);
+        } else {
+            saveProperties(file);
+        }
+    }
+
+    public void saveProperties(Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# Evaluation parameters\n");
+            for (Entry entry : ENTRIES) {
+                StringBuilder line = new StringBuilder(entry.name).append('=');
+                for (int i = 0; i < entry.length; i++) {
+                    if (i > 0) {
+                        line.append(entry.length == 64 && i % 8 == 0 ? ",\\\n    " : ",");
+                    }
+                    line.append(values[entry.offset + i]);
+                }
+                writer.write(line.append('\n').toString());
+            }
+        }
+    }
+
+    public void saveBinary(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Integer.BYTES + values.length * Integer.BYTES);
+        buffer.putInt(BINARY_MAGIC);
+        buffer.putInt(values.length);
+        buffer.asIntBuffer().put(values);
+        Files.write(file, buffer.array());
+    }
+
+    private static int scalar(String name, int defaultValue) {
+        return table(name, new int[]{defaultValue});
+    }
+
+    private static int table(String name, int[] defaultValues) {
+        int offset = size;
+        ENTRIES.add(new Entry(name, offset, defaultValues));
+        size += defaultValues.length;
+        return offset;
+    }
+
+    private static int[] buildDefaults() {
+        int[] values = new int[SIZE];
+        for (Entry entry : ENTRIES) {
+            System.arraycopy(entry.defaultValues, 0, values, entry.offset, entry.length);
+        }
+        return values;
+    }
+
+    private static class Entry {
+        final String name;
+        final int offset;
+        final int length;
+        final int[] defaultValues;
+
+        Entry(String name, int offset, int[] defaultValues) {
+            this.name = name;
+            this.offset = offset;
+            this.length = defaultValues.length;
+            this.defaultValues = defaultValues;
+        }
+    }
+}
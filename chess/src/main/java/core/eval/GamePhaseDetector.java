@@ -3,8 +3,31 @@ import core.bitboard.Bitboard;
 import core.board.Board;
 
 public class GamePhaseDetector {
-    private static final int OPENING_MATERIAL_THRESHOLD = 2800; // Both sides have most pieces
-    private static final int ENDGAME_MATERIAL_THRESHOLD = 1500; // Significant material reduction
+    private final int openingMaterialThreshold; // Both sides have most pieces
+    private final int endgameMaterialThreshold; // Significant material reduction
+    private final int pawnValue;
+    private final int knightValue;
+    private final int bishopValue;
+    private final int rookValue;
+    private final int queenValue;
+
+    public GamePhaseDetector() {
+        this(EvaluationParameters.getActive());
+    }
+
+    /**
+     * Phase boundaries and material values of the given weights; evaluators build their
+     * detector from their own parameters so a tuned set reaches the phase detection too.
+     */
+    public GamePhaseDetector(EvaluationParameters params) {
+        this.openingMaterialThreshold = params.get(EvaluationParameters.OPENING_MATERIAL_THRESHOLD);
+        this.endgameMaterialThreshold = params.get(EvaluationParameters.ENDGAME_MATERIAL_THRESHOLD);
+        this.pawnValue = params.get(EvaluationParameters.MATERIAL_PAWN);
+        this.knightValue = params.get(EvaluationParameters.MATERIAL_KNIGHT);
+        this.bishopValue = params.get(EvaluationParameters.MATERIAL_BISHOP);
+        this.rookValue = params.get(EvaluationParameters.MATERIAL_ROOK);
+        this.queenValue = params.get(EvaluationParameters.MATERIAL_QUEEN);
+    }
 
     public enum GamePhase {
         OPENING,
@@ -12,27 +35,27 @@ public class GamePhaseDetector {
         ENDGAME
     }
 
-    public static GamePhase detectPhase(Board board) {
+    public GamePhase detectPhase(Board board) {
         int totalMaterial = getTotalMaterial(board);
 
-        if (totalMaterial >= OPENING_MATERIAL_THRESHOLD) {
+        if (totalMaterial >= openingMaterialThreshold) {
             return GamePhase.OPENING;
-        } else if (totalMaterial <= ENDGAME_MATERIAL_THRESHOLD) {
+        } else if (totalMaterial <= endgameMaterialThreshold) {
             return GamePhase.ENDGAME;
         } else {
             return GamePhase.MIDDLEGAME;
         }
     }
 
-    private static int getTotalMaterial(Board board) {
+    private int getTotalMaterial(Board board) {
         // Calculate total material on board excluding kings
-        // Material values match those in MaterialEvaluator
+        // Material values match those of the parameters MaterialEvaluator is built from
         int totalMaterial =
-                Bitboard.popCount(board.getWhitePawns() | board.getBlackPawns()) * 100 +
-                        Bitboard.popCount(board.getWhiteKnights() | board.getBlackKnights()) * 320 +
-                        Bitboard.popCount(board.getWhiteBishops() | board.getBlackBishops()) * 330 +
-                        Bitboard.popCount(board.getWhiteRooks() | board.getBlackRooks()) * 500 +
-                        Bitboard.popCount(board.getWhiteQueens() | board.getBlackQueens()) * 900;
+                Bitboard.popCount(board.getWhitePawns() | board.getBlackPawns()) * pawnValue +
+                        Bitboard.popCount(board.getWhiteKnights() | board.getBlackKnights()) * knightValue +
+                        Bitboard.popCount(board.getWhiteBishops() | board.getBlackBishops()) * bishopValue +
+                        Bitboard.popCount(board.getWhiteRooks() | board.getBlackRooks()) * rookValue +
+                        Bitboard.popCount(board.getWhiteQueens() | board.getBlackQueens()) * queenValue;
 
         return totalMaterial;
     }
@@ -1,15 +1,35 @@
 package core.eval;
 
 import core.bitboard.Bitboard;
+import core.bitboard.BitboardConstants;
 import core.board.Board;
 
 public class KingSafetyEvaluator implements Evaluator {
-    private static final int KING_SHIELD_BONUS = 10; // Bonus for each pawn shielding the king
-    private static final int KING_OPEN_FILE_PENALTY = -30; // Penalty for king on open file
-    private static final int KING_SEMI_OPEN_FILE_PENALTY = -15; // Penalty for king on semi-open file
-    private static final int CASTLED_BONUS = 50; // Bonus for having castled
-    private static final int PAWN_STORM_PENALTY = -10; // Penalty for each enemy pawn advancing toward king
-    private static final int QUEEN_TROPISM_PENALTY = -5; // Penalty per square of proximity of enemy queen to king
+    private final int kingShieldBonus; // Bonus for each pawn shielding the king
+    private final int kingShieldDistancePenalty; // Shield bonus lost per rank between pawn and king
+    private final int kingOpenFilePenalty; // Penalty for king on open file
+    private final int kingSemiOpenFilePenalty; // Penalty for king on semi-open file
+    private final int castledBonus; // Bonus for having castled
+    private final int pawnStormPenalty; // Penalty for each enemy pawn advancing toward king
+    private final int queenTropismPenalty; // Penalty per square of proximity of enemy queen to king
+    private final int kingZoneAttackPenalty; // Penalty for each square around the king attacked by the enemy
+    private final GamePhaseDetector phaseDetector;
+
+    public KingSafetyEvaluator() {
+        this(EvaluationParameters.getActive());
+    }
+
+    public KingSafetyEvaluator(EvaluationParameters params) {
+        this.kingShieldBonus = params.get(EvaluationParameters.KING_SHIELD_BONUS);
+        this.kingShieldDistancePenalty = params.get(EvaluationParameters.KING_SHIELD_DISTANCE_PENALTY);
+        this.kingOpenFilePenalty = params.get(EvaluationParameters.KING_OPEN_FILE_PENALTY);
+        this.kingSemiOpenFilePenalty = params.get(EvaluationParameters.KING_SEMI_OPEN_FILE_PENALTY);
+        this.castledBonus = params.get(EvaluationParameters.CASTLED_BONUS);
+        this.pawnStormPenalty = params.get(EvaluationParameters.PAWN_STORM_PENALTY);
+        this.queenTropismPenalty = params.get(EvaluationParameters.QUEEN_TROPISM_PENALTY);
+        this.kingZoneAttackPenalty = params.get(EvaluationParameters.KING_ZONE_ATTACK_PENALTY);
+        this.phaseDetector = new GamePhaseDetector(params);
+    }
 
     @Override
     public int evaluate(Board board) {
@@ -28,7 +48,7 @@ public class KingSafetyEvaluator implements Evaluator {
         int score = 0;
 
         // Only apply significant king safety evaluation in opening and middlegame
-        GamePhaseDetector.GamePhase phase = GamePhaseDetector.detectPhase(board);
+        GamePhaseDetector.GamePhase phase = phaseDetector.detectPhase(board);
         if (phase == GamePhaseDetector.GamePhase.ENDGAME) {
             return score; // Minimal weight in endgame
         }
@@ -43,13 +63,13 @@ public class KingSafetyEvaluator implements Evaluator {
             // White king has likely castled if it's on g1 or c1
             if ((kingFile == 6 && kingRank == 0) || (kingFile == 2 && kingRank == 0)) {
                 hasCastled = true;
-                score += CASTLED_BONUS;
+                score += castledBonus;
             }
         } else {
             // Black king has likely castled if it's on g8 or c8
             if ((kingFile == 6 && kingRank == 7) || (kingFile == 2 && kingRank == 7)) {
                 hasCastled = true;
-                score += CASTLED_BONUS;
+                score += castledBonus;
             }
         }
 
@@ -87,9 +107,9 @@ public class KingSafetyEvaluator implements Evaluator {
 
                     int pawnSquare = rank * 8 + file;
                     if (Bitboard.isBitSet(friendlyPawns, pawnSquare)) {
-                        score += KING_SHIELD_BONUS;
+                        score += kingShieldBonus;
                         // Bonus decreases with distance from king
-                        score -= (rankOffset - 1) * 2;
+                        score -= (rankOffset - 1) * kingShieldDistancePenalty;
                     }
                 }
             }
@@ -101,9 +121,9 @@ public class KingSafetyEvaluator implements Evaluator {
 
                     int pawnSquare = rank * 8 + file;
                     if (Bitboard.isBitSet(friendlyPawns, pawnSquare)) {
-                        score += KING_SHIELD_BONUS;
+                        score += kingShieldBonus;
                         // Bonus decreases with distance from king
-                        score -= (rankOffset - 1) * 2;
+                        score -= (rankOffset - 1) * kingShieldDistancePenalty;
                     }
                 }
             }
@@ -122,13 +142,13 @@ public class KingSafetyEvaluator implements Evaluator {
         long kingFileMask = Bitboard.createFileMask(kingFile);
         if ((whitePawns & kingFileMask) == 0 && (blackPawns & kingFileMask) == 0) {
             // Completely open file
-            score += KING_OPEN_FILE_PENALTY;
+            score += kingOpenFilePenalty;
         } else if (isWhite && (whitePawns & kingFileMask) == 0) {
             // Semi-open file (no friendly pawns)
-            score += KING_SEMI_OPEN_FILE_PENALTY;
+            score += kingSemiOpenFilePenalty;
         } else if (!isWhite && (blackPawns & kingFileMask) == 0) {
             // Semi-open file (no friendly pawns)
-            score += KING_SEMI_OPEN_FILE_PENALTY;
+            score += kingSemiOpenFilePenalty;
         }
 
         // Also check adjacent files
@@ -139,13 +159,13 @@ public class KingSafetyEvaluator implements Evaluator {
             long adjacentFileMask = Bitboard.createFileMask(adjacentFile);
             if ((whitePawns & adjacentFileMask) == 0 && (blackPawns & adjacentFileMask) == 0) {
                 // Adjacent file is completely open
-                score += KING_OPEN_FILE_PENALTY / 2; // Half penalty for adjacent files
+                score += kingOpenFilePenalty / 2; // Half penalty for adjacent files
             } else if (isWhite && (whitePawns & adjacentFileMask) == 0) {
                 // Semi-open adjacent file
-                score += KING_SEMI_OPEN_FILE_PENALTY / 2;
+                score += kingSemiOpenFilePenalty / 2;
             } else if (!isWhite && (blackPawns & adjacentFileMask) == 0) {
                 // Semi-open adjacent file
-                score += KING_SEMI_OPEN_FILE_PENALTY / 2;
+                score += kingSemiOpenFilePenalty / 2;
             }
         }
 
@@ -177,7 +197,7 @@ public class KingSafetyEvaluator implements Evaluator {
                     // Closer pawns are more dangerous
                     int distance = Math.abs(pawnRank - kingRank);
                     if (distance <= 3) {
-                        score += PAWN_STORM_PENALTY * (4 - distance);
+                        score += pawnStormPenalty * (4 - distance);
                     }
                 } else {
                     // For black king, white pawns coming from below are dangerous
@@ -194,7 +214,7 @@ public class KingSafetyEvaluator implements Evaluator {
                     // Closer pawns are more dangerous
                     int distance = Math.abs(pawnRank - kingRank);
                     if (distance <= 3) {
-                        score += PAWN_STORM_PENALTY * (4 - distance);
+                        score += pawnStormPenalty * (4 - distance);
                     }
                 }
             }
@@ -221,14 +241,15 @@ public class KingSafetyEvaluator implements Evaluator {
 
             // Closer queens are more dangerous
             if (distance <= 5) {
-                score += QUEEN_TROPISM_PENALTY * (6 - distance);
+                score += queenTropismPenalty * (6 - distance);
             }
         }
 
-        // More detailed attack evaluation could be added here:
-        // - Count number of enemy pieces attacking squares around king
-        // - Evaluate attacking potential on castled king position
-        // - Count defended vs undefended squares in king zone
+        // Count the squares around the king the enemy attacks, using the board's cached attack map
+        long king = Bitboard.getBit(kingSquare);
+        long kingRow = king | ((king << 1) & ~BitboardConstants.FILE_A) | ((king >>> 1) & ~BitboardConstants.FILE_H);
+        long kingZone = kingRow | (kingRow << 8) | (kingRow >>> 8);
+        score += kingZoneAttackPenalty * Long.bitCount(kingZone & board.getAttacks(!isWhite));
 
         return score;
     }
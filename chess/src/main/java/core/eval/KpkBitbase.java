@@ -0,0 +1,151 @@
+package core.eval;
+
+import core.board.MoveGenerator;
+
+/**
+ * Win/draw bitbase for king and pawn against king, generated by retrograde analysis the
+ * first time it is used (a few milliseconds).
+ *
+ * Positions are stored with the pawn's side as white and the pawn on files a-d; probes
+ * mirror the position into that form. A position is indexed by the side to move, both king
+ * squares and the pawn square (files a-d, ranks 2-7), one bit each: set if white wins.
+ */
+public final class KpkBitbase {
+    // 2 sides to move * 24 pawn squares * 64 black king squares * 64 white king squares
+    private static final int SIZE = 2 * 24 * 64 * 64;
+
+    // Classification of a position during generation
+    private static final byte INVALID = 0;
+    private static final byte UNKNOWN = 1;
+    private static final byte DRAW = 2;
+    private static final byte WIN = 4;
+
+    private static final long[] WINS = generate();
+
+    private KpkBitbase() {
+    }
+
+    /**
+     * Whether the side with the pawn wins.
+     *
+     * @param strongKing King square of the side with the pawn
+     * @param pawn Pawn square; a pawn on the first or last rank is not a KPK position and returns false
+     * @param weakKing King square of the lone king
+     * @param strongWhite Whether the side with the pawn is white
+     * @param strongToMove Whether the side with the pawn is to move
+     */
+    public static boolean isWin(int strongKing, int pawn, int weakKing, boolean strongWhite, boolean strongToMove) {
+        if (!strongWhite) {
+            // Flip the board vertically so the pawn moves up
+            strongKing ^= 56;
+            pawn ^= 56;
+            weakKing ^= 56;
+        }
+        if (pawn < 8 || pawn >= 56) {
+            return false; // Outside the indexed ranks 2-7
+        }
+        if (pawn % 8 > 3) {
+            strongKing ^= 7;
+            pawn ^= 7;
+            weakKing ^= 7;
+        }
+        int index = index(strongToMove, weakKing, strongKing, pawn);
+        return (WINS[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static int index(boolean whiteToMove, int blackKing, int whiteKing, int pawn) {
+        return whiteKing | (blackKing << 6) | ((whiteToMove ? 0 : 1) << 12)
+                | ((pawn % 8) << 13) | ((6 - pawn / 8) << 15);
+    }
+
+    private static long[] generate() {
+        byte[] results = new byte[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            results[i] = classifyInitial(i);
+        }
+
+        // Resolve positions from their successors until nothing changes
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 0; i < SIZE; i++) {
+                if (results[i] == UNKNOWN) {
+                    results[i] = classify(results, i);
+                    changed |= results[i] != UNKNOWN;
+                }
+            }
+        }
+
+        long[] wins = new long[SIZE / 64];
+        for (int i = 0; i < SIZE; i++) {
+            if (results[i] == WIN) {
+                wins[i >>> 6] |= 1L << i;
+            }
+        }
+        return wins;
+    }
+
+    private static byte classifyInitial(int index) {
+        int whiteKing = index & 63;
+        int blackKing = (index >>> 6) & 63;
+        boolean whiteToMove = ((index >>> 12) & 1) == 0;
+        int pawn = ((index >>> 13) & 3) + 8 * (6 - (index >>> 15));
+        int push = pawn + 8;
+
+        long blackKingAttacks = MoveGenerator.getKingAttacks(blackKing);
+        long whiteKingAttacks = MoveGenerator.getKingAttacks(whiteKing);
+        long pawnAttacks = MoveGenerator.getPawnAttacks(pawn, true);
+
+        // Kings touching, pieces on the same square, or black in check with white to move
+        if ((whiteKingAttacks & (1L << blackKing)) != 0 || whiteKing == blackKing
+                || whiteKing == pawn || blackKing == pawn
+                || (whiteToMove && (pawnAttacks & (1L << blackKing)) != 0)) {
+            return INVALID;
+        }
+
+        // The pawn promotes without being captured
+        if (whiteToMove && pawn / 8 == 6 && whiteKing != push
+                && (distance(blackKing, push) > 1 || distance(whiteKing, push) == 1)) {
+            return WIN;
+        }
+
+        // Stalemate, or the pawn can be taken
+        if (!whiteToMove && ((blackKingAttacks & ~(whiteKingAttacks | pawnAttacks)) == 0
+                || (blackKingAttacks & ~whiteKingAttacks & (1L << pawn)) != 0)) {
+            return DRAW;
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * White wins if one move wins, black draws if one move draws.
+     */
+    private static byte classify(byte[] results, int index) {
+        int whiteKing = index & 63;
+        int blackKing = (index >>> 6) & 63;
+        boolean whiteToMove = ((index >>> 12) & 1) == 0;
+        int pawn = ((index >>> 13) & 3) + 8 * (6 - (index >>> 15));
+
+        int r = INVALID;
+        long kingMoves = MoveGenerator.getKingAttacks(whiteToMove ? whiteKing : blackKing);
+        for (; kingMoves != 0; kingMoves &= kingMoves - 1) {
+            int to = Long.numberOfTrailingZeros(kingMoves);
+            r |= whiteToMove ? results[index(false, blackKing, to, pawn)] : results[index(true, to, whiteKing, pawn)];
+        }
+
+        if (whiteToMove) {
+            if (pawn / 8 < 6) {
+                r |= results[index(false, blackKing, whiteKing, pawn + 8)];
+            }
+            if (pawn / 8 == 1 && pawn + 8 != whiteKing && pawn + 8 != blackKing) {
+                r |= results[index(false, blackKing, whiteKing, pawn + 16)];
+            }
+            return (r & WIN) != 0 ? WIN : (r & UNKNOWN) != 0 ? UNKNOWN : DRAW;
+        }
+        return (r & DRAW) != 0 ? DRAW : (r & UNKNOWN) != 0 ? UNKNOWN : WIN;
+    }
+
+    private static int distance(int square1, int square2) {
+        return Math.max(Math.abs(square1 % 8 - square2 % 8), Math.abs(square1 / 8 - square2 / 8));
+    }
+}
@@ -0,0 +1,220 @@
+package core.eval;
+
+import core.board.MoveGenerator;
+
+/**
+ * Distance to mate for king and rook or king and queen against king, generated by
+ * retrograde analysis the first time each table is used.
+ *
+ * Positions are stored with the strong side as white and the white king in the a1-d4
+ * quarter of the board; probes mirror the position into that form. Each position holds
+ * one byte: 0 if white does not win (the piece hangs, stalemate, or the position is
+ * illegal), otherwise the number of plies to mate plus one.
+ */
+public final class MateDistanceTable {
+    private static final MoveGenerator MOVE_GENERATOR = new MoveGenerator();
+
+    // 2 sides to move * 16 white king squares * 64 black king squares * 64 piece squares
+    private static final int SIZE = 2 * 16 * 64 * 64;
+    private static final int BLACK_TO_MOVE = 16 * 64 * 64;
+
+    private final boolean queen;
+    private final byte[] plies = new byte[SIZE];
+    // Squares attacked by the piece with only the white king blocking, by piece and king square; generation only
+    private long[] pieceAttacksPastBlackKing;
+
+    private static final class Holder {
+        static final MateDistanceTable ROOK = new MateDistanceTable(false);
+        static final MateDistanceTable QUEEN = new MateDistanceTable(true);
+    }
+
+    public static MateDistanceTable rook() {
+        return Holder.ROOK;
+    }
+
+    public static MateDistanceTable queen() {
+        return Holder.QUEEN;
+    }
+
+    private MateDistanceTable(boolean queen) {
+        this.queen = queen;
+        generate();
+    }
+
+    /**
+     * Plies until the strong side mates with best play by both sides.
+     *
+     * @param strongKing King square of the side with the rook or queen
+     * @param piece Square of the rook or queen
+     * @param weakKing King square of the lone king
+     * @param strongToMove Whether the side with the rook or queen is to move
+     * @return Plies to mate (0 when the lone king is mated), or -1 if the position is not won
+     */
+    public int getPliesToMate(int strongKing, int piece, int weakKing, boolean strongToMove) {
+        if (strongKing % 8 > 3) {
+            strongKing ^= 7;
+            piece ^= 7;
+            weakKing ^= 7;
+        }
+        if (strongKing / 8 > 3) {
+            strongKing ^= 56;
+            piece ^= 56;
+            weakKing ^= 56;
+        }
+        return plies[index(strongToMove, strongKing, weakKing, piece)] - 1;
+    }
+
+    private static int index(boolean whiteToMove, int whiteKing, int blackKing, int piece) {
+        int kingCode = (whiteKing / 8) * 4 + whiteKing % 8;
+        return (whiteToMove ? 0 : BLACK_TO_MOVE) + (kingCode << 12) + (blackKing << 6) + piece;
+    }
+
+    /**
+     * Index of a position with the white king anywhere, mirrored into the a1-d4 quarter
+     */
+    private static int canonicalIndex(boolean whiteToMove, int whiteKing, int blackKing, int piece) {
+        if (whiteKing % 8 > 3) {
+            whiteKing ^= 7;
+            blackKing ^= 7;
+            piece ^= 7;
+        }
+        if (whiteKing / 8 > 3) {
+            whiteKing ^= 56;
+            blackKing ^= 56;
+            piece ^= 56;
+        }
+        return index(whiteToMove, whiteKing, blackKing, piece);
+    }
+
+    private long pieceAttacks(int square, long occupancy) {
+        return queen ? MOVE_GENERATOR.getQueenAttacks(square, occupancy) : MOVE_GENERATOR.getRookAttacks(square, occupancy);
+    }
+
+    /**
+     * Mates first, then alternately white positions with a move to a black position lost in
+     * the previous ply and black positions whose every move leads to a won white position,
+     * until neither side gains a position.
+     */
+    private void generate() {
+        pieceAttacksPastBlackKing = new long[64 * 64];
+        for (int piece = 0; piece < 64; piece++) {
+            for (int whiteKing = 0; whiteKing < 64; whiteKing++) {
+                pieceAttacksPastBlackKing[piece * 64 + whiteKing] = pieceAttacks(piece, 1L << whiteKing);
+            }
+        }
+
+        boolean[] valid = new boolean[SIZE];
+        for (int whiteKingCode = 0; whiteKingCode < 16; whiteKingCode++) {
+            int whiteKing = (whiteKingCode / 4) * 8 + whiteKingCode % 4;
+            for (int blackKing = 0; blackKing < 64; blackKing++) {
+                for (int piece = 0; piece < 64; piece++) {
+                    if (whiteKing == blackKing || piece == whiteKing || piece == blackKing
+                            || (MoveGenerator.getKingAttacks(whiteKing) & (1L << blackKing)) != 0) {
+                        continue;
+                    }
+                    boolean blackInCheck = (pieceAttacks(piece, (1L << whiteKing) | (1L << blackKing)) & (1L << blackKing)) != 0;
+                    valid[index(true, whiteKing, blackKing, piece)] = !blackInCheck;
+                    int blackIndex = index(false, whiteKing, blackKing, piece);
+                    valid[blackIndex] = true;
+                    if (blackInCheck && !hasBlackMove(whiteKing, blackKing, piece, null)) {
+                        plies[blackIndex] = 1; // Mated
+                    }
+                }
+            }
+        }
+
+        int ply = 1;
+        boolean progress = true;
+        boolean lastProgress = true;
+        while (progress || lastProgress) {
+            lastProgress = progress;
+            progress = false;
+            boolean whiteToMove = ply % 2 == 1;
+            for (int whiteKingCode = 0; whiteKingCode < 16; whiteKingCode++) {
+                int whiteKing = (whiteKingCode / 4) * 8 + whiteKingCode % 4;
+                for (int blackKing = 0; blackKing < 64; blackKing++) {
+                    for (int piece = 0; piece < 64; piece++) {
+                        int index = index(whiteToMove, whiteKing, blackKing, piece);
+                        if (!valid[index] || plies[index] != 0) {
+                            continue;
+                        }
+                        boolean won = whiteToMove ? hasWhiteMoveTo(whiteKing, blackKing, piece, ply)
+                                : isBlackLost(whiteKing, blackKing, piece, ply);
+                        if (won) {
+                            plies[index] = (byte) (ply + 1);
+                            progress = true;
+                        }
+                    }
+                }
+            }
+            ply++;
+        }
+        pieceAttacksPastBlackKing = null;
+    }
+
+    /**
+     * Whether white has a move to a black position that is mated in exactly ply - 1 plies
+     */
+    private boolean hasWhiteMoveTo(int whiteKing, int blackKing, int piece, int ply) {
+        long occupancy = (1L << whiteKing) | (1L << blackKing) | (1L << piece);
+        long kingMoves = MoveGenerator.getKingAttacks(whiteKing) & ~MoveGenerator.getKingAttacks(blackKing)
+                & ~(1L << piece) & ~(1L << blackKing);
+        for (; kingMoves != 0; kingMoves &= kingMoves - 1) {
+            int to = Long.numberOfTrailingZeros(kingMoves);
+            if (plies[canonicalIndex(false, to, blackKing, piece)] == ply) {
+                return true;
+            }
+        }
+        long pieceMoves = pieceAttacks(piece, occupancy) & ~(1L << whiteKing) & ~(1L << blackKing);
+        for (; pieceMoves != 0; pieceMoves &= pieceMoves - 1) {
+            int to = Long.numberOfTrailingZeros(pieceMoves);
+            if (plies[canonicalIndex(false, whiteKing, blackKing, to)] == ply) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether every black move leads to a white position that is won, the slowest of them in
+     * exactly ply - 1 plies
+     */
+    private boolean isBlackLost(int whiteKing, int blackKing, int piece, int ply) {
+        int[] slowest = {0};
+        if (!hasBlackMove(whiteKing, blackKing, piece, slowest)) {
+            return false; // Stalemate, mates were found first
+        }
+        return slowest[0] == ply;
+    }
+
+    /**
+     * Whether black has a legal move. With a result array, it is also filled with the
+     * largest stored value among the positions the moves lead to, or -1 if one of them is
+     * not won for white (including capturing the piece).
+     */
+    private boolean hasBlackMove(int whiteKing, int blackKing, int piece, int[] slowest) {
+        // The black king does not block the attacks along the line it moves on
+        long attacked = MoveGenerator.getKingAttacks(whiteKing) | pieceAttacksPastBlackKing[piece * 64 + whiteKing];
+        long kingMoves = MoveGenerator.getKingAttacks(blackKing) & ~attacked;
+        if (kingMoves == 0) {
+            return false;
+        }
+        if (slowest == null) {
+            return true;
+        }
+        for (; kingMoves != 0; kingMoves &= kingMoves - 1) {
+            int to = Long.numberOfTrailingZeros(kingMoves);
+            if (to == piece) {
+                slowest[0] = -1; // Takes the undefended piece
+                return true;
+            }
+            int value = plies[canonicalIndex(true, whiteKing, to, piece)];
+            if (value == 0) {
+                slowest[0] = -1;
+                return true;
+            }
+            slowest[0] = Math.max(slowest[0], value);
+        }
+        return true;
+    }
+}
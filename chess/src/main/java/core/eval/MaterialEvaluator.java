@@ -8,27 +8,39 @@ import core.bitboard.Bitboard;
  */
 public class MaterialEvaluator implements Evaluator {
     // Material values in centipawns
-    private static final int PAWN_VALUE = 100;
-    private static final int KNIGHT_VALUE = 320;
-    private static final int BISHOP_VALUE = 330;
-    private static final int ROOK_VALUE = 500;
-    private static final int QUEEN_VALUE = 900;
+    private final int pawnValue;
+    private final int knightValue;
+    private final int bishopValue;
+    private final int rookValue;
+    private final int queenValue;
+
+    public MaterialEvaluator() {
+        this(EvaluationParameters.getActive());
+    }
+
+    public MaterialEvaluator(EvaluationParameters params) {
+        this.pawnValue = params.get(EvaluationParameters.MATERIAL_PAWN);
+        this.knightValue = params.get(EvaluationParameters.MATERIAL_KNIGHT);
+        this.bishopValue = params.get(EvaluationParameters.MATERIAL_BISHOP);
+        this.rookValue = params.get(EvaluationParameters.MATERIAL_ROOK);
+        this.queenValue = params.get(EvaluationParameters.MATERIAL_QUEEN);
+    }
 
     @Override
     public int evaluate(Board board) {
         int whiteMaterial =
-                Bitboard.popCount(board.getWhitePawns()) * PAWN_VALUE +
-                        Bitboard.popCount(board.getWhiteKnights()) * KNIGHT_VALUE +
-                        Bitboard.popCount(board.getWhiteBishops()) * BISHOP_VALUE +
-                        Bitboard.popCount(board.getWhiteRooks()) * ROOK_VALUE +
-                        Bitboard.popCount(board.getWhiteQueens()) * QUEEN_VALUE;
+                Bitboard.popCount(board.getWhitePawns()) * pawnValue +
+                        Bitboard.popCount(board.getWhiteKnights()) * knightValue +
+                        Bitboard.popCount(board.getWhiteBishops()) * bishopValue +
+                        Bitboard.popCount(board.getWhiteRooks()) * rookValue +
+                        Bitboard.popCount(board.getWhiteQueens()) * queenValue;
 
         int blackMaterial =
-                Bitboard.popCount(board.getBlackPawns()) * PAWN_VALUE +
-                        Bitboard.popCount(board.getBlackKnights()) * KNIGHT_VALUE +
-                        Bitboard.popCount(board.getBlackBishops()) * BISHOP_VALUE +
-                        Bitboard.popCount(board.getBlackRooks()) * ROOK_VALUE +
-                        Bitboard.popCount(board.getBlackQueens()) * QUEEN_VALUE;
+                Bitboard.popCount(board.getBlackPawns()) * pawnValue +
+                        Bitboard.popCount(board.getBlackKnights()) * knightValue +
+                        Bitboard.popCount(board.getBlackBishops()) * bishopValue +
+                        Bitboard.popCount(board.getBlackRooks()) * rookValue +
+                        Bitboard.popCount(board.getBlackQueens()) * queenValue;
 
         int materialDifference = whiteMaterial - blackMaterial;
 
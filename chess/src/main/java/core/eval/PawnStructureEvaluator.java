@@ -3,10 +3,23 @@ import core.board.Board;
 import core.bitboard.Bitboard;
 
 public class PawnStructureEvaluator implements Evaluator {
-    private static final int DOUBLED_PAWN_PENALTY = -10;
-    private static final int ISOLATED_PAWN_PENALTY = -20;
-    private static final int PASSED_PAWN_BONUS = 20;
-    private static final int PROTECTED_PAWN_BONUS = 10;
+    private final int doubledPawnPenalty;
+    private final int isolatedPawnPenalty;
+    private final int passedPawnBonus;
+    private final int protectedPawnBonus;
+    private final int passedPawnAdvancementBonus;
+
+    public PawnStructureEvaluator() {
+        this(EvaluationParameters.getActive());
+    }
+
+    public PawnStructureEvaluator(EvaluationParameters params) {
+        this.doubledPawnPenalty = params.get(EvaluationParameters.DOUBLED_PAWN_PENALTY);
+        this.isolatedPawnPenalty = params.get(EvaluationParameters.ISOLATED_PAWN_PENALTY);
+        this.passedPawnBonus = params.get(EvaluationParameters.PASSED_PAWN_BONUS);
+        this.protectedPawnBonus = params.get(EvaluationParameters.PROTECTED_PAWN_BONUS);
+        this.passedPawnAdvancementBonus = params.get(EvaluationParameters.PASSED_PAWN_ADVANCEMENT_BONUS);
+    }
 
     @Override
     public int evaluate(Board board) {
@@ -28,7 +41,7 @@ public class PawnStructureEvaluator implements Evaluator {
             int pawnsOnFile = Bitboard.popCount(pawns & fileMask);
 
             if (pawnsOnFile > 1) {
-                score += (pawnsOnFile - 1) * DOUBLED_PAWN_PENALTY;
+                score += (pawnsOnFile - 1) * doubledPawnPenalty;
             }
         }
 
@@ -49,7 +62,7 @@ public class PawnStructureEvaluator implements Evaluator {
             if (file < 7) adjacentFileMask |= Bitboard.createFileMask(file + 1);
 
             if ((pawns & adjacentFileMask) == 0) {
-                score += ISOLATED_PAWN_PENALTY;
+                score += isolatedPawnPenalty;
             }
 
             // Check if passed (no enemy pawns ahead on same or adjacent files)
@@ -73,7 +86,7 @@ public class PawnStructureEvaluator implements Evaluator {
             if (isPassed) {
                 // Add bonus for passed pawns, with more bonus for advanced pawns
                 int advancementBonus = isWhite ? rank : (7 - rank);
-                score += PASSED_PAWN_BONUS + (advancementBonus * 5);
+                score += passedPawnBonus + (advancementBonus * passedPawnAdvancementBonus);
             }
 
             // Check if protected by another pawn
@@ -89,7 +102,7 @@ public class PawnStructureEvaluator implements Evaluator {
             }
 
             if ((pawns & protectorMask) != 0) {
-                score += PROTECTED_PAWN_BONUS;
+                score += protectedPawnBonus;
             }
 
             // Clear the processed pawn
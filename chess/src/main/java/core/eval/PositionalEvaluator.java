@@ -10,75 +10,29 @@ import core.bitboard.Bitboard;
 public class PositionalEvaluator implements Evaluator {
     // Piece-square tables for midgame evaluation (simplified)
     // Positive values favor centralization and key squares
-    private static final int[] PAWN_TABLE = {
-            0,  0,  0,  0,  0,  0,  0,  0,
-            50, 50, 50, 50, 50, 50, 50, 50,
-            10, 10, 20, 30, 30, 20, 10, 10,
-            5,  5, 10, 25, 25, 10,  5,  5,
-            0,  0,  0, 20, 20,  0,  0,  0,
-            5, -5,-10,  0,  0,-10, -5,  5,
-            5, 10, 10,-20,-20, 10, 10,  5,
-            0,  0,  0,  0,  0,  0,  0,  0
-    };
-
-    private static final int[] KNIGHT_TABLE = {
-            -50,-40,-30,-30,-30,-30,-40,-50,
-            -40,-20,  0,  0,  0,  0,-20,-40,
-            -30,  0, 10, 15, 15, 10,  0,-30,
-            -30,  5, 15, 20, 20, 15,  5,-30,
-            -30,  0, 15, 20, 20, 15,  0,-30,
-            -30,  5, 10, 15, 15, 10,  5,-30,
-            -40,-20,  0,  5,  5,  0,-20,-40,
-            -50,-40,-30,-30,-30,-30,-40,-50
-    };
-
-    private static final int[] BISHOP_TABLE = {
-            -20,-10,-10,-10,-10,-10,-10,-20,
-            -10,  0,  0,  0,  0,  0,  0,-10,
-            -10,  0, 10, 10, 10, 10,  0,-10,
-            -10,  5,  5, 10, 10,  5,  5,-10,
-            -10,  0,  5, 10, 10,  5,  0,-10,
-            -10,  5,  5,  5,  5,  5,  5,-10,
-            -10,  0,  5,  0,  0,  5,  0,-10,
-            -20,-10,-10,-10,-10,-10,-10,-20
-    };
-
-    private static final int[] ROOK_TABLE = {
-            0,  0,  0,  0,  0,  0,  0,  0,
-            5, 10, 10, 10, 10, 10, 10,  5,
-            -5,  0,  0,  0,  0,  0,  0, -5,
-            -5,  0,  0,  0,  0,  0,  0, -5,
-            -5,  0,  0,  0,  0,  0,  0, -5,
-            -5,  0,  0,  0,  0,  0,  0, -5,
-            -5,  0,  0,  0,  0,  0,  0, -5,
-            0,  0,  0,  5,  5,  0,  0,  0
-    };
-
-    private static final int[] QUEEN_TABLE = {
-            -20,-10,-10, -5, -5,-10,-10,-20,
-            -10,  0,  0,  0,  0,  0,  0,-10,
-            -10,  0,  5,  5,  5,  5,  0,-10,
-            -5,  0,  5,  5,  5,  5,  0, -5,
-            0,  0,  5,  5,  5,  5,  0, -5,
-            -10,  5,  5,  5,  5,  5,  0,-10,
-            -10,  0,  5,  0,  0,  0,  0,-10,
-            -20,-10,-10, -5, -5,-10,-10,-20
-    };
-
-    private static final int[] KING_MIDGAME_TABLE = {
-            -30,-40,-40,-50,-50,-40,-40,-30,
-            -30,-40,-40,-50,-50,-40,-40,-30,
-            -30,-40,-40,-50,-50,-40,-40,-30,
-            -30,-40,-40,-50,-50,-40,-40,-30,
-            -20,-30,-30,-40,-40,-30,-30,-20,
-            -10,-20,-20,-20,-20,-20,-20,-10,
-            20, 20,  0,  0,  0,  0, 20, 20,
-            20, 30, 10,  0,  0, 10, 30, 20
-    };
+    private final int[] pawnTable;
+    private final int[] knightTable;
+    private final int[] bishopTable;
+    private final int[] rookTable;
+    private final int[] queenTable;
+    private final int[] kingMidgameTable;
 
     // Factor to weight the positional evaluation
     private static final int POSITIONAL_WEIGHT = 1;
 
+    public PositionalEvaluator() {
+        this(EvaluationParameters.getActive());
+    }
+
+    public PositionalEvaluator(EvaluationParameters params) {
+        this.pawnTable = params.getTable(EvaluationParameters.PAWN_TABLE);
+        this.knightTable = params.getTable(EvaluationParameters.KNIGHT_TABLE);
+        this.bishopTable = params.getTable(EvaluationParameters.BISHOP_TABLE);
+        this.rookTable = params.getTable(EvaluationParameters.ROOK_TABLE);
+        this.queenTable = params.getTable(EvaluationParameters.QUEEN_TABLE);
+        this.kingMidgameTable = params.getTable(EvaluationParameters.KING_MIDGAME_TABLE);
+    }
+
     @Override
     public int evaluate(Board board) {
         int score = 0;
@@ -94,20 +48,20 @@ public class PositionalEvaluator implements Evaluator {
         int blackScore = 0;
 
         // White pieces evaluation
-        whiteScore += evaluateBitboard(board.getWhitePawns(), PAWN_TABLE, false);
-        whiteScore += evaluateBitboard(board.getWhiteKnights(), KNIGHT_TABLE, false);
-        whiteScore += evaluateBitboard(board.getWhiteBishops(), BISHOP_TABLE, false);
-        whiteScore += evaluateBitboard(board.getWhiteRooks(), ROOK_TABLE, false);
-        whiteScore += evaluateBitboard(board.getWhiteQueens(), QUEEN_TABLE, false);
-        whiteScore += evaluateBitboard(board.getWhiteKing(), KING_MIDGAME_TABLE, false);
+        whiteScore += evaluateBitboard(board.getWhitePawns(), pawnTable, false);
+        whiteScore += evaluateBitboard(board.getWhiteKnights(), knightTable, false);
+        whiteScore += evaluateBitboard(board.getWhiteBishops(), bishopTable, false);
+        whiteScore += evaluateBitboard(board.getWhiteRooks(), rookTable, false);
+        whiteScore += evaluateBitboard(board.getWhiteQueens(), queenTable, false);
+        whiteScore += evaluateBitboard(board.getWhiteKing(), kingMidgameTable, false);
 
         // Black pieces evaluation (flip the table)
-        blackScore += evaluateBitboard(board.getBlackPawns(), PAWN_TABLE, true);
-        blackScore += evaluateBitboard(board.getBlackKnights(), KNIGHT_TABLE, true);
-        blackScore += evaluateBitboard(board.getBlackBishops(), BISHOP_TABLE, true);
-        blackScore += evaluateBitboard(board.getBlackRooks(), ROOK_TABLE, true);
-        blackScore += evaluateBitboard(board.getBlackQueens(), QUEEN_TABLE, true);
-        blackScore += evaluateBitboard(board.getBlackKing(), KING_MIDGAME_TABLE, true);
+        blackScore += evaluateBitboard(board.getBlackPawns(), pawnTable, true);
+        blackScore += evaluateBitboard(board.getBlackKnights(), knightTable, true);
+        blackScore += evaluateBitboard(board.getBlackBishops(), bishopTable, true);
+        blackScore += evaluateBitboard(board.getBlackRooks(), rookTable, true);
+        blackScore += evaluateBitboard(board.getBlackQueens(), queenTable, true);
+        blackScore += evaluateBitboard(board.getBlackKing(), kingMidgameTable, true);
 
         return (whiteScore - blackScore) * POSITIONAL_WEIGHT;
     }
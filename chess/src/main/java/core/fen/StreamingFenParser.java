@@ -0,0 +1,224 @@
+package core.fen;
+
+import core.board.Board;
+
+import java.nio.ByteBuffer;
+
+/**
+ * FEN parser for bulk loading. It reads straight from a {@link CharSequence} or a
+ * {@link ByteBuffer} slice (e.g. a memory-mapped EPD file) into an existing Board without
+ * creating strings or other garbage.
+ *
+ * The FEN may be followed by anything (EPD opcodes, a game result, the next line), the
+ * parser stops after the last FEN field it recognizes and returns that index. The halfmove
+ * clock and fullmove number are optional. Fields may also end with ';' or ','.
+ *
+ * The board is only changed when the whole FEN parses. Legality is not checked beyond
+ * one king per side; call {@link Board#isValid()} when the input is not trusted.
+ * An instance keeps a small scratch array and is not thread-safe, use one per thread.
+ */
+public class StreamingFenParser {
+    private final long[] pieces = new long[12];
+    private CharSequence text;
+    private ByteBuffer bytes;
+
+    /**
+     * Parse the FEN starting at {@code start} (leading whitespace allowed) and ending no later than {@code end}.
+     *
+     * @return Index just after the last FEN field, or -1 if the input is not a FEN
+     */
+    public int parse(CharSequence text, int start, int end, Board board) {
+        this.text = text;
+        this.bytes = null;
+        try {
+            return parse(start, end, board);
+        } finally {
+            this.text = null;
+        }
+    }
+
+    /**
+     * Parse an ASCII FEN between absolute buffer indices. The buffer position and limit are not changed.
+     *
+     * @return Index just after the last FEN field, or -1 if the input is not a FEN
+     */
+    public int parse(ByteBuffer buffer, int start, int end, Board board) {
+        this.bytes = buffer;
+        this.text = null;
+        try {
+            return parse(start, end, board);
+        } finally {
+            this.bytes = null;
+        }
+    }
+
+    private char charAt(int index) {
+        return bytes != null ? (char) (bytes.get(index) & 0xFF) : text.charAt(index);
+    }
+
+    private int parse(int start, int end, Board board) {
+        int i = skipSpaces(start, end);
+
+        // 1. Piece placement
+        for (int p = 0; p < pieces.length; p++) {
+            pieces[p] = 0L;
+        }
+        int rank = 7;
+        int file = 0;
+        for (; i < end; i++) {
+            char c = charAt(i);
+            if (c == ' ' || c == '\t') {
+                break;
+            }
+            if (c == '/') {
+                if (file != 8 || rank == 0) {
+                    return -1;
+                }
+                rank--;
+                file = 0;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+                if (file > 8) {
+                    return -1;
+                }
+            } else {
+                int piece = pieceIndex(c);
+                if (piece < 0 || file > 7) {
+                    return -1;
+                }
+                pieces[piece] |= 1L << (rank * 8 + file);
+                file++;
+            }
+        }
+        if (rank != 0 || file != 8) {
+            return -1;
+        }
+        if (Long.bitCount(pieces[Board.WHITE_KING]) != 1 || Long.bitCount(pieces[Board.BLACK_KING]) != 1) {
+            return -1;
+        }
+
+        // 2. Active color
+        i = skipSpaces(i, end);
+        if (i >= end) {
+            return -1;
+        }
+        char color = charAt(i++);
+        if ((color != 'w' && color != 'b') || !isFieldEnd(i, end)) {
+            return -1;
+        }
+
+        // 3. Castling availability
+        i = skipSpaces(i, end);
+        boolean whiteKingside = false, whiteQueenside = false, blackKingside = false, blackQueenside = false;
+        if (i < end && charAt(i) == '-') {
+            i++;
+        } else {
+            int fieldStart = i;
+            for (; i < end && !isFieldEnd(i, end); i++) {
+                switch (charAt(i)) {
+                    case 'K': whiteKingside = true; break;
+                    case 'Q': whiteQueenside = true; break;
+                    case 'k': blackKingside = true; break;
+                    case 'q': blackQueenside = true; break;
+                    default: return -1;
+                }
+            }
+            if (i == fieldStart) {
+                return -1;
+            }
+        }
+        if (!isFieldEnd(i, end)) {
+            return -1;
+        }
+
+        // 4. En passant target square
+        i = skipSpaces(i, end);
+        int enPassantSquare = -1;
+        if (i < end && charAt(i) == '-') {
+            i++;
+        } else if (i + 1 < end) {
+            char fileChar = charAt(i);
+            char rankChar = charAt(i + 1);
+            if (fileChar < 'a' || fileChar > 'h' || rankChar < '1' || rankChar > '8') {
+                return -1;
+            }
+            enPassantSquare = (rankChar - '1') * 8 + (fileChar - 'a');
+            i += 2;
+        } else {
+            return -1;
+        }
+        if (!isFieldEnd(i, end)) {
+            return -1;
+        }
+        int fenEnd = i;
+
+        // 5. and 6. Halfmove clock and fullmove number, only if they are there
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+        i = skipSpaces(i, end);
+        if (i < end && isDigit(charAt(i))) {
+            for (; i < end && isDigit(charAt(i)); i++) {
+                halfmoveClock = halfmoveClock * 10 + (charAt(i) - '0');
+            }
+            fenEnd = i;
+
+            i = skipSpaces(i, end);
+            if (i < end && isDigit(charAt(i))) {
+                fullmoveNumber = 0;
+                for (; i < end && isDigit(charAt(i)); i++) {
+                    fullmoveNumber = fullmoveNumber * 10 + (charAt(i) - '0');
+                }
+                fenEnd = i;
+            }
+        }
+
+        board.clear();
+        board.setPieceBitboards(pieces, 0);
+        board.setWhiteToMove(color == 'w');
+        board.setCastleWhiteKingside(whiteKingside);
+        board.setCastleWhiteQueenside(whiteQueenside);
+        board.setCastleBlackKingside(blackKingside);
+        board.setCastleBlackQueenside(blackQueenside);
+        board.setEnPassantSquare(enPassantSquare);
+        board.setHalfmoveClock(halfmoveClock);
+        board.setFullmoveNumber(fullmoveNumber);
+        return fenEnd;
+    }
+
+    private int skipSpaces(int i, int end) {
+        while (i < end && (charAt(i) == ' ' || charAt(i) == '\t')) {
+            i++;
+        }
+        return i;
+    }
+
+    private boolean isFieldEnd(int i, int end) {
+        if (i >= end) {
+            return true;
+        }
+        char c = charAt(i);
+        return c == ' ' || c == '\t' || c == ';' || c == ',' || c == '\r' || c == '\n';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int pieceIndex(char c) {
+        switch (c) {
+            case 'P': return Board.WHITE_PAWN;
+            case 'N': return Board.WHITE_KNIGHT;
+            case 'B': return Board.WHITE_BISHOP;
+            case 'R': return Board.WHITE_ROOK;
+            case 'Q': return Board.WHITE_QUEEN;
+            case 'K': return Board.WHITE_KING;
+            case 'p': return Board.BLACK_PAWN;
+            case 'n': return Board.BLACK_KNIGHT;
+            case 'b': return Board.BLACK_BISHOP;
+            case 'r': return Board.BLACK_ROOK;
+            case 'q': return Board.BLACK_QUEEN;
+            case 'k': return Board.BLACK_KING;
+            default: return -1;
+        }
+    }
+}
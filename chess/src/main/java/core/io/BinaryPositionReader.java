@@ -0,0 +1,108 @@
+package core.io;
+
+import core.board.Board;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Random access and sequential reading of a binary position file written by
+ * {@link BinaryPositionWriter}.
+ *
+ * The file is a 32 byte header (magic "CBPF", version, record size) followed by fixed-width
+ * {@link PositionCodec} records. It is memory-mapped in 1 GB segments, so files with billions
+ * of positions can be read without copying them onto the heap; positions are decoded
+ * straight from the mapping into a caller-supplied Board.
+ * Not thread-safe; open one reader per thread (the mappings are shared by the OS).
+ */
+public class BinaryPositionReader implements AutoCloseable {
+    // Records per mapped segment, keeps each segment under the 2 GB MappedByteBuffer limit
+    private static final int SEGMENT_RECORDS = 1 << 25;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long size;
+    private final PositionCodec codec = new PositionCodec();
+    private long cursor;
+
+    public BinaryPositionReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            if (fileSize < BinaryPositionWriter.HEADER_SIZE) {
+                throw new IOException("Not a binary position file: " + file);
+            }
+
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, BinaryPositionWriter.HEADER_SIZE)
+                    .order(PositionCodec.BYTE_ORDER);
+            if (header.getInt(0) != BinaryPositionWriter.MAGIC) {
+                throw new IOException("Not a binary position file: " + file);
+            }
+            if (header.getInt(4) != BinaryPositionWriter.VERSION || header.getInt(8) != PositionCodec.RECORD_SIZE) {
+                throw new IOException("Unsupported binary position file version in " + file);
+            }
+
+            this.size = (fileSize - BinaryPositionWriter.HEADER_SIZE) / PositionCodec.RECORD_SIZE;
+            int segmentCount = (int) ((size + SEGMENT_RECORDS - 1) / SEGMENT_RECORDS);
+            this.segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long first = (long) i * SEGMENT_RECORDS;
+                long records = Math.min(SEGMENT_RECORDS, size - first);
+                long position = BinaryPositionWriter.HEADER_SIZE + first * PositionCodec.RECORD_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, records * PositionCodec.RECORD_SIZE);
+                segments[i].order(PositionCodec.BYTE_ORDER);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Number of positions in the file
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Load position {@code index} into the board.
+     */
+    public void read(long index, Board board) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int segment = (int) (index / SEGMENT_RECORDS);
+        int offset = (int) (index % SEGMENT_RECORDS) * PositionCodec.RECORD_SIZE;
+        codec.decode(segments[segment], offset, board);
+    }
+
+    /**
+     * Load the next position of a sequential scan into the board.
+     *
+     * @return False when the end of the file is reached
+     */
+    public boolean next(Board board) {
+        if (cursor >= size) {
+            return false;
+        }
+        read(cursor++, board);
+        return true;
+    }
+
+    /**
+     * Move the sequential scan to the given position index.
+     */
+    public void seek(long index) {
+        this.cursor = Math.max(0, Math.min(index, size));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
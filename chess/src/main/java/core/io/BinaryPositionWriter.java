@@ -0,0 +1,111 @@
+package core.io;
+
+import core.board.Board;
+import core.fen.StreamingFenParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes positions in the {@link PositionCodec} format, see {@link BinaryPositionReader}
+ * for the file layout. Records are buffered and written in large blocks.
+ */
+public class BinaryPositionWriter implements AutoCloseable {
+    static final int MAGIC = 0x43425046; // "CBPF"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = PositionCodec.RECORD_SIZE;
+
+    private static final int BUFFER_RECORDS = 1 << 15;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final PositionCodec codec = new PositionCodec();
+    private long count;
+
+    public BinaryPositionWriter(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * PositionCodec.RECORD_SIZE)
+                .order(PositionCodec.BYTE_ORDER);
+
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(PositionCodec.RECORD_SIZE);
+        buffer.position(HEADER_SIZE);
+    }
+
+    public void write(Board board) throws IOException {
+        if (buffer.remaining() < PositionCodec.RECORD_SIZE) {
+            flush();
+        }
+        int offset = buffer.position();
+        codec.encode(board, buffer, offset);
+        buffer.position(offset + PositionCodec.RECORD_SIZE);
+        count++;
+    }
+
+    /**
+     * Number of positions written so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Convert a FEN/EPD file (one position per line) to the binary format.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java core.io.BinaryPositionWriter <input.epd> <output.bin>");
+            System.exit(1);
+        }
+
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        StreamingFenParser parser = new StreamingFenParser();
+        Board board = new Board();
+        long skipped = 0;
+        long start = System.currentTimeMillis();
+
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             BinaryPositionWriter writer = new BinaryPositionWriter(output)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                if (parser.parse(line, 0, line.length(), board) < 0) {
+                    skipped++;
+                    continue;
+                }
+                writer.write(board);
+            }
+            System.out.println("Wrote " + writer.getCount() + " positions to " + output + " in " +
+                    (System.currentTimeMillis() - start) + " ms (" + skipped + " lines skipped)");
+        }
+    }
+}
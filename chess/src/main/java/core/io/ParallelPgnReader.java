@@ -0,0 +1,185 @@
+package core.io;
+
+import core.board.Board;
+import core.board.Move;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Replays a PGN file on several threads. The file is cut into byte ranges that start at a
+ * game boundary (a line beginning with "[Event "), and each range is read by its own
+ * {@link PgnReader} and {@link PgnPositionIterator} on its own Board.
+ */
+public class ParallelPgnReader {
+    // More chunks than threads so a chunk full of long games does not hold up the others
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final byte[] GAME_START = "\n[Event ".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Receives the positions of one chunk, see {@link PgnPositionIterator}
+     */
+    public interface PositionVisitor {
+        void visit(PgnGame game, Board board, Move move, int ply);
+    }
+
+    /**
+     * Visit every position of every game in the file.
+     *
+     * @param visitors Creates one visitor per chunk; visitors of different chunks run concurrently
+     * @return Number of positions visited
+     */
+    public static long forEachPosition(Path file, int threads, Supplier<? extends PositionVisitor> visitors) throws IOException {
+        return forEachPosition(file, threads, Integer.MAX_VALUE, visitors);
+    }
+
+    /**
+     * Visit the positions of the first maxPly moves of every game; the rest of each game is
+     * not replayed.
+     */
+    public static long forEachPosition(Path file, int threads, int maxPly, Supplier<? extends PositionVisitor> visitors) throws IOException {
+        long[] boundaries;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            boundaries = findChunkBoundaries(channel, Math.max(1, threads) * CHUNKS_PER_THREAD);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i + 1 < boundaries.length; i++) {
+                final long start = boundaries[i];
+                final long end = boundaries[i + 1];
+                if (start < end) {
+                    futures.add(executor.submit(() -> processChunk(file, start, end, maxPly, visitors.get())));
+                }
+            }
+
+            long positions = 0;
+            for (Future<Long> future : futures) {
+                positions += future.get();
+            }
+            return positions;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading " + file, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error reading " + file, e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static long processChunk(Path file, long start, long end, int maxPly, PositionVisitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(start);
+            InputStream input = new RangeInputStream(Channels.newInputStream(channel), end - start);
+            PgnReader reader = new PgnReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            PgnPositionIterator positions = new PgnPositionIterator(reader, new Board());
+            positions.setMaxPly(maxPly);
+
+            long count = 0;
+            while (positions.next()) {
+                visitor.visit(positions.getGame(), positions.getBoard(), positions.getMove(), positions.getPly());
+                count++;
+            }
+            if (positions.getBrokenGames() > 0) {
+                System.out.println("Skipped the rest of " + positions.getBrokenGames() + " games with illegal moves in " + file);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Offsets that split the file into roughly equal chunks, each moved forward to the next game start.
+     */
+    private static long[] findChunkBoundaries(FileChannel channel, int chunks) throws IOException {
+        long size = channel.size();
+        long[] boundaries = new long[chunks + 1];
+        for (int i = 1; i < chunks; i++) {
+            boundaries[i] = Math.max(boundaries[i - 1], findGameStart(channel, size * i / chunks));
+        }
+        boundaries[chunks] = size;
+        return boundaries;
+    }
+
+    private static long findGameStart(FileChannel channel, long from) throws IOException {
+        long size = channel.size();
+        ByteBuffer block = ByteBuffer.allocate(1 << 16);
+        // Start one byte early so a game beginning exactly at 'from' is found
+        long position = Math.max(0, from - 1);
+        int matched = 0;
+
+        while (position < size) {
+            block.clear();
+            int read = channel.read(block, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = block.get(i);
+                if (b == GAME_START[matched]) {
+                    matched++;
+                    if (matched == GAME_START.length) {
+                        // Offset of the '[' after the newline
+                        return position + i - GAME_START.length + 2;
+                    }
+                } else {
+                    matched = b == GAME_START[0] ? 1 : 0;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Limits a stream to the bytes of one chunk.
+     */
+    private static class RangeInputStream extends InputStream {
+        private final InputStream input;
+        private long remaining;
+
+        RangeInputStream(InputStream input, long length) {
+            this.input = input;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = input.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = input.read(bytes, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package core.io;
+
+import core.board.Board;
+import core.fen.StreamingFenParser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One game read by {@link PgnReader}: its tags, the main line in SAN and the result.
+ * Comments, variations and annotations are not kept.
+ */
+public class PgnGame {
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    private final List<String> moves = new ArrayList<>();
+    private String result = "*";
+
+    public String getTag(String name) {
+        return tags.get(name);
+    }
+    public Map<String, String> getTags() {
+        return Collections.unmodifiableMap(tags);
+    }
+    /**
+     * Main line moves in standard algebraic notation, without move numbers
+     */
+    public List<String> getMoves() {
+        return Collections.unmodifiableList(moves);
+    }
+    /**
+     * "1-0", "0-1", "1/2-1/2" or "*"
+     */
+    public String getResult() {
+        return result;
+    }
+    /**
+     * Result from white's point of view (1 = win, 0.5 = draw, 0 = loss), NaN if unknown
+     */
+    public float getResultValue() {
+        switch (result) {
+            case "1-0": return 1.0f;
+            case "0-1": return 0.0f;
+            case "1/2-1/2": return 0.5f;
+            default: return Float.NaN;
+        }
+    }
+
+    /**
+     * Load the starting position of the game into the board: the FEN tag if there is one,
+     * otherwise the standard initial position. The board's move history is cleared.
+     *
+     * @return False if the FEN tag cannot be parsed
+     */
+    public boolean setUpPosition(Board board, StreamingFenParser fenParser) {
+        board.clearMoveHistory();
+        String fen = tags.get("FEN");
+        if (fen == null) {
+            board.setInitialPosition();
+            return true;
+        }
+        return fenParser.parse(fen, 0, fen.length(), board) >= 0;
+    }
+
+    void addTag(String name, String value) {
+        tags.put(name, value);
+    }
+    void addMove(String san) {
+        moves.add(san);
+    }
+    void setResult(String result) {
+        this.result = result;
+    }
+}
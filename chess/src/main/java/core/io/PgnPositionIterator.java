@@ -0,0 +1,111 @@
+package core.io;
+
+import core.board.Board;
+import core.board.Move;
+import core.board.MoveGenerator;
+import core.board.MoveList;
+import core.fen.StreamingFenParser;
+import core.util.SanParser;
+
+import java.io.IOException;
+
+/**
+ * Replays every game of a {@link PgnReader} on a single reused Board.
+ *
+ * Each call to {@link #next()} stops on a position where a game move is about to be played:
+ * the board holds the position before the move and {@link #getMove()} returns the move.
+ * SAN moves are resolved against the legal moves of the position. A game with a move that
+ * does not resolve is abandoned at that point and counted in {@link #getBrokenGames()}.
+ */
+public class PgnPositionIterator {
+    private final PgnReader reader;
+    private final Board board;
+    private final MoveGenerator moveGenerator = new MoveGenerator();
+    private final MoveList legalMoves = new MoveList(256);
+    private final StreamingFenParser fenParser = new StreamingFenParser();
+
+    private int maxPly = Integer.MAX_VALUE;
+    private PgnGame game;
+    private Move move;
+    private int ply;
+    private long games;
+    private long brokenGames;
+
+    public PgnPositionIterator(PgnReader reader, Board board) {
+        this.reader = reader;
+        this.board = board;
+    }
+
+    /**
+     * Stop replaying each game after this many moves; the rest of the game is skipped.
+     */
+    public void setMaxPly(int maxPly) {
+        this.maxPly = maxPly;
+    }
+
+    /**
+     * Play the current move and advance to the next position, reading new games as needed.
+     *
+     * @return False when the input has no more games
+     */
+    public boolean next() throws IOException {
+        if (move != null) {
+            board.makeSearchMove(move);
+            move = null;
+            ply++;
+        }
+
+        while (true) {
+            if (game != null && ply < game.getMoves().size() && ply < maxPly) {
+                moveGenerator.generateLegalMoves(board, legalMoves);
+                move = SanParser.parse(board, legalMoves, game.getMoves().get(ply));
+                if (move != null) {
+                    return true;
+                }
+                brokenGames++;
+            }
+
+            game = reader.nextGame();
+            if (game == null) {
+                return false;
+            }
+            games++;
+            ply = 0;
+            if (!game.setUpPosition(board, fenParser)) {
+                brokenGames++;
+                game = null;
+            }
+        }
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+    /**
+     * The move played from the current position
+     */
+    public Move getMove() {
+        return move;
+    }
+    /**
+     * Number of moves played in the current game before this position
+     */
+    public int getPly() {
+        return ply;
+    }
+    public PgnGame getGame() {
+        return game;
+    }
+    /**
+     * Number of games read so far
+     */
+    public long getGames() {
+        return games;
+    }
+    /**
+     * Games with an unparsable FEN tag or a move that is not legal in its position
+     */
+    public long getBrokenGames() {
+        return brokenGames;
+    }
+}
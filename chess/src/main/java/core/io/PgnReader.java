@@ -0,0 +1,204 @@
+package core.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Streaming PGN parser. Games are read one at a time from the underlying reader, so files
+ * of any size can be processed with constant memory.
+ *
+ * Only the main line is kept: comments ({...} and ;...), recursive variations, numeric
+ * annotation glyphs and move numbers are skipped. A game ends at its result token or, if
+ * that is missing, at the next tag section.
+ */
+public class PgnReader implements AutoCloseable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int bufferPosition;
+    private int bufferLength;
+    private boolean atLineStart = true;
+    private final StringBuilder token = new StringBuilder();
+
+    public PgnReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    public static PgnReader open(Path file) throws IOException {
+        return new PgnReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Read the next game.
+     *
+     * @return The game, or null at the end of the input
+     */
+    public PgnGame nextGame() throws IOException {
+        PgnGame game = new PgnGame();
+        boolean hasContent = false;
+        boolean inMovetext = false;
+
+        while (true) {
+            int c = peek();
+            if (c < 0) {
+                return hasContent ? game : null;
+            }
+
+            if (c == '[' && atLineStart) {
+                if (inMovetext) {
+                    return game; // Next game starts, this one had no result
+                }
+                read();
+                readTag(game);
+                hasContent = true;
+            } else if (c == '%' && atLineStart) {
+                skipLine(); // Escape mechanism
+            } else if (Character.isWhitespace(c)) {
+                read();
+            } else if (c == '{') {
+                skipUntil('}');
+            } else if (c == ';') {
+                skipLine();
+            } else if (c == '(') {
+                skipVariation();
+            } else if (c == ')') {
+                read(); // Unbalanced, ignore
+            } else {
+                readToken();
+                inMovetext = true;
+                hasContent = true;
+                if (addToken(game)) {
+                    return game;
+                }
+            }
+        }
+    }
+
+    /**
+     * Interpret the last token read.
+     *
+     * @return True if it was the game result
+     */
+    private boolean addToken(PgnGame game) {
+        String text = token.toString();
+        if (text.equals("1-0") || text.equals("0-1") || text.equals("1/2-1/2") || text.equals("*")) {
+            game.setResult(text);
+            return true;
+        }
+        if (text.charAt(0) == '$') {
+            return false; // Numeric annotation glyph
+        }
+
+        // Move numbers, possibly glued to the move ("12.e4", "12...Nf6")
+        int start = 0;
+        while (start < text.length() && Character.isDigit(text.charAt(start))) {
+            start++;
+        }
+        if (start > 0 && start < text.length() && text.charAt(start) != '.') {
+            start = 0; // Not a move number
+        }
+        while (start < text.length() && text.charAt(start) == '.') {
+            start++;
+        }
+        if (start < text.length()) {
+            game.addMove(start == 0 ? text : text.substring(start));
+        }
+        return false;
+    }
+
+    private void readTag(PgnGame game) throws IOException {
+        StringBuilder name = new StringBuilder();
+        int c;
+        while ((c = read()) >= 0 && c != '"' && c != ']') {
+            if (!Character.isWhitespace(c)) {
+                name.append((char) c);
+            }
+        }
+        StringBuilder value = new StringBuilder();
+        if (c == '"') {
+            while ((c = read()) >= 0 && c != '"') {
+                if (c == '\\') {
+                    c = read();
+                    if (c < 0) {
+                        break;
+                    }
+                }
+                value.append((char) c);
+            }
+            while (c >= 0 && c != ']' && c != '\n') {
+                c = read();
+            }
+        }
+        if (name.length() > 0) {
+            game.addTag(name.toString(), value.toString());
+        }
+    }
+
+    private void readToken() throws IOException {
+        token.setLength(0);
+        int c;
+        while ((c = peek()) >= 0 && !Character.isWhitespace(c) &&
+                c != '{' && c != '(' && c != ')' && c != ';' && c != '[') {
+            token.append((char) read());
+        }
+    }
+
+    private void skipVariation() throws IOException {
+        int depth = 0;
+        int c;
+        while ((c = read()) >= 0) {
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                if (--depth == 0) {
+                    return;
+                }
+            } else if (c == '{') {
+                skipUntil('}');
+            } else if (c == ';') {
+                skipLine();
+            }
+        }
+    }
+
+    private void skipUntil(char end) throws IOException {
+        int c;
+        while ((c = read()) >= 0 && c != end) {
+            // Skip
+        }
+    }
+
+    private void skipLine() throws IOException {
+        skipUntil('\n');
+    }
+
+    private int peek() throws IOException {
+        if (bufferPosition >= bufferLength) {
+            bufferLength = reader.read(buffer, 0, buffer.length);
+            bufferPosition = 0;
+            if (bufferLength <= 0) {
+                bufferLength = 0;
+                return -1;
+            }
+        }
+        return buffer[bufferPosition];
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c >= 0) {
+            bufferPosition++;
+            atLineStart = c == '\n';
+        }
+        return c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,130 @@
+package core.io;
+
+import core.board.Board;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Fixed-width 32 byte binary encoding of a position.
+ *
+ * Layout (little-endian):
+ * <pre>
+ *  0..7   occupancy bitboard
+ *  8..23  piece of every occupied square, in occupancy bit order, one nibble each
+ *         (low nibble first, values Board.WHITE_PAWN..BLACK_KING)
+ *  24     state: bit 0 white to move, bits 1-4 castling rights K, Q, k, q
+ *  25     en passant square, 0xFF if none
+ *  26     halfmove clock (capped at 255)
+ *  27..28 fullmove number (unsigned)
+ *  29..31 reserved, zero
+ * </pre>
+ * Positions with more than 32 pieces cannot be encoded.
+ * An instance keeps a small scratch array and is not thread-safe, use one per thread.
+ */
+public class PositionCodec {
+    public static final int RECORD_SIZE = 32;
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private static final int PIECES_OFFSET = 8;
+    private static final int STATE_OFFSET = 24;
+    private static final int EN_PASSANT_OFFSET = 25;
+    private static final int HALFMOVE_OFFSET = 26;
+    private static final int FULLMOVE_OFFSET = 27;
+    private static final int MAX_PIECES = 32;
+
+    private static final int WHITE_TO_MOVE = 1;
+    private static final int CASTLE_WHITE_KINGSIDE = 1 << 1;
+    private static final int CASTLE_WHITE_QUEENSIDE = 1 << 2;
+    private static final int CASTLE_BLACK_KINGSIDE = 1 << 3;
+    private static final int CASTLE_BLACK_QUEENSIDE = 1 << 4;
+    private static final int NO_EN_PASSANT = 0xFF;
+
+    private final long[] pieces = new long[12];
+
+    /**
+     * Write the position at the absolute offset. The buffer must use {@link #BYTE_ORDER}.
+     */
+    public void encode(Board board, ByteBuffer buffer, int offset) {
+        board.getPieceBitboards(pieces, 0);
+        long occupancy = board.getAllPieces();
+        if (Long.bitCount(occupancy) > MAX_PIECES) {
+            throw new IllegalArgumentException("Cannot encode a position with more than " + MAX_PIECES + " pieces");
+        }
+
+        buffer.putLong(offset, occupancy);
+
+        // Two nibbles per byte, zero padded
+        long low = 0L;
+        long high = 0L;
+        int index = 0;
+        for (long remaining = occupancy; remaining != 0; remaining &= remaining - 1, index++) {
+            long squareBB = remaining & -remaining;
+            long piece = pieceAt(squareBB);
+            if (index < 16) {
+                low |= piece << (index * 4);
+            } else {
+                high |= piece << ((index - 16) * 4);
+            }
+        }
+        buffer.putLong(offset + PIECES_OFFSET, low);
+        buffer.putLong(offset + PIECES_OFFSET + 8, high);
+
+        int state = 0;
+        if (board.isWhiteToMove()) state |= WHITE_TO_MOVE;
+        if (board.canCastleWhiteKingside()) state |= CASTLE_WHITE_KINGSIDE;
+        if (board.canCastleWhiteQueenside()) state |= CASTLE_WHITE_QUEENSIDE;
+        if (board.canCastleBlackKingside()) state |= CASTLE_BLACK_KINGSIDE;
+        if (board.canCastleBlackQueenside()) state |= CASTLE_BLACK_QUEENSIDE;
+        buffer.put(offset + STATE_OFFSET, (byte) state);
+
+        int enPassantSquare = board.getEnPassantSquare();
+        buffer.put(offset + EN_PASSANT_OFFSET, (byte) (enPassantSquare < 0 ? NO_EN_PASSANT : enPassantSquare));
+        buffer.put(offset + HALFMOVE_OFFSET, (byte) Math.min(255, board.getHalfmoveClock()));
+        buffer.putShort(offset + FULLMOVE_OFFSET, (short) Math.min(0xFFFF, board.getFullmoveNumber()));
+        buffer.put(offset + FULLMOVE_OFFSET + 2, (byte) 0);
+        buffer.putShort(offset + FULLMOVE_OFFSET + 3, (short) 0);
+    }
+
+    /**
+     * Load the position at the absolute offset into the board. The buffer must use {@link #BYTE_ORDER}.
+     */
+    public void decode(ByteBuffer buffer, int offset, Board board) {
+        for (int p = 0; p < pieces.length; p++) {
+            pieces[p] = 0L;
+        }
+
+        long occupancy = buffer.getLong(offset);
+        long low = buffer.getLong(offset + PIECES_OFFSET);
+        long high = buffer.getLong(offset + PIECES_OFFSET + 8);
+        int index = 0;
+        for (long remaining = occupancy; remaining != 0; remaining &= remaining - 1, index++) {
+            long nibbles = index < 16 ? low : high;
+            int piece = (int) (nibbles >>> ((index & 15) * 4)) & 0xF;
+            pieces[piece] |= remaining & -remaining;
+        }
+
+        int state = buffer.get(offset + STATE_OFFSET);
+        int enPassantSquare = buffer.get(offset + EN_PASSANT_OFFSET) & 0xFF;
+
+        board.clear();
+        board.setPieceBitboards(pieces, 0);
+        board.setWhiteToMove((state & WHITE_TO_MOVE) != 0);
+        board.setCastleWhiteKingside((state & CASTLE_WHITE_KINGSIDE) != 0);
+        board.setCastleWhiteQueenside((state & CASTLE_WHITE_QUEENSIDE) != 0);
+        board.setCastleBlackKingside((state & CASTLE_BLACK_KINGSIDE) != 0);
+        board.setCastleBlackQueenside((state & CASTLE_BLACK_QUEENSIDE) != 0);
+        board.setEnPassantSquare(enPassantSquare == NO_EN_PASSANT ? -1 : enPassantSquare);
+        board.setHalfmoveClock(buffer.get(offset + HALFMOVE_OFFSET) & 0xFF);
+        board.setFullmoveNumber(buffer.getShort(offset + FULLMOVE_OFFSET) & 0xFFFF);
+    }
+
+    private long pieceAt(long squareBB) {
+        for (int piece = 0; piece < pieces.length; piece++) {
+            if ((pieces[piece] & squareBB) != 0) {
+                return piece;
+            }
+        }
+        throw new IllegalStateException("Occupied square without a piece");
+    }
+}
@@ -0,0 +1,86 @@
+package core.match;
+
+import core.board.MoveGenerator;
+import core.engine.Minimax;
+import core.eval.CombinedEvaluator;
+import core.eval.EvaluationParameters;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * One side of a match: a name, the evaluation weights and the search options.
+ */
+public class EngineConfig {
+    private final String name;
+    private final EvaluationParameters parameters;
+    private final boolean nullMovePruning;
+    private final int hashSizeMb;
+
+    public EngineConfig(String name, EvaluationParameters parameters, boolean nullMovePruning, int hashSizeMb) {
+        this.name = name;
+        this.parameters = parameters;
+        this.nullMovePruning = nullMovePruning;
+        this.hashSizeMb = hashSizeMb;
+    }
+
+    /**
+     * Parse a comma separated list of options, e.g. "name=tuned,eval=tuned.properties,nullmove=false,hash=32".
+     * Evaluation weights are read with {@link EvaluationParameters#load}; options left out keep the
+     * engine's defaults (active weights, null move pruning on, 16 MB hash).
+     *
+     * @return The configuration, or null if the spec is invalid (the reason is printed)
+     */
+    public static EngineConfig parse(String spec, String defaultName) {
+        String name = defaultName;
+        EvaluationParameters parameters = EvaluationParameters.getActive();
+        boolean nullMovePruning = true;
+        int hashSizeMb = 16;
+
+        for (String option : spec.split(",")) {
+            if (option.isBlank()) {
+                continue;
+            }
+            int separator = option.indexOf('=');
+            if (separator < 0) {
+                System.err.println("Engine option without value: " + option);
+                return null;
+            }
+            String key = option.substring(0, separator).trim();
+            String value = option.substring(separator + 1).trim();
+            try {
+                switch (key) {
+                    case "name": name = value; break;
+                    case "eval": parameters = EvaluationParameters.load(Paths.get(value)); break;
+                    case "nullmove": nullMovePruning = Boolean.parseBoolean(value); break;
+                    case "hash": hashSizeMb = Integer.parseInt(value); break;
+                    default:
+                        System.err.println("Unknown engine option: " + key);
+                        return null;
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Invalid engine option " + option + ": " + e.getMessage());
+                return null;
+            }
+        }
+        return new EngineConfig(name, parameters, nullMovePruning, hashSizeMb);
+    }
+
+    /**
+     * A new search instance with this configuration; instances are not thread-safe, so every
+     * game needs its own.
+     */
+    public Minimax createSearch() {
+        Minimax minimax = new Minimax(new CombinedEvaluator(), new MoveGenerator(), parameters);
+        minimax.setNullMovePruning(nullMovePruning);
+        minimax.setHashSize(hashSizeMb);
+        return minimax;
+    }
+
+    public String getName() {
+        return name;
+    }
+    public EvaluationParameters getParameters() {
+        return parameters;
+    }
+}
@@ -0,0 +1,154 @@
+package core.match;
+
+import core.board.Board;
+import core.board.Move;
+import core.board.MoveList;
+import core.engine.CancellationToken;
+import core.engine.Minimax;
+import core.engine.SearchResult;
+import core.fen.FenConstants;
+import core.fen.FenParser;
+import core.util.MoveNotation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One game between two engine configurations from an opening position, with a clock for
+ * each side. Each game creates its own search instances, so games share no state and can
+ * be played on several threads at once.
+ */
+class MatchGame {
+    // Deep enough that only the clock ends a search
+    private static final int MAX_DEPTH = 64;
+    // Games still going after this many plies are drawn
+    private static final int MAX_PLIES = 600;
+
+    private final EngineConfig white;
+    private final EngineConfig black;
+    private final String openingFen;
+    private final TimeControl timeControl;
+    private final CancellationToken stopToken;
+
+    private final List<String> moves = new ArrayList<>();
+    private int startFullmoveNumber;
+    private boolean startWhiteToMove;
+    private String result;
+    private String termination;
+
+    MatchGame(EngineConfig white, EngineConfig black, String openingFen, TimeControl timeControl,
+              CancellationToken stopToken) {
+        this.white = white;
+        this.black = black;
+        this.openingFen = openingFen;
+        this.timeControl = timeControl;
+        this.stopToken = stopToken;
+    }
+
+    /**
+     * Play the game until it is decided on the board, a side runs out of time, or the move
+     * limit is reached.
+     *
+     * @return False if the match was stopped before the game ended
+     */
+    boolean play() {
+        Board board = new Board();
+        FenParser.parseFen(openingFen, board);
+        startFullmoveNumber = board.getFullmoveNumber();
+        startWhiteToMove = board.isWhiteToMove();
+
+        Minimax[] engines = {white.createSearch(), black.createSearch()};
+        long[] clocks = {timeControl.getBaseMillis(), timeControl.getBaseMillis()};
+        MoveList legalMoves = new MoveList(256);
+
+        for (int ply = 0; ; ply++) {
+            if (board.isCheckmate()) {
+                finish(board.isWhiteToMove() ? "0-1" : "1-0", "checkmate");
+                return true;
+            }
+            if (board.isDraw()) {
+                finish("1/2-1/2", board.isStalemate() ? "stalemate" : "repetition or insufficient material");
+                return true;
+            }
+            if (board.getHalfmoveClock() >= 100) {
+                finish("1/2-1/2", "50-move rule");
+                return true;
+            }
+            if (ply >= MAX_PLIES) {
+                finish("1/2-1/2", "move limit");
+                return true;
+            }
+
+            int side = board.isWhiteToMove() ? 0 : 1;
+            long start = System.currentTimeMillis();
+            SearchResult searchResult = engines[side].findBestMove(board, MAX_DEPTH, 0,
+                    timeControl.timeForMove(clocks[side]), stopToken);
+            if (stopToken.isCancelled()) {
+                return false;
+            }
+            clocks[side] -= System.currentTimeMillis() - start;
+            if (clocks[side] < 0) {
+                finish(side == 0 ? "0-1" : "1-0", "time forfeit");
+                return true;
+            }
+            clocks[side] += timeControl.getIncrementMillis();
+
+            Move move = searchResult.getBestMove();
+            legalMoves.clear();
+            board.generateLegalMoves(legalMoves);
+            moves.add(MoveNotation.toAlgebraic(board, legalMoves, move));
+            board.makeMove(move);
+        }
+    }
+
+    private void finish(String result, String termination) {
+        this.result = result;
+        this.termination = termination;
+    }
+
+    /**
+     * "1-0", "0-1" or "1/2-1/2"
+     */
+    String getResult() {
+        return result;
+    }
+
+    String getTermination() {
+        return termination;
+    }
+
+    /**
+     * The game in PGN, with the opening as the FEN tag unless it is the initial position
+     */
+    String toPgn(String event, int round) {
+        StringBuilder pgn = new StringBuilder();
+        pgn.append("[Event \"").append(event).append("\"]\n");
+        pgn.append("[Round \"").append(round).append("\"]\n");
+        pgn.append("[White \"").append(white.getName()).append("\"]\n");
+        pgn.append("[Black \"").append(black.getName()).append("\"]\n");
+        pgn.append("[Result \"").append(result).append("\"]\n");
+        pgn.append("[TimeControl \"").append(timeControl).append("\"]\n");
+        pgn.append("[Termination \"").append(termination).append("\"]\n");
+        if (!openingFen.equals(FenConstants.STARTING_POSITION)) {
+            pgn.append("[SetUp \"1\"]\n");
+            pgn.append("[FEN \"").append(openingFen).append("\"]\n");
+        }
+        pgn.append('\n');
+
+        int moveNumber = startFullmoveNumber;
+        boolean whiteToMove = startWhiteToMove;
+        for (int i = 0; i < moves.size(); i++) {
+            if (whiteToMove) {
+                pgn.append(moveNumber).append(". ");
+            } else if (i == 0) {
+                pgn.append(moveNumber).append("... ");
+            }
+            pgn.append(moves.get(i)).append(' ');
+            if (!whiteToMove) {
+                moveNumber++;
+            }
+            whiteToMove = !whiteToMove;
+        }
+        return pgn.append(result).append("\n\n").toString();
+    }
+}
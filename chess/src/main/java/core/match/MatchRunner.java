@@ -0,0 +1,230 @@
+package core.match;
+
+import core.board.Board;
+import core.engine.CancellationToken;
+import core.eval.EndgameEvaluator;
+import core.fen.FenParser;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays two engine configurations against each other to find out whether a change is an
+ * improvement. Games start from the positions of an opening suite, each opening is played
+ * twice with colours reversed, and several games run at once on a thread pool. After every
+ * game a sequential probability ratio test decides whether to stop: the match ends as soon
+ * as the results are strong enough to accept or reject the Elo gain being tested, or when
+ * the game limit is reached.
+ *
+ * Results and Elo are given from the point of view of the first engine.
+ */
+public class MatchRunner {
+    private final EngineConfig engine1;
+    private final EngineConfig engine2;
+    private final List<String> openings;
+    private final TimeControl timeControl;
+    private final Sprt sprt;
+    private final int maxGames;
+    private final int concurrency;
+
+    // Stops the running games once the test has decided
+    private final CancellationToken stopToken = new CancellationToken();
+
+    // Results of engine1, guarded by this
+    private int wins;
+    private int draws;
+    private int losses;
+    private Sprt.Decision decision = Sprt.Decision.CONTINUE;
+    private Writer pgnWriter;
+
+    public MatchRunner(EngineConfig engine1, EngineConfig engine2, List<String> openings, TimeControl timeControl,
+                       Sprt sprt, int maxGames, int concurrency) {
+        this.engine1 = engine1;
+        this.engine2 = engine2;
+        this.openings = openings;
+        this.timeControl = timeControl;
+        this.sprt = sprt;
+        this.maxGames = maxGames;
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    /**
+     * Play the match, writing every finished game to the PGN file if one is given.
+     *
+     * @return The decision of the test, CONTINUE if the game limit was reached first
+     */
+    public Sprt.Decision run(Path pgnFile) throws IOException, InterruptedException {
+        EndgameEvaluator.loadBitbases(); // Before the games start, not inside the first searches
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try (Writer writer = pgnFile != null ? Files.newBufferedWriter(pgnFile, StandardCharsets.UTF_8) : null) {
+            pgnWriter = writer;
+            for (int game = 0; game < maxGames; game++) {
+                int index = game;
+                executor.execute(() -> playGame(index));
+            }
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        } finally {
+            executor.shutdownNow();
+        }
+        printSummary();
+        return decision;
+    }
+
+    private void playGame(int index) {
+        if (stopToken.isCancelled()) {
+            return;
+        }
+        // Consecutive games share an opening with colours reversed
+        String opening = openings.get((index / 2) % openings.size());
+        boolean engine1White = index % 2 == 0;
+        MatchGame game = new MatchGame(engine1White ? engine1 : engine2, engine1White ? engine2 : engine1,
+                opening, timeControl, stopToken);
+        try {
+            if (game.play()) {
+                recordResult(index, game, engine1White);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Game " + (index + 1) + " failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private synchronized void recordResult(int index, MatchGame game, boolean engine1White) {
+        if (decision != Sprt.Decision.CONTINUE) {
+            return; // Finished after the test had decided
+        }
+        String result = game.getResult();
+        if (result.equals("1/2-1/2")) {
+            draws++;
+        } else if (result.equals("1-0") == engine1White) {
+            wins++;
+        } else {
+            losses++;
+        }
+
+        if (pgnWriter != null) {
+            try {
+                pgnWriter.write(game.toPgn(engine1.getName() + " vs " + engine2.getName(), index + 1));
+                pgnWriter.flush();
+            } catch (IOException e) {
+                System.err.println("Error writing PGN: " + e.getMessage());
+            }
+        }
+
+        System.out.printf("Game %d: %s %s (%s) | %s%n", index + 1,
+                engine1White ? engine1.getName() + " - " + engine2.getName() : engine2.getName() + " - " + engine1.getName(),
+                result, game.getTermination(), status());
+
+        decision = sprt.decide(wins, draws, losses);
+        if (decision != Sprt.Decision.CONTINUE) {
+            stopToken.cancel();
+        }
+    }
+
+    private String status() {
+        return String.format("+%d -%d =%d | Elo %.1f +/- %.1f | LLR %.2f [%.2f, %.2f]",
+                wins, losses, draws, Sprt.elo(wins, draws, losses), Sprt.eloError(wins, draws, losses),
+                sprt.logLikelihoodRatio(wins, draws, losses), sprt.getLowerBound(), sprt.getUpperBound());
+    }
+
+    private synchronized void printSummary() {
+        System.out.println("===========================");
+        System.out.println(engine1.getName() + " vs " + engine2.getName() + ", " + (wins + draws + losses) + " games");
+        System.out.println(status());
+        switch (decision) {
+            case ACCEPT_H1: System.out.println("H1 accepted: " + engine1.getName() + " is stronger"); break;
+            case ACCEPT_H0: System.out.println("H0 accepted: " + engine1.getName() + " is not stronger"); break;
+            default: System.out.println("No decision within " + maxGames + " games");
+        }
+    }
+
+    /**
+     * Opening positions, one FEN or EPD line per line. EPD operations after the four position
+     * fields are dropped; lines that cannot be parsed are skipped.
+     */
+    public static List<String> loadOpenings(Path file) throws IOException {
+        List<String> openings = new ArrayList<>();
+        Board board = new Board();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\s+");
+            if (fields.length < 4) {
+                System.err.println("Skipping opening: " + line);
+                continue;
+            }
+            String fen = String.join(" ", fields[0], fields[1], fields[2], fields[3]);
+            boolean hasCounters = fields.length >= 6 && fields[4].matches("\\d+") && fields[5].matches("\\d+");
+            fen += hasCounters ? " " + fields[4] + " " + fields[5] : " 0 1";
+            if (FenParser.parseFen(fen, board)) {
+                openings.add(fen);
+            } else {
+                System.err.println("Skipping opening: " + line);
+            }
+        }
+        return openings;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path openingsFile = null;
+        String engine1Spec = "";
+        String engine2Spec = "";
+        String timeControlText = "10+0.1";
+        int maxGames = 20000;
+        int concurrency = Runtime.getRuntime().availableProcessors();
+        double[] sprtArgs = {0, 5, 0.05, 0.05};
+        Path pgnFile = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-engine1": engine1Spec = args[++i]; break;
+                case "-engine2": engine2Spec = args[++i]; break;
+                case "-tc": timeControlText = args[++i]; break;
+                case "-games": maxGames = Integer.parseInt(args[++i]); break;
+                case "-concurrency": concurrency = Integer.parseInt(args[++i]); break;
+                case "-pgn": pgnFile = Paths.get(args[++i]); break;
+                case "-sprt":
+                    for (int j = 0; j < sprtArgs.length; j++) {
+                        sprtArgs[j] = Double.parseDouble(args[++i]);
+                    }
+                    break;
+                default: openingsFile = Paths.get(args[i]);
+            }
+        }
+        EngineConfig engine1 = EngineConfig.parse(engine1Spec, "engine1");
+        EngineConfig engine2 = EngineConfig.parse(engine2Spec, "engine2");
+        TimeControl timeControl = TimeControl.parse(timeControlText);
+        if (openingsFile == null || engine1 == null || engine2 == null || timeControl == null) {
+            System.out.println("Usage: java core.match.MatchRunner <openings.epd> [-engine1 spec] [-engine2 spec] " +
+                    "[-tc base+inc] [-games N] [-concurrency N] [-sprt elo0 elo1 alpha beta] [-pgn file]");
+            System.out.println();
+            System.out.println("An engine spec is a comma separated list of options, all optional:");
+            System.out.println("  name=<name>,eval=<parameter file>,nullmove=<true|false>,hash=<MB>");
+            System.out.println("Defaults: -tc 10+0.1 (seconds), -sprt 0 5 0.05 0.05, one game per core.");
+            System.exit(1);
+        }
+
+        List<String> openings = loadOpenings(openingsFile);
+        if (openings.isEmpty()) {
+            System.out.println("No openings in " + openingsFile);
+            System.exit(1);
+        }
+        System.out.println(engine1.getName() + " vs " + engine2.getName() + ": " + openings.size() + " openings, " +
+                "tc " + timeControl + ", " + concurrency + " concurrent games, SPRT elo0 " + sprtArgs[0] +
+                " elo1 " + sprtArgs[1] + " alpha " + sprtArgs[2] + " beta " + sprtArgs[3]);
+
+        Sprt sprt = new Sprt(sprtArgs[0], sprtArgs[1], sprtArgs[2], sprtArgs[3]);
+        new MatchRunner(engine1, engine2, openings, timeControl, sprt, maxGames, concurrency).run(pgnFile);
+    }
+}
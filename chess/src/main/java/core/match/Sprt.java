@@ -0,0 +1,111 @@
+package core.match;
+
+/**
+ * Sequential probability ratio test between two Elo hypotheses, H0: elo = elo0 and
+ * H1: elo = elo1, on win/draw/loss counts.
+ *
+ * The log-likelihood ratio uses the usual normal approximation of the trinomial result
+ * distribution: with game scores x (1, 1/2, 0) of mean m and variance v over n games, and
+ * s0, s1 the expected scores of the two hypotheses, LLR = n (s1 - s0) (2m - s0 - s1) / (2v).
+ * The test accepts H1 once the LLR reaches log((1 - beta) / alpha) and H0 once it falls to
+ * log(beta / (1 - alpha)).
+ */
+public class Sprt {
+    public enum Decision { CONTINUE, ACCEPT_H0, ACCEPT_H1 }
+
+    private final double elo0;
+    private final double elo1;
+    private final double lowerBound;
+    private final double upperBound;
+
+    /**
+     * @param alpha Probability of accepting H1 when H0 is true (false positive)
+     * @param beta Probability of accepting H0 when H1 is true (false negative)
+     */
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    public double logLikelihoodRatio(int wins, int draws, int losses) {
+        int games = wins + draws + losses;
+        if (games == 0) {
+            return 0;
+        }
+        double mean = (wins + 0.5 * draws) / games;
+        double variance = variance(wins, draws, losses, mean);
+        if (variance <= 0) {
+            return 0; // All results equal, no information on the spread yet
+        }
+        double s0 = expectedScore(elo0);
+        double s1 = expectedScore(elo1);
+        return games * (s1 - s0) * (2 * mean - s0 - s1) / (2 * variance);
+    }
+
+    public Decision decide(int wins, int draws, int losses) {
+        double llr = logLikelihoodRatio(wins, draws, losses);
+        if (llr >= upperBound) {
+            return Decision.ACCEPT_H1;
+        }
+        if (llr <= lowerBound) {
+            return Decision.ACCEPT_H0;
+        }
+        return Decision.CONTINUE;
+    }
+
+    /**
+     * Elo difference matching the score of the results, infinite when every game was won or lost
+     */
+    public static double elo(int wins, int draws, int losses) {
+        int games = wins + draws + losses;
+        if (games == 0) {
+            return 0;
+        }
+        return eloFromScore((wins + 0.5 * draws) / games);
+    }
+
+    /**
+     * Half width of the 95% confidence interval of {@link #elo}, from the spread of the results
+     */
+    public static double eloError(int wins, int draws, int losses) {
+        int games = wins + draws + losses;
+        if (games == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double mean = (wins + 0.5 * draws) / games;
+        double deviation = Math.sqrt(variance(wins, draws, losses, mean) / games);
+        double low = eloFromScore(mean - 1.96 * deviation);
+        double high = eloFromScore(mean + 1.96 * deviation);
+        return (high - low) / 2;
+    }
+
+    private static double variance(int wins, int draws, int losses, double mean) {
+        int games = wins + draws + losses;
+        return (wins * (1 - mean) * (1 - mean) + draws * (0.5 - mean) * (0.5 - mean)
+                + losses * mean * mean) / games;
+    }
+
+    private static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    private static double eloFromScore(double score) {
+        if (score <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return 400 * Math.log10(score / (1 - score));
+    }
+}
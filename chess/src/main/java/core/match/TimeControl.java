@@ -0,0 +1,58 @@
+package core.match;
+
+/**
+ * Fischer time control: base time per game plus an increment per move.
+ */
+public class TimeControl {
+    // Expected number of moves the remaining time has to last
+    private static final int MOVES_TO_GO = 30;
+
+    private final long baseMillis;
+    private final long incrementMillis;
+
+    public TimeControl(long baseMillis, long incrementMillis) {
+        this.baseMillis = baseMillis;
+        this.incrementMillis = incrementMillis;
+    }
+
+    /**
+     * Parse "base+increment" in seconds, e.g. "10+0.1", or only the base, e.g. "60".
+     *
+     * @return The time control, or null if the text is not valid
+     */
+    public static TimeControl parse(String text) {
+        try {
+            int plus = text.indexOf('+');
+            double base = Double.parseDouble(plus < 0 ? text : text.substring(0, plus));
+            double increment = plus < 0 ? 0 : Double.parseDouble(text.substring(plus + 1));
+            if (base <= 0 || increment < 0) {
+                return null;
+            }
+            return new TimeControl(Math.round(base * 1000), Math.round(increment * 1000));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public long getBaseMillis() {
+        return baseMillis;
+    }
+
+    public long getIncrementMillis() {
+        return incrementMillis;
+    }
+
+    /**
+     * Search time for the next move: a share of the remaining time plus most of the increment,
+     * always leaving some time on the clock.
+     */
+    public long timeForMove(long remainingMillis) {
+        long time = remainingMillis / MOVES_TO_GO + incrementMillis * 3 / 4;
+        return Math.max(1, Math.min(time, remainingMillis / 2));
+    }
+
+    @Override
+    public String toString() {
+        return (baseMillis / 1000.0) + "+" + (incrementMillis / 1000.0);
+    }
+}
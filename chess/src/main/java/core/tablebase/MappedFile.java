@@ -0,0 +1,85 @@
+package core.tablebase;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only memory mapping of a whole file, addressed with long offsets. Files larger than
+ * the 2 GB limit of a MappedByteBuffer (7-piece tables) are mapped in segments; the few
+ * multi-byte reads that straddle a segment boundary are assembled byte by byte.
+ * Reads are thread-safe, they only use absolute gets.
+ */
+class MappedFile implements AutoCloseable {
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long size;
+
+    MappedFile(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            this.size = channel.size();
+            int segmentCount = (int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+            this.segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long position = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_SIZE, size - position));
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    int getByte(long offset) {
+        return segments[(int) (offset >>> SEGMENT_SHIFT)].get((int) (offset & SEGMENT_MASK)) & 0xFF;
+    }
+
+    /**
+     * Unsigned 16-bit little-endian value
+     */
+    int getShortLE(long offset) {
+        return getByte(offset) | (getByte(offset + 1) << 8);
+    }
+
+    /**
+     * Unsigned 32-bit little-endian value
+     */
+    long getIntLE(long offset) {
+        return getShortLE(offset) | ((long) getShortLE(offset + 2) << 16);
+    }
+
+    /**
+     * Unsigned 32-bit big-endian value
+     */
+    long getIntBE(long offset) {
+        int segment = (int) (offset >>> SEGMENT_SHIFT);
+        int position = (int) (offset & SEGMENT_MASK);
+        if (position + 4 <= segments[segment].limit()) {
+            return segments[segment].getInt(position) & 0xFFFFFFFFL; // Buffers are big-endian
+        }
+        return ((long) getByte(offset) << 24) | (getByte(offset + 1) << 16) | (getByte(offset + 2) << 8) | getByte(offset + 3);
+    }
+
+    /**
+     * 64-bit big-endian value
+     */
+    long getLongBE(long offset) {
+        return (getIntBE(offset) << 32) | getIntBE(offset + 4);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
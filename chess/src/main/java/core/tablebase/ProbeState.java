@@ -0,0 +1,15 @@
+package core.tablebase;
+
+/**
+ * Outcome of a probe, threaded through the recursive probing functions.
+ */
+class ProbeState {
+    static final int FAIL = 0;
+    static final int OK = 1;
+    // The DTZ table only stores the other side to move
+    static final int CHANGE_STM = -1;
+    // The best move is a capture or pawn move, the DTZ value must not be read from the table
+    static final int ZEROING_BEST_MOVE = 2;
+
+    int result = OK;
+}
@@ -0,0 +1,827 @@
+package core.tablebase;
+
+import core.board.Board;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * One Syzygy table file (.rtbw for win/draw/loss, .rtbz for distance to zeroing) and the
+ * indexing information needed to look up a position in it.
+ *
+ * The file is memory-mapped on first use. A table stores positions for one material
+ * signature with white as the listed side ("KRvK"); positions with the colors swapped are
+ * looked up by mirroring the board. Pieces are indexed by group (kings, unique pieces,
+ * pieces of the same type, pawns), the resulting index is located in a block of compressed
+ * data with a sparse index and decoded with a canonical Huffman code over recursively paired
+ * symbols.
+ */
+class SyzygyTable {
+    // Flags of a sub-table; all but SINGLE_VALUE only occur in DTZ tables
+    private static final int FLAG_STM = 1;
+    private static final int FLAG_MAPPED = 2;
+    private static final int FLAG_WIN_PLIES = 4;
+    private static final int FLAG_LOSS_PLIES = 8;
+    private static final int FLAG_WIDE = 16;
+    private static final int FLAG_SINGLE_VALUE = 128;
+
+    // Flag in the first byte of a file
+    private static final int FILE_HAS_PAWNS = 2;
+
+    static final int MAX_PIECES = 7;
+
+    private static final byte[] WDL_MAGIC = {(byte) 0x71, (byte) 0xE8, (byte) 0x23, (byte) 0x5D};
+    private static final byte[] DTZ_MAGIC = {(byte) 0xD7, (byte) 0x66, (byte) 0x0C, (byte) 0xA5};
+
+    // Indexing tables shared by all files
+    private static final int[] MAP_PAWNS = new int[64];
+    private static final int[] MAP_B1H1H7 = new int[64];
+    private static final int[] MAP_A1D1D4 = new int[64];
+    private static final int[][] MAP_KK = new int[10][64];
+    private static final long[][] BINOMIAL = new long[MAX_PIECES][64];
+    private static final int[][] LEAD_PAWN_IDX = new int[6][64];
+    private static final int[][] LEAD_PAWNS_SIZE = new int[6][4];
+
+    static {
+        initIndexTables();
+    }
+
+    private final Path path;
+    private final boolean dtz;
+    private final String name;
+    final long key;  // Material key with the first side of the name as white
+    final long key2; // Material key with the colors swapped
+    final int pieceCount;
+    private final boolean hasPawns;
+    private final boolean hasUniquePieces;
+    private final int[] pawnCount = new int[2]; // Leading color, other color
+
+    private volatile boolean ready;
+    private boolean failed;
+    private MappedFile file;
+    private long dtzMap;
+    private final PairsData[][] items = new PairsData[2][4]; // [side to move][file a..d or 0]
+
+    /**
+     * Low level indexing and decompression data of one sub-table: per side to move for WDL
+     * tables and, with pawns, per file of the leading pawn.
+     */
+    private static class PairsData {
+        int flags;
+        int maxSymLen;
+        int minSymLen;
+        long numBlocks;
+        long sizeofBlock;
+        long span;
+        long lowestSym;  // Offset of the lowest symbol of each length
+        long btree;      // Offset of the pair tree, 3 bytes per symbol
+        long blockLength;
+        long blockLengthSize;
+        long sparseIndex;
+        long sparseIndexSize;
+        long data;
+        long[] base64;
+        int[] symlen;    // Number of values minus one represented by each symbol
+        final int[] pieces = new int[MAX_PIECES];
+        final long[] groupIdx = new long[MAX_PIECES + 1];
+        final int[] groupLen = new int[MAX_PIECES + 1];
+        final int[] mapIdx = new int[4];
+    }
+
+    /**
+     * @param name Material of the table as in the file name, e.g. "KRPvKR"
+     */
+    SyzygyTable(Path path, String name, boolean dtz) {
+        this.path = path;
+        this.name = name;
+        this.dtz = dtz;
+
+        int separator = name.indexOf('v');
+        int[] white = countPieces(name.substring(0, separator));
+        int[] black = countPieces(name.substring(separator + 1));
+        this.key = materialKey(white, black);
+        this.key2 = materialKey(black, white);
+
+        int count = 0;
+        boolean unique = false;
+        for (int type = 0; type < 6; type++) {
+            count += white[type] + black[type];
+            if (type < 5 && (white[type] == 1 || black[type] == 1)) {
+                unique = true;
+            }
+        }
+        this.pieceCount = count;
+        this.hasPawns = white[0] + black[0] > 0;
+        this.hasUniquePieces = unique;
+
+        // The leading color is the one with fewer pawns (white if equal), it compresses better
+        boolean whiteLeads = black[0] == 0 || (white[0] > 0 && black[0] >= white[0]);
+        pawnCount[0] = whiteLeads ? white[0] : black[0];
+        pawnCount[1] = whiteLeads ? black[0] : white[0];
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Pieces of a name like "KRP" counted by type, pawn to king.
+     */
+    static int[] countPieces(String pieces) {
+        int[] counts = new int[6];
+        for (int i = 0; i < pieces.length(); i++) {
+            int type = "PNBRQK".indexOf(pieces.charAt(i));
+            if (type < 0) {
+                throw new IllegalArgumentException("Invalid piece in table name: " + pieces);
+            }
+            counts[type]++;
+        }
+        return counts;
+    }
+
+    static long materialKey(int[] white, int[] black) {
+        long key = 0;
+        for (int type = 0; type < 6; type++) {
+            key |= (long) white[type] << (4 * type);
+            key |= (long) black[type] << (24 + 4 * type);
+        }
+        return key;
+    }
+
+    /**
+     * Material key of the position, comparable with {@link #key} and {@link #key2}
+     */
+    static long materialKey(Board board) {
+        return Long.bitCount(board.getWhitePawns())
+                | (long) Long.bitCount(board.getWhiteKnights()) << 4
+                | (long) Long.bitCount(board.getWhiteBishops()) << 8
+                | (long) Long.bitCount(board.getWhiteRooks()) << 12
+                | (long) Long.bitCount(board.getWhiteQueens()) << 16
+                | (long) Long.bitCount(board.getWhiteKing()) << 20
+                | (long) Long.bitCount(board.getBlackPawns()) << 24
+                | (long) Long.bitCount(board.getBlackKnights()) << 28
+                | (long) Long.bitCount(board.getBlackBishops()) << 32
+                | (long) Long.bitCount(board.getBlackRooks()) << 36
+                | (long) Long.bitCount(board.getBlackQueens()) << 40
+                | (long) Long.bitCount(board.getBlackKing()) << 44;
+    }
+
+    /**
+     * Map the file and read its headers, once.
+     *
+     * @return False if the file is missing or corrupt
+     */
+    boolean ensureLoaded() {
+        if (ready) {
+            return true;
+        }
+        synchronized (this) {
+            if (ready) {
+                return true;
+            }
+            if (failed) {
+                return false;
+            }
+            try {
+                file = new MappedFile(path);
+                byte[] magic = dtz ? DTZ_MAGIC : WDL_MAGIC;
+                for (int i = 0; i < magic.length; i++) {
+                    if (file.getByte(i) != (magic[i] & 0xFF)) {
+                        throw new IOException("Corrupted table");
+                    }
+                }
+                readHeaders(magic.length);
+                ready = true;
+                return true;
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error loading tablebase file " + path + ": " + e.getMessage());
+                failed = true;
+                return false;
+            }
+        }
+    }
+
+    synchronized void close() throws IOException {
+        if (file != null) {
+            ready = false;
+            failed = true; // Closed for good
+            file.close();
+            file = null;
+        }
+    }
+
+    /**
+     * Look up the position.
+     *
+     * @param wdl WDL score of the position, used to decode DTZ values
+     * @param state Set to {@link ProbeState#CHANGE_STM} when a DTZ table only stores the other side to move
+     * @return WDL score (-2..2) or DTZ value
+     */
+    int probe(Board board, int wdl, ProbeState state) {
+        int[] squares = new int[MAX_PIECES];
+        int[] pieces = new int[MAX_PIECES];
+        int size = 0;
+        int leadPawnsCount = 0;
+        long leadPawns = 0;
+        int tbFile = 0;
+
+        // Symmetric tables (KRvKR) only store white to move, and tables only store the listed
+        // side as white: otherwise swap the colors and mirror the board vertically
+        boolean whiteToMove = board.isWhiteToMove();
+        boolean symmetricBlackToMove = key == key2 && !whiteToMove;
+        boolean blackStronger = materialKey(board) != key;
+        boolean flip = symmetricBlackToMove || blackStronger;
+        int flipColor = flip ? 8 : 0;
+        int flipSquares = flip ? 56 : 0;
+        int stm = (flip ? 1 : 0) ^ (whiteToMove ? 0 : 1);
+
+        if (hasPawns) {
+            // Pawns of the leading color come first; the leading pawn is the one with the highest
+            // MAP_PAWNS value and selects the file sub-table
+            int leadPiece = items[0][0].pieces[0] ^ flipColor;
+            leadPawns = leadPiece < 8 ? board.getWhitePawns() : board.getBlackPawns();
+            for (long b = leadPawns; b != 0; b &= b - 1) {
+                squares[size++] = Long.numberOfTrailingZeros(b) ^ flipSquares;
+            }
+            leadPawnsCount = size;
+
+            int lead = 0;
+            for (int i = 1; i < leadPawnsCount; i++) {
+                if (MAP_PAWNS[squares[i]] > MAP_PAWNS[squares[lead]]) {
+                    lead = i;
+                }
+            }
+            swap(squares, 0, lead);
+            tbFile = Math.min(squares[0] % 8, 7 - squares[0] % 8);
+        }
+
+        // DTZ tables are one-sided
+        if (dtz && !storesSideToMove(stm, tbFile)) {
+            state.result = ProbeState.CHANGE_STM;
+            return 0;
+        }
+
+        for (long b = board.getAllPieces() ^ leadPawns; b != 0; b &= b - 1) {
+            int square = Long.numberOfTrailingZeros(b);
+            squares[size] = square ^ flipSquares;
+            pieces[size++] = tablePiece(board, square) ^ flipColor;
+        }
+
+        PairsData d = get(stm, tbFile);
+
+        // Order the pieces as the table does
+        for (int i = leadPawnsCount; i < size - 1; i++) {
+            for (int j = i + 1; j < size; j++) {
+                if (d.pieces[i] == pieces[j]) {
+                    swap(pieces, i, j);
+                    swap(squares, i, j);
+                    break;
+                }
+            }
+        }
+
+        // Mirror horizontally so the leading piece is on files a-d
+        if (squares[0] % 8 > 3) {
+            for (int i = 0; i < size; i++) {
+                squares[i] ^= 7;
+            }
+        }
+
+        long idx;
+        if (hasPawns) {
+            idx = LEAD_PAWN_IDX[leadPawnsCount][squares[0]];
+            sortByPawnMap(squares, 1, leadPawnsCount);
+            for (int i = 1; i < leadPawnsCount; i++) {
+                idx += BINOMIAL[i][MAP_PAWNS[squares[i]]];
+            }
+        } else {
+            // Without pawns also mirror vertically into ranks 1-4, then along the a1-h8 diagonal
+            // so the first leading piece off the diagonal is below it
+            if (squares[0] / 8 > 3) {
+                for (int i = 0; i < size; i++) {
+                    squares[i] ^= 56;
+                }
+            }
+            for (int i = 0; i < d.groupLen[0]; i++) {
+                int offDiagonal = offA1H8(squares[i]);
+                if (offDiagonal == 0) {
+                    continue;
+                }
+                if (offDiagonal > 0) {
+                    for (int j = i; j < size; j++) {
+                        squares[j] = ((squares[j] >>> 3) | (squares[j] << 3)) & 63;
+                    }
+                }
+                break;
+            }
+            idx = leadingPiecesIndex(squares);
+        }
+
+        // Remaining groups: pieces of one type and color as a combination of free squares
+        idx *= d.groupIdx[0];
+        int groupStart = d.groupLen[0];
+        boolean remainingPawns = hasPawns && pawnCount[1] > 0;
+        for (int group = 1; d.groupLen[group] != 0; group++) {
+            int length = d.groupLen[group];
+            Arrays.sort(squares, groupStart, groupStart + length);
+            long n = 0;
+            for (int i = 0; i < length; i++) {
+                int square = squares[groupStart + i];
+                // Squares taken by earlier groups are skipped
+                int adjust = 0;
+                for (int j = 0; j < groupStart; j++) {
+                    if (square > squares[j]) {
+                        adjust++;
+                    }
+                }
+                n += BINOMIAL[i + 1][square - adjust - (remainingPawns ? 8 : 0)];
+            }
+            remainingPawns = false;
+            idx += n * d.groupIdx[group];
+            groupStart += length;
+        }
+
+        return mapScore(tbFile, decompressPairs(d, idx), wdl);
+    }
+
+    /**
+     * Index of the leading group of a pawnless table: three unique pieces, or the two kings.
+     */
+    private long leadingPiecesIndex(int[] squares) {
+        if (!hasUniquePieces) {
+            return MAP_KK[MAP_A1D1D4[squares[0]]][squares[1]];
+        }
+
+        int adjust1 = squares[1] > squares[0] ? 1 : 0;
+        int adjust2 = (squares[2] > squares[0] ? 1 : 0) + (squares[2] > squares[1] ? 1 : 0);
+
+        if (offA1H8(squares[0]) != 0) {
+            // First piece below the diagonal
+            return (MAP_A1D1D4[squares[0]] * 63L + (squares[1] - adjust1)) * 62 + squares[2] - adjust2;
+        }
+        if (offA1H8(squares[1]) != 0) {
+            // First piece on the diagonal, second below
+            return (6 * 63L + (squares[0] / 8) * 28 + MAP_B1H1H7[squares[1]]) * 62 + squares[2] - adjust2;
+        }
+        if (offA1H8(squares[2]) != 0) {
+            // First two pieces on the diagonal, third below
+            return 6 * 63 * 62 + 4 * 28 * 62
+                    + (squares[0] / 8) * 7 * 28
+                    + (squares[1] / 8 - adjust1) * 28
+                    + MAP_B1H1H7[squares[2]];
+        }
+        // All three on the diagonal
+        return 6 * 63 * 62 + 4 * 28 * 62 + 4 * 7 * 28
+                + (squares[0] / 8) * 7 * 6
+                + (squares[1] / 8 - adjust1) * 6
+                + (squares[2] / 8 - adjust2);
+    }
+
+    private boolean storesSideToMove(int stm, int tbFile) {
+        int flags = get(stm, tbFile).flags;
+        return (flags & FLAG_STM) == stm || (key == key2 && !hasPawns);
+    }
+
+    private PairsData get(int stm, int tbFile) {
+        return items[dtz ? 0 : stm & 1][hasPawns ? tbFile : 0];
+    }
+
+    /**
+     * Turn a decompressed value into a WDL score or a DTZ in plies.
+     */
+    private int mapScore(int tbFile, int value, int wdl) {
+        if (!dtz) {
+            return value - 2;
+        }
+
+        PairsData d = get(0, tbFile);
+        int flags = d.flags;
+        if ((flags & FLAG_MAPPED) != 0) {
+            // Values are stored by frequency, separately for each WDL result
+            int[] wdlMap = {1, 3, 0, 2, 0};
+            int index = d.mapIdx[wdlMap[wdl + 2]] + value;
+            value = (flags & FLAG_WIDE) != 0 ? file.getShortLE(dtzMap + 2L * index) : file.getByte(dtzMap + index);
+        }
+
+        // Stored in moves unless the table says plies
+        if ((wdl == SyzygyTablebase.WDL_WIN && (flags & FLAG_WIN_PLIES) == 0)
+                || (wdl == SyzygyTablebase.WDL_LOSS && (flags & FLAG_LOSS_PLIES) == 0)
+                || wdl == SyzygyTablebase.WDL_CURSED_WIN
+                || wdl == SyzygyTablebase.WDL_BLESSED_LOSS) {
+            value *= 2;
+        }
+        return value + 1;
+    }
+
+    /**
+     * Decode the value stored at the index.
+     *
+     * The data is split into blocks that each hold a variable number of values. The sparse
+     * index gives the block and offset of every span-th value; from there the block lengths
+     * are walked to the block holding idx. Inside the block, canonical Huffman symbols are
+     * read until the one covering the offset, which is then expanded through the pair tree
+     * down to a single value.
+     */
+    private int decompressPairs(PairsData d, long idx) {
+        if ((d.flags & FLAG_SINGLE_VALUE) != 0) {
+            return d.minSymLen; // Every position has the same value
+        }
+
+        long k = idx / d.span;
+        long entry = d.sparseIndex + 6 * k;
+        long block = file.getIntLE(entry);
+        int offset = file.getShortLE(entry + 4);
+        offset += (int) (idx % d.span - d.span / 2);
+
+        while (offset < 0) {
+            offset += file.getShortLE(d.blockLength + 2 * --block) + 1;
+        }
+        while (offset > file.getShortLE(d.blockLength + 2 * block)) {
+            offset -= file.getShortLE(d.blockLength + 2 * block++) + 1;
+        }
+
+        long pointer = d.data + block * d.sizeofBlock;
+        long buffer = file.getLongBE(pointer);
+        pointer += 8;
+        int bufferSize = 64;
+        int sym;
+
+        while (true) {
+            // Symbols of each length are consecutive and longer codes have lower values
+            int length = 0;
+            while (Long.compareUnsigned(buffer, d.base64[length]) < 0) {
+                length++;
+            }
+            sym = (int) ((buffer - d.base64[length]) >>> (64 - length - d.minSymLen));
+            sym += file.getShortLE(d.lowestSym + 2L * length);
+
+            if (offset < d.symlen[sym] + 1) {
+                break;
+            }
+            offset -= d.symlen[sym] + 1;
+            length += d.minSymLen;
+            buffer <<= length;
+            bufferSize -= length;
+            if (bufferSize <= 32) {
+                bufferSize += 32;
+                buffer |= file.getIntBE(pointer) << (64 - bufferSize);
+                pointer += 4;
+            }
+        }
+
+        // Expand the pair tree; the left part comes first in the value sequence
+        while (d.symlen[sym] != 0) {
+            int left = leftSymbol(d, sym);
+            if (offset < d.symlen[left] + 1) {
+                sym = left;
+            } else {
+                offset -= d.symlen[left] + 1;
+                sym = rightSymbol(d, sym);
+            }
+        }
+        return leftSymbol(d, sym);
+    }
+
+    private int leftSymbol(PairsData d, int sym) {
+        long entry = d.btree + 3L * sym;
+        return ((file.getByte(entry + 1) & 0xF) << 8) | file.getByte(entry);
+    }
+
+    private int rightSymbol(PairsData d, int sym) {
+        long entry = d.btree + 3L * sym;
+        return (file.getByte(entry + 2) << 4) | (file.getByte(entry + 1) >>> 4);
+    }
+
+    private void readHeaders(long data) throws IOException {
+        int fileFlags = file.getByte(data++);
+        if (((fileFlags & FILE_HAS_PAWNS) != 0) != hasPawns) {
+            throw new IOException("Table does not match its file name " + name);
+        }
+
+        int sides = !dtz && key != key2 ? 2 : 1;
+        int maxFile = hasPawns ? 3 : 0;
+        boolean pawnsOnBothSides = hasPawns && pawnCount[1] > 0;
+
+        for (int f = 0; f <= maxFile; f++) {
+            for (int i = 0; i < sides; i++) {
+                items[i][f] = new PairsData();
+            }
+            int orderByte = file.getByte(data);
+            int pawnOrderByte = pawnsOnBothSides ? file.getByte(data + 1) : 0;
+            int[][] order = {
+                    {orderByte & 0xF, pawnsOnBothSides ? pawnOrderByte & 0xF : 0xF},
+                    {orderByte >>> 4, pawnsOnBothSides ? pawnOrderByte >>> 4 : 0xF}
+            };
+            data += pawnsOnBothSides ? 2 : 1;
+
+            for (int k = 0; k < pieceCount; k++, data++) {
+                int piecesByte = file.getByte(data);
+                for (int i = 0; i < sides; i++) {
+                    items[i][f].pieces[k] = i != 0 ? piecesByte >>> 4 : piecesByte & 0xF;
+                }
+            }
+            for (int i = 0; i < sides; i++) {
+                setGroups(items[i][f], order[i], f);
+            }
+        }
+
+        data += data & 1;
+
+        for (int f = 0; f <= maxFile; f++) {
+            for (int i = 0; i < sides; i++) {
+                data = setSizes(items[i][f], data);
+            }
+        }
+
+        if (dtz) {
+            data = setDtzMap(data, maxFile);
+        }
+
+        for (int f = 0; f <= maxFile; f++) {
+            for (int i = 0; i < sides; i++) {
+                items[i][f].sparseIndex = data;
+                data += items[i][f].sparseIndexSize * 6;
+            }
+        }
+        for (int f = 0; f <= maxFile; f++) {
+            for (int i = 0; i < sides; i++) {
+                items[i][f].blockLength = data;
+                data += items[i][f].blockLengthSize * 2;
+            }
+        }
+        for (int f = 0; f <= maxFile; f++) {
+            for (int i = 0; i < sides; i++) {
+                data = (data + 0x3F) & ~0x3FL; // Blocks are 64 byte aligned
+                items[i][f].data = data;
+                data += items[i][f].numBlocks * items[i][f].sizeofBlock;
+            }
+        }
+        if (data > file.size()) {
+            throw new IOException("Truncated table " + name);
+        }
+    }
+
+    /**
+     * Split the pieces into the groups that are encoded together and compute the multiplier
+     * of each group. The leading group is the pawns of the leading color, three unique pieces,
+     * or the two kings; every other group is the pieces of one type and color.
+     */
+    private void setGroups(PairsData d, int[] order, int f) {
+        int n = 0;
+        int firstLength = hasPawns ? 0 : hasUniquePieces ? 3 : 2;
+        d.groupLen[n] = 1;
+
+        for (int i = 1; i < pieceCount; i++) {
+            if (--firstLength > 0 || d.pieces[i] == d.pieces[i - 1]) {
+                d.groupLen[n]++;
+            } else {
+                d.groupLen[++n] = 1;
+            }
+        }
+        d.groupLen[++n] = 0;
+
+        // Groups are multiplied in the order given by the file: order[0] is the leading group
+        // and order[1] the pawns of the other color, if any
+        boolean pawnsOnBothSides = hasPawns && pawnCount[1] > 0;
+        int next = pawnsOnBothSides ? 2 : 1;
+        int freeSquares = 64 - d.groupLen[0] - (pawnsOnBothSides ? d.groupLen[1] : 0);
+        long idx = 1;
+
+        for (int k = 0; next < n || k == order[0] || k == order[1]; k++) {
+            if (k == order[0]) {
+                d.groupIdx[0] = idx;
+                idx *= hasPawns ? LEAD_PAWNS_SIZE[d.groupLen[0]][f] : hasUniquePieces ? 31332 : 462;
+            } else if (k == order[1]) {
+                d.groupIdx[1] = idx;
+                idx *= BINOMIAL[d.groupLen[1]][48 - d.groupLen[0]];
+            } else {
+                d.groupIdx[next] = idx;
+                idx *= BINOMIAL[d.groupLen[next]][freeSquares];
+                freeSquares -= d.groupLen[next++];
+            }
+        }
+        d.groupIdx[n] = idx;
+    }
+
+    /**
+     * Read the block layout and Huffman code of a sub-table.
+     *
+     * @return Offset after the sub-table header
+     */
+    private long setSizes(PairsData d, long data) {
+        d.flags = file.getByte(data++);
+
+        if ((d.flags & FLAG_SINGLE_VALUE) != 0) {
+            d.minSymLen = file.getByte(data++); // The single value
+            return data;
+        }
+
+        // Number of positions of the sub-table, stored after the last group
+        int groups = 0;
+        while (d.groupLen[groups] != 0) {
+            groups++;
+        }
+        long tableSize = d.groupIdx[groups];
+
+        d.sizeofBlock = 1L << file.getByte(data++);
+        d.span = 1L << file.getByte(data++);
+        d.sparseIndexSize = (tableSize + d.span - 1) / d.span;
+        int padding = file.getByte(data++);
+        d.numBlocks = file.getIntLE(data);
+        data += 4;
+        d.blockLengthSize = d.numBlocks + padding; // Padding keeps the sparse index in range
+        d.maxSymLen = file.getByte(data++);
+        d.minSymLen = file.getByte(data++);
+        d.lowestSym = data;
+
+        // base64[l] is the lowest code of length minSymLen + l, left aligned in 64 bits
+        int lengths = d.maxSymLen - d.minSymLen + 1;
+        d.base64 = new long[lengths];
+        for (int i = lengths - 2; i >= 0; i--) {
+            d.base64[i] = (d.base64[i + 1] + file.getShortLE(d.lowestSym + 2L * i)
+                    - file.getShortLE(d.lowestSym + 2L * (i + 1))) / 2;
+        }
+        for (int i = 0; i < lengths; i++) {
+            d.base64[i] <<= 64 - i - d.minSymLen;
+        }
+
+        data += 2L * lengths;
+        int symbols = file.getShortLE(data);
+        data += 2;
+        d.symlen = new int[symbols];
+        d.btree = data;
+
+        boolean[] visited = new boolean[symbols];
+        for (int sym = 0; sym < symbols; sym++) {
+            if (!visited[sym]) {
+                d.symlen[sym] = symbolLength(d, sym, visited);
+            }
+        }
+        return data + 3L * symbols + (symbols & 1);
+    }
+
+    /**
+     * Number of values minus one that a symbol expands to
+     */
+    private int symbolLength(PairsData d, int sym, boolean[] visited) {
+        visited[sym] = true;
+        int right = rightSymbol(d, sym);
+        if (right == 0xFFF) {
+            return 0; // Leaf, the left part is the value
+        }
+        int left = leftSymbol(d, sym);
+        if (!visited[left]) {
+            d.symlen[left] = symbolLength(d, left, visited);
+        }
+        if (!visited[right]) {
+            d.symlen[right] = symbolLength(d, right, visited);
+        }
+        return d.symlen[left] + d.symlen[right] + 1;
+    }
+
+    /**
+     * Read the value maps of a DTZ table.
+     */
+    private long setDtzMap(long data, int maxFile) {
+        dtzMap = data;
+        for (int f = 0; f <= maxFile; f++) {
+            PairsData d = get(0, f);
+            if ((d.flags & FLAG_MAPPED) == 0) {
+                continue;
+            }
+            if ((d.flags & FLAG_WIDE) != 0) {
+                data += data & 1; // 16-bit entries are word aligned
+                for (int i = 0; i < 4; i++) {
+                    d.mapIdx[i] = (int) ((data - dtzMap) / 2 + 1);
+                    data += 2L * file.getShortLE(data) + 2;
+                }
+            } else {
+                for (int i = 0; i < 4; i++) {
+                    d.mapIdx[i] = (int) (data - dtzMap + 1);
+                    data += file.getByte(data) + 1;
+                }
+            }
+        }
+        return data + (data & 1);
+    }
+
+    /**
+     * Piece code used by the tables: 1-6 for white pawn..king, 9-14 for black
+     */
+    private static int tablePiece(Board board, int square) {
+        return board.getPieceType(square) + 1 + (board.isWhitePiece(square) ? 0 : 8);
+    }
+
+    private static int offA1H8(int square) {
+        return square / 8 - square % 8;
+    }
+
+    private static void sortByPawnMap(int[] squares, int from, int to) {
+        // Insertion sort, stable and the ranges hold at most five pawns
+        for (int i = from + 1; i < to; i++) {
+            int square = squares[i];
+            int j = i - 1;
+            while (j >= from && MAP_PAWNS[squares[j]] > MAP_PAWNS[square]) {
+                squares[j + 1] = squares[j];
+                j--;
+            }
+            squares[j + 1] = square;
+        }
+    }
+
+    private static void swap(int[] array, int i, int j) {
+        int temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+
+    private static void initIndexTables() {
+        // Squares below the a1-h8 diagonal: 0..27
+        int code = 0;
+        for (int square = 0; square < 64; square++) {
+            if (offA1H8(square) < 0) {
+                MAP_B1H1H7[square] = code++;
+            }
+        }
+
+        // The a1-d1-d4 triangle: 0..9, diagonal squares last
+        code = 0;
+        int[] diagonal = new int[4];
+        int diagonalCount = 0;
+        for (int square = 0; square <= 27; square++) {
+            if (square % 8 > 3) {
+                continue;
+            }
+            if (offA1H8(square) < 0) {
+                MAP_A1D1D4[square] = code++;
+            } else if (offA1H8(square) == 0) {
+                diagonal[diagonalCount++] = square;
+            }
+        }
+        for (int i = 0; i < diagonalCount; i++) {
+            MAP_A1D1D4[diagonal[i]] = code++;
+        }
+
+        // The 462 legal placements of two kings with the first in the a1-d1-d4 triangle; if the
+        // first is on the diagonal the second is not above it. Both on the diagonal come last.
+        code = 0;
+        int[][] bothOnDiagonal = new int[64][2];
+        int bothCount = 0;
+        for (int idx = 0; idx < 10; idx++) {
+            for (int s1 = 0; s1 <= 27; s1++) {
+                if (s1 % 8 > 3 || MAP_A1D1D4[s1] != idx || (idx == 0 && s1 != 1)) {
+                    continue; // b1 is the square mapped to 0
+                }
+                if (offA1H8(s1) > 0) {
+                    continue;
+                }
+                for (int s2 = 0; s2 < 64; s2++) {
+                    if (Math.abs(s1 % 8 - s2 % 8) <= 1 && Math.abs(s1 / 8 - s2 / 8) <= 1) {
+                        continue; // Kings touching or on the same square
+                    }
+                    if (offA1H8(s1) == 0 && offA1H8(s2) > 0) {
+                        continue;
+                    }
+                    if (offA1H8(s1) == 0 && offA1H8(s2) == 0) {
+                        bothOnDiagonal[bothCount][0] = idx;
+                        bothOnDiagonal[bothCount++][1] = s2;
+                    } else {
+                        MAP_KK[idx][s2] = code++;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < bothCount; i++) {
+            MAP_KK[bothOnDiagonal[i][0]][bothOnDiagonal[i][1]] = code++;
+        }
+
+        // Binomial coefficients: BINOMIAL[k][n] ways to choose k of n squares
+        BINOMIAL[0][0] = 1;
+        for (int n = 1; n < 64; n++) {
+            for (int k = 0; k < MAX_PIECES && k <= n; k++) {
+                BINOMIAL[k][n] = (k > 0 ? BINOMIAL[k - 1][n - 1] : 0) + (k < n ? BINOMIAL[k][n - 1] : 0);
+            }
+        }
+
+        // MAP_PAWNS numbers a2-h7 so that the leading pawn (nearest the edge, then lowest rank)
+        // has the highest value; LEAD_PAWN_IDX and LEAD_PAWNS_SIZE index the leading pawn group
+        // per file of the leading pawn
+        int availableSquares = 47;
+        for (int leadPawnsCount = 1; leadPawnsCount <= 5; leadPawnsCount++) {
+            for (int f = 0; f <= 3; f++) {
+                int idx = 0;
+                for (int rank = 1; rank <= 6; rank++) {
+                    int square = rank * 8 + f;
+                    if (leadPawnsCount == 1) {
+                        MAP_PAWNS[square] = availableSquares--;
+                        MAP_PAWNS[square ^ 7] = availableSquares--;
+                    }
+                    LEAD_PAWN_IDX[leadPawnsCount][square] = idx;
+                    idx += (int) BINOMIAL[leadPawnsCount - 1][MAP_PAWNS[square]]; // At most C(47, 4)
+                }
+                LEAD_PAWNS_SIZE[leadPawnsCount][f] = idx;
+            }
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package core.tablebase;
+
+import core.board.Board;
+import core.board.Move;
+import core.board.MoveList;
+import core.util.Piece;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Syzygy endgame tablebases read from local .rtbw (win/draw/loss) and .rtbz (distance to
+ * zeroing) files.
+ *
+ * Files are found by name in the given directories and memory-mapped the first time a
+ * position with their material is probed. WDL values take the 50-move rule into account:
+ * a cursed win can only be won by ignoring it and a blessed loss only lost that way.
+ * DTZ is the number of plies to the next capture or pawn move on the way to the result
+ * with optimal play, which is enough to play an endgame perfectly. Tables do not cover
+ * castling rights, so probes fail in positions that still have them.
+ * Probes only read the mappings and can run on several threads with their own boards.
+ */
+public class SyzygyTablebase implements AutoCloseable {
+    public static final int WDL_LOSS = -2;
+    public static final int WDL_BLESSED_LOSS = -1;
+    public static final int WDL_DRAW = 0;
+    public static final int WDL_CURSED_WIN = 1;
+    public static final int WDL_WIN = 2;
+
+    public static final int PROBE_FAILED = Integer.MIN_VALUE;
+
+    // Ranks of root moves, see rankDtz
+    public static final int MAX_DTZ = 1 << 18;
+
+    private static final String PIECES = "QRBNP";
+
+    private final Map<Long, SyzygyTable> wdlTables = new HashMap<>();
+    private final Map<Long, SyzygyTable> dtzTables = new HashMap<>();
+    private final List<String> tableNames = new ArrayList<>();
+    private int maxPieces;
+
+    /**
+     * Look for tables in the given directories.
+     *
+     * @param paths Directories separated by {@link File#pathSeparator}
+     */
+    public SyzygyTablebase(String paths) {
+        List<File> directories = new ArrayList<>();
+        for (String path : paths.split(File.pathSeparator)) {
+            File directory = new File(path);
+            if (directory.isDirectory()) {
+                directories.add(directory);
+            }
+        }
+
+        // Every material combination in the usual "KQRvKR" naming, strongest pieces first
+        List<String> sides = new ArrayList<>();
+        addSides(sides, "K", 0, SyzygyTable.MAX_PIECES - 1);
+        for (String white : sides) {
+            for (String black : sides) {
+                if (white.length() + black.length() > SyzygyTable.MAX_PIECES || compareSides(white, black) < 0
+                        || white.length() + black.length() == 2) {
+                    continue;
+                }
+                String name = white + "v" + black;
+                File wdl = find(directories, name + ".rtbw");
+                if (wdl == null) {
+                    continue;
+                }
+                SyzygyTable table = new SyzygyTable(wdl.toPath(), name, false);
+                wdlTables.put(table.key, table);
+                wdlTables.put(table.key2, table);
+
+                File dtz = find(directories, name + ".rtbz");
+                if (dtz != null) {
+                    SyzygyTable dtzTable = new SyzygyTable(dtz.toPath(), name, true);
+                    dtzTables.put(dtzTable.key, dtzTable);
+                    dtzTables.put(dtzTable.key2, dtzTable);
+                }
+                tableNames.add(name);
+                maxPieces = Math.max(maxPieces, table.pieceCount);
+            }
+        }
+    }
+
+    private static void addSides(List<String> sides, String side, int firstPiece, int remaining) {
+        sides.add(side);
+        if (remaining == 0) {
+            return;
+        }
+        for (int i = firstPiece; i < PIECES.length(); i++) {
+            addSides(sides, side + PIECES.charAt(i), i, remaining - 1);
+        }
+    }
+
+    /**
+     * Order of the two sides in a table name: more pieces first, then the stronger pieces
+     */
+    private static int compareSides(String white, String black) {
+        if (white.length() != black.length()) {
+            return white.length() - black.length();
+        }
+        for (int i = 1; i < white.length(); i++) {
+            int order = PIECES.indexOf(black.charAt(i)) - PIECES.indexOf(white.charAt(i));
+            if (order != 0) {
+                return order;
+            }
+        }
+        return 0;
+    }
+
+    private static File find(List<File> directories, String fileName) {
+        for (File directory : directories) {
+            File file = new File(directory, fileName);
+            if (file.isFile()) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Largest number of pieces, kings included, of the tables found
+     */
+    public int getMaxPieces() {
+        return maxPieces;
+    }
+
+    /**
+     * Names of the tables found, e.g. "KRvK"
+     */
+    public List<String> getTableNames() {
+        return new ArrayList<>(tableNames);
+    }
+
+    /**
+     * Whether the tables can answer for the position: not too many pieces and no castling rights
+     */
+    public boolean canProbe(Board board) {
+        return Long.bitCount(board.getAllPieces()) <= maxPieces && !hasCastlingRights(board);
+    }
+
+    /**
+     * Win/draw/loss of the position for the side to move.
+     *
+     * @return One of the WDL_ constants, or {@link #PROBE_FAILED}
+     */
+    public int probeWdl(Board board) {
+        if (!canProbe(board)) {
+            return PROBE_FAILED;
+        }
+        ProbeState state = new ProbeState();
+        int wdl = search(board, state, false);
+        return state.result == ProbeState.FAIL ? PROBE_FAILED : wdl;
+    }
+
+    /**
+     * Distance to zeroing of the position for the side to move, in plies: positive when
+     * winning, negative when losing and 0 for a draw. Values above 100 in absolute terms are
+     * cursed wins or blessed losses. The value can be one ply off when the table stores
+     * moves rather than plies; it is exact whenever it matters for the 50-move rule.
+     *
+     * @return The distance, or {@link #PROBE_FAILED}
+     */
+    public int probeDtz(Board board) {
+        if (!canProbe(board)) {
+            return PROBE_FAILED;
+        }
+        ProbeState state = new ProbeState();
+        int dtz = probeDtz(board, state);
+        return state.result == ProbeState.FAIL ? PROBE_FAILED : dtz;
+    }
+
+    /**
+     * Distance to zeroing of every legal move of the root position, counted from the root:
+     * positive for moves that win, negative for moves that lose and 0 for drawing moves.
+     * A move that repeats a position of the game for the third time is a draw.
+     *
+     * @return The distance of each move, or null if any probe failed
+     */
+    public int[] probeRootDtz(Board board, MoveList moves) {
+        if (!canProbe(board)) {
+            return null;
+        }
+        ProbeState state = new ProbeState();
+        int[] result = new int[moves.size()];
+        MoveList replies = new MoveList(256);
+
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeSearchMove(moves.get(i));
+            int dtz;
+            if (board.getHalfmoveClock() == 0) {
+                // After a capture or pawn move the table values of the new position start over
+                dtz = dtzBeforeZeroing(-search(board, state, false));
+            } else if (board.getHalfmoveClock() >= 100 || board.isThreefoldRepetitionDuringSearch()) {
+                dtz = 0; // Drawn by the 50-move rule or by repeating a position of the game
+            } else {
+                dtz = -probeDtz(board, state);
+                dtz = dtz > 0 ? dtz + 1 : dtz < 0 ? dtz - 1 : dtz;
+            }
+            // A mating move is the shortest possible win
+            if (dtz == 2 && board.isInCheck()) {
+                board.generateLegalMoves(replies);
+                if (replies.size() == 0) {
+                    dtz = 1;
+                }
+            }
+            board.undoSearchMove();
+            if (state.result == ProbeState.FAIL) {
+                return null;
+            }
+            result[i] = dtz;
+        }
+        return result;
+    }
+
+    /**
+     * Rank a root move by its distance to zeroing, higher is better. Wins that can be
+     * completed within the 50-move rule rank at or above MAX_DTZ / 2 - 100, shorter first;
+     * losses that cannot be saved rank at or below -(MAX_DTZ / 2 - 100), longer first.
+     * Cursed wins and blessed losses rank close to 0, moves that get nearer to turning them
+     * into real results first. Draws rank 0.
+     *
+     * @param halfmoveClock Halfmove clock of the root position
+     */
+    public static int rankDtz(int dtz, int halfmoveClock) {
+        if (dtz > 0) {
+            return dtz + halfmoveClock <= 99 ? MAX_DTZ - dtz : MAX_DTZ / 2 - (dtz + halfmoveClock);
+        }
+        if (dtz < 0) {
+            return -dtz * 2 + halfmoveClock < 100 ? -MAX_DTZ - dtz : -MAX_DTZ / 2 + (-dtz + halfmoveClock);
+        }
+        return 0;
+    }
+
+    /**
+     * WDL by a search over captures, and pawn moves when checkZeroing is set: the tables
+     * do not know about en passant, and values stored for positions where the best move is a
+     * capture can be "don't care" values that compress better.
+     */
+    private int search(Board board, ProbeState state, boolean checkZeroing) {
+        int bestValue = WDL_LOSS;
+        MoveList moves = new MoveList(256);
+        board.generateLegalMoves(moves);
+        int moveCount = 0;
+
+        for (int i = 0; i < moves.size(); i++) {
+            Move move = moves.get(i);
+            if (!board.isCapture(move) && (!checkZeroing || board.getPieceType(move.getFrom()) != Piece.PAWN)) {
+                continue;
+            }
+            moveCount++;
+            board.makeSearchMove(move);
+            int value = -search(board, state, false);
+            board.undoSearchMove();
+            if (state.result == ProbeState.FAIL) {
+                return WDL_DRAW;
+            }
+            if (value > bestValue) {
+                bestValue = value;
+                if (value >= WDL_WIN) {
+                    state.result = ProbeState.ZEROING_BEST_MOVE;
+                    return value;
+                }
+            }
+        }
+
+        // When every legal move was searched the table is not needed, and not reliable
+        // (only captures, or an en passant capture)
+        boolean noMoreMoves = moveCount > 0 && moveCount == moves.size();
+        int value;
+        if (noMoreMoves) {
+            value = bestValue;
+        } else {
+            value = probeTable(board, state, false, WDL_DRAW);
+            if (state.result == ProbeState.FAIL) {
+                return WDL_DRAW;
+            }
+        }
+
+        if (bestValue >= value) {
+            state.result = bestValue > WDL_DRAW || noMoreMoves ? ProbeState.ZEROING_BEST_MOVE : ProbeState.OK;
+            return bestValue;
+        }
+        state.result = ProbeState.OK;
+        return value;
+    }
+
+    private int probeDtz(Board board, ProbeState state) {
+        state.result = ProbeState.OK;
+        int wdl = search(board, state, true);
+        if (state.result == ProbeState.FAIL || wdl == WDL_DRAW) {
+            return 0; // Draws are not stored
+        }
+        if (state.result == ProbeState.ZEROING_BEST_MOVE) {
+            return dtzBeforeZeroing(wdl);
+        }
+
+        int dtz = probeTable(board, state, true, wdl);
+        if (state.result == ProbeState.FAIL) {
+            return 0;
+        }
+        if (state.result != ProbeState.CHANGE_STM) {
+            boolean cursed = wdl == WDL_BLESSED_LOSS || wdl == WDL_CURSED_WIN;
+            return (dtz + (cursed ? 100 : 0)) * Integer.signum(wdl);
+        }
+
+        // The table stores the other side to move: search one ply and take the best reply
+        int minDtz = 0xFFFF;
+        MoveList moves = new MoveList(256);
+        MoveList replies = new MoveList(256);
+        board.generateLegalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            Move move = moves.get(i);
+            boolean zeroing = board.isCapture(move) || board.getPieceType(move.getFrom()) == Piece.PAWN;
+            board.makeSearchMove(move);
+            // For zeroing moves the distance is that of the move itself, the sign tells
+            // whether it wins
+            dtz = zeroing ? -dtzBeforeZeroing(search(board, state, false)) : -probeDtz(board, state);
+            if (dtz == 1 && board.isInCheck()) {
+                board.generateLegalMoves(replies);
+                if (replies.size() == 0) {
+                    minDtz = 1; // Mate
+                }
+            }
+            if (!zeroing) {
+                dtz += Integer.signum(dtz);
+            }
+            if (dtz < minDtz && Integer.signum(dtz) == Integer.signum(wdl)) {
+                minDtz = dtz;
+            }
+            board.undoSearchMove();
+            if (state.result == ProbeState.FAIL) {
+                return 0;
+            }
+        }
+        return minDtz == 0xFFFF ? -1 : minDtz; // No legal move: mated
+    }
+
+    private int probeTable(Board board, ProbeState state, boolean dtz, int wdl) {
+        if (Long.bitCount(board.getAllPieces()) == 2) {
+            return WDL_DRAW; // KvK
+        }
+        SyzygyTable table = (dtz ? dtzTables : wdlTables).get(SyzygyTable.materialKey(board));
+        if (table == null || !table.ensureLoaded()) {
+            state.result = ProbeState.FAIL;
+            return 0;
+        }
+        return table.probe(board, wdl, state);
+    }
+
+    /**
+     * DTZ of a position whose best move zeroes the halfmove clock
+     */
+    private static int dtzBeforeZeroing(int wdl) {
+        switch (wdl) {
+            case WDL_WIN: return 1;
+            case WDL_CURSED_WIN: return 101;
+            case WDL_BLESSED_LOSS: return -101;
+            case WDL_LOSS: return -1;
+            default: return 0;
+        }
+    }
+
+    private static boolean hasCastlingRights(Board board) {
+        return board.canCastleWhiteKingside() || board.canCastleWhiteQueenside()
+                || board.canCastleBlackKingside() || board.canCastleBlackQueenside();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (SyzygyTable table : wdlTables.values()) {
+            table.close();
+        }
+        for (SyzygyTable table : dtzTables.values()) {
+            table.close();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package core.tuning;
+
+import core.board.Board;
+import core.eval.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Texel-style tuner for the evaluation parameters.
+ *
+ * The error of a parameter vector is the mean squared difference between the game results and
+ * the evaluation mapped through a sigmoid. The dataset is split into one chunk per core and every
+ * chunk is evaluated in parallel with the regular evaluators built from the candidate vector.
+ * Parameters are improved with Texel's local search: each weight is nudged up and down and the
+ * change is kept whenever the error drops.
+ */
+public class TexelTuner implements AutoCloseable {
+    // Parameters kept fixed: the pawn anchors the scale to centipawns, and a unit step of a
+    // phase boundary only changes positions whose material sits exactly on it
+    private static final int[] FIXED_PARAMETERS = {
+            EvaluationParameters.MATERIAL_PAWN,
+            EvaluationParameters.OPENING_MATERIAL_THRESHOLD,
+            EvaluationParameters.ENDGAME_MATERIAL_THRESHOLD
+    };
+
+    private final TuningDataset dataset;
+    private final int threads;
+    private final ExecutorService executor;
+    private double scalingConstant = 1.0;
+
+    public TexelTuner(TuningDataset dataset, int threads) {
+        this.dataset = dataset;
+        this.threads = Math.max(1, threads);
+        this.executor = Executors.newFixedThreadPool(this.threads);
+    }
+
+    /**
+     * Find the sigmoid scaling constant K that best fits the dataset for the given parameters.
+     * K is kept fixed during tuning so only the weights move.
+     */
+    public double computeScalingConstant(int[] params) {
+        double low = 0.0;
+        double high = 3.0;
+
+        // Golden section search, the error is unimodal in K
+        final double ratio = (Math.sqrt(5) - 1) / 2;
+        double x1 = high - ratio * (high - low);
+        double x2 = low + ratio * (high - low);
+        double e1 = computeError(params, x1);
+        double e2 = computeError(params, x2);
+
+        for (int i = 0; i < 30; i++) {
+            if (e1 < e2) {
+                high = x2;
+                x2 = x1;
+                e2 = e1;
+                x1 = high - ratio * (high - low);
+                e1 = computeError(params, x1);
+            } else {
+                low = x1;
+                x1 = x2;
+                e1 = e2;
+                x2 = low + ratio * (high - low);
+                e2 = computeError(params, x2);
+            }
+        }
+
+        scalingConstant = (low + high) / 2;
+        return scalingConstant;
+    }
+
+    public double computeError(int[] params) {
+        return computeError(params, scalingConstant);
+    }
+
+    /**
+     * Mean squared error of the dataset for a parameter vector, evaluated on all threads.
+     */
+    public double computeError(int[] params, double k) {
+        EvaluationParameters parameters = EvaluationParameters.fromArray(params);
+        int size = dataset.size();
+        int chunkSize = (size + threads - 1) / threads;
+
+        List<Future<Double>> futures = new ArrayList<>(threads);
+        for (int start = 0; start < size; start += chunkSize) {
+            final int from = start;
+            final int to = Math.min(size, start + chunkSize);
+            futures.add(executor.submit(() -> computeChunkError(parameters, k, from, to)));
+        }
+
+        double totalError = 0;
+        try {
+            for (Future<Double> future : futures) {
+                totalError += future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tuning interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error evaluating dataset", e.getCause());
+        }
+
+        return totalError / size;
+    }
+
+    private double computeChunkError(EvaluationParameters parameters, double k, int from, int to) {
+        // Evaluators keep no state between calls, but each chunk gets its own board
+        Evaluator[] evaluators = createEvaluators(parameters);
+        Board board = new Board();
+        double error = 0;
+
+        for (int i = from; i < to; i++) {
+            dataset.loadPosition(i, board);
+            int eval = 0;
+            for (Evaluator evaluator : evaluators) {
+                eval += evaluator.evaluate(board);
+            }
+            // Evaluators score from the side to move, results are from white's point of view
+            if (!board.isWhiteToMove()) {
+                eval = -eval;
+            }
+
+            double difference = dataset.getResult(i) - sigmoid(eval, k);
+            error += difference * difference;
+        }
+        return error;
+    }
+
+    private static Evaluator[] createEvaluators(EvaluationParameters parameters) {
+        return new Evaluator[]{
+                new MaterialEvaluator(parameters),
+                new PositionalEvaluator(parameters),
+                new PawnStructureEvaluator(parameters),
+                new EndgameEvaluator(parameters),
+                new KingSafetyEvaluator(parameters)
+        };
+    }
+
+    private static double sigmoid(int eval, double k) {
+        return 1.0 / (1.0 + Math.pow(10.0, -k * eval / 400.0));
+    }
+
+    /**
+     * Run Texel's local search starting from the given parameters.
+     *
+     * @param checkpoint File the best parameters are written to after every pass (may be null)
+     * @return The tuned parameter vector
+     */
+    public int[] tune(int[] initial, int maxPasses, Path checkpoint) throws IOException {
+        int[] best = initial.clone();
+        double bestError = computeError(best);
+        boolean[] fixed = new boolean[best.length];
+        for (int index : FIXED_PARAMETERS) {
+            fixed[index] = true;
+        }
+
+        List<String> names = EvaluationParameters.getNames();
+        System.out.printf("Initial error: %.8f (K = %.4f)%n", bestError, scalingConstant);
+
+        for (int pass = 1; pass <= maxPasses; pass++) {
+            long start = System.currentTimeMillis();
+            int improved = 0;
+
+            for (int i = 0; i < best.length; i++) {
+                if (fixed[i]) {
+                    continue;
+                }
+
+                int original = best[i];
+                best[i] = original + 1;
+                double error = computeError(best);
+
+                if (error < bestError) {
+                    bestError = error;
+                    improved++;
+                    continue;
+                }
+
+                best[i] = original - 1;
+                error = computeError(best);
+                if (error < bestError) {
+                    bestError = error;
+                    improved++;
+                } else {
+                    best[i] = original;
+                }
+            }
+
+            long elapsed = System.currentTimeMillis() - start;
+            System.out.printf("Pass %d: error %.8f, %d of %d parameters changed (%d ms)%n",
+                    pass, bestError, improved, names.size(), elapsed);
+
+            if (checkpoint != null) {
+                EvaluationParameters.fromArray(best.clone()).save(checkpoint);
+            }
+            if (improved == 0) {
+                break; // Local minimum reached
+            }
+        }
+
+        return best;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java core.tuning.TexelTuner <dataset> <output.properties|output.bin> [passes] [threads]");
+            System.out.println();
+            System.out.println("The dataset has one position per line: a FEN followed by the game result,");
+            System.out.println("e.g. \"<fen> [0.5]\" or \"<fen> c9 \\\"1-0\\\";\". The tuned parameters can be");
+            System.out.println("loaded at startup with -D" + EvaluationParameters.PARAMETERS_FILE_PROPERTY + "=<output file>.");
+            System.exit(1);
+        }
+
+        Path datasetFile = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        int passes = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.currentTimeMillis();
+        TuningDataset dataset = TuningDataset.load(datasetFile);
+        System.out.println("Loaded " + dataset.size() + " positions in " + (System.currentTimeMillis() - start) + " ms");
+        if (dataset.size() == 0) {
+            System.exit(1);
+        }
+
+        try (TexelTuner tuner = new TexelTuner(dataset, threads)) {
+            int[] initial = EvaluationParameters.getActive().toArray();
+            double k = tuner.computeScalingConstant(initial);
+            System.out.printf("Scaling constant K = %.4f using %d threads%n", k, threads);
+
+            int[] tuned = tuner.tune(initial, passes, output);
+            EvaluationParameters.fromArray(tuned).save(output);
+            System.out.println("Tuned parameters written to " + output);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package core.tuning;
+
+import core.board.Board;
+import core.fen.StreamingFenParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Labeled positions (FEN + game result) stored in flat primitive arrays.
+ * Each position takes 12 bitboards, a side-to-move flag and the result from white's point of view,
+ * so millions of positions fit in memory without keeping a Board per position.
+ */
+public class TuningDataset {
+    private static final int BITBOARDS_PER_POSITION = 12;
+
+    private final StreamingFenParser fenParser = new StreamingFenParser();
+
+    private long[] pieces;
+    private boolean[] whiteToMove;
+    private float[] results;
+    private int size;
+
+    public TuningDataset(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        this.pieces = new long[capacity * BITBOARDS_PER_POSITION];
+        this.whiteToMove = new boolean[capacity];
+        this.results = new float[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Load a dataset file with one position per line.
+     * Accepted result notations are "[1.0]" / "[0.5]" / "[0.0]" and "1-0" / "0-1" / "1/2-1/2"
+     * (optionally quoted, as in EPD "c9" opcodes). Lines that cannot be parsed are skipped.
+     */
+    public static TuningDataset load(Path file) throws IOException {
+        TuningDataset dataset = new TuningDataset(1 << 16);
+        Board board = new Board();
+        int skipped = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                if (!dataset.addLine(line, board)) {
+                    skipped++;
+                }
+            }
+        }
+
+        if (skipped > 0) {
+            System.out.println("Skipped " + skipped + " unparsable lines in " + file);
+        }
+        return dataset;
+    }
+
+    /**
+     * Parse a single "FEN result" line and append it.
+     *
+     * @param board Scratch board reused between calls
+     * @return True if the line was added
+     */
+    public boolean addLine(String line, Board board) {
+        float result = parseResult(line);
+        if (Float.isNaN(result)) {
+            return false;
+        }
+
+        if (fenParser.parse(line, 0, line.length(), board) < 0 || !board.isValid()) {
+            return false;
+        }
+
+        add(board, result);
+        return true;
+    }
+
+    /**
+     * Append the position currently on the board.
+     *
+     * @param result Game result from white's point of view (1 = win, 0.5 = draw, 0 = loss)
+     */
+    public void add(Board board, float result) {
+        ensureCapacity(size + 1);
+        board.getPieceBitboards(pieces, size * BITBOARDS_PER_POSITION);
+        whiteToMove[size] = board.isWhiteToMove();
+        results[size] = result;
+        size++;
+    }
+
+    /**
+     * Load position {@code index} into the board (pieces and side to move only).
+     */
+    public void loadPosition(int index, Board board) {
+        board.setPieceBitboards(pieces, index * BITBOARDS_PER_POSITION);
+        board.setWhiteToMove(whiteToMove[index]);
+        board.setEnPassantSquare(-1);
+    }
+
+    public float getResult(int index) {
+        return results[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= results.length) {
+            return;
+        }
+        int capacity = Math.max(required, results.length * 2);
+        pieces = Arrays.copyOf(pieces, capacity * BITBOARDS_PER_POSITION);
+        whiteToMove = Arrays.copyOf(whiteToMove, capacity);
+        results = Arrays.copyOf(results, capacity);
+    }
+
+    private static float parseResult(String line) {
+        if (line.contains("1/2-1/2")) return 0.5f;
+        if (line.contains("1-0")) return 1.0f;
+        if (line.contains("0-1")) return 0.0f;
+
+        int open = line.lastIndexOf('[');
+        int close = line.lastIndexOf(']');
+        if (open >= 0 && close > open) {
+            try {
+                return Float.parseFloat(line.substring(open + 1, close).trim());
+            } catch (NumberFormatException e) {
+                return Float.NaN;
+            }
+        }
+        return Float.NaN;
+    }
+}
@@ -2,93 +2,128 @@ package core.util;
 
 import core.board.Board;
 import core.board.Move;
+import core.board.MoveList;
+
 public class MoveNotation {
+    // UCI promotion suffix indexed by Move.QUEEN_PROMOTION..KNIGHT_PROMOTION
+    private static final char[] UCI_PROMOTION_CHARS = {'q', 'r', 'b', 'n'};
+    private static final char[] SAN_PROMOTION_CHARS = {'Q', 'R', 'B', 'N'};
+
+    /**
+     * Standard algebraic notation of a move, see {@link #toAlgebraic(Board, MoveList, Move)}.
+     * Generates the legal moves of the position once; callers that already have them should
+     * pass them in instead.
+     */
     public static String toAlgebraic(Board board, Move move) {
         if (move == null) {
             return "";
         }
+        MoveList legalMoves = new MoveList(256);
+        board.generateLegalMoves(legalMoves);
+        return toAlgebraic(board, legalMoves, move);
+    }
+    /**
+     * Standard algebraic notation of a move, e.g. "Nbd7", "exd5", "e8=Q+" or "O-O-O#".
+     *
+     * Disambiguation is decided from the given legal moves of the position. The move is played
+     * and taken back on the board itself to find check, and only a checking move needs a move
+     * generation in the resulting position to tell check from mate.
+     *
+     * @param legalMoves Legal moves of the position before the move
+     * @return The notation, or "" if the move is not in the legal move list
+     */
+    public static String toAlgebraic(Board board, MoveList legalMoves, Move move) {
+        StringBuilder algebraic = new StringBuilder(8);
+        appendAlgebraic(algebraic, board, legalMoves, move);
+        return algebraic.toString();
+    }
+    /**
+     * Append the standard algebraic notation of a move, see {@link #toAlgebraic(Board, MoveList, Move)}.
+     *
+     * @return False if the move is not in the legal move list; nothing is appended then
+     */
+    public static boolean appendAlgebraic(StringBuilder algebraic, Board board, MoveList legalMoves, Move move) {
+        if (move == null) {
+            return false;
+        }
 
         int fromSquare = move.getFrom();
         int toSquare = move.getTo();
         int pieceType = board.getPieceType(fromSquare);
-        boolean isCapture = board.hasPiece(toSquare) || (pieceType == Piece.PAWN && toSquare == board.getEnPassantSquare());
-        boolean isCheck = false;
-        boolean isCheckmate = false;
-
-        // Make the move on a temporary board to check for check/checkmate
-        Board tempBoard = board.clone();
-        tempBoard.makeMove(move);
 
-        if (tempBoard.isInCheck()) {
-            isCheck = true;
-
-            // Check if it's checkmate
-            if (tempBoard.isCheckmate()) {
-                isCheckmate = true;
+        // One pass over the legal moves finds the move itself (with its real move type, callers
+        // may pass a plain from/to move) and any other piece of the same type reaching the same square
+        Move legalMove = null;
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (int i = 0; i < legalMoves.size(); i++) {
+            Move candidate = legalMoves.get(i);
+            if (candidate.getTo() != toSquare) {
+                continue;
+            }
+            int candidateFrom = candidate.getFrom();
+            if (candidateFrom == fromSquare) {
+                if (!candidate.isPromotion() || !move.isPromotion() ||
+                        candidate.getPromotionPieceType() == move.getPromotionPieceType()) {
+                    if (legalMove == null) {
+                        legalMove = candidate;
+                    }
+                }
+            } else if (pieceType != Piece.PAWN && board.getPieceType(candidateFrom) == pieceType) {
+                ambiguous = true;
+                sameFile |= candidateFrom % 8 == fromSquare % 8;
+                sameRank |= candidateFrom / 8 == fromSquare / 8;
             }
         }
+        if (legalMove == null) {
+            return false;
+        }
 
-        StringBuilder algebraic = new StringBuilder();
+        char fromFile = (char)('a' + (fromSquare % 8));
+        char fromRank = (char)('1' + (fromSquare / 8));
 
-        // Castling
-        if (pieceType == Piece.KING && Math.abs(fromSquare - toSquare) == 2) {
-            if (toSquare > fromSquare) {
-                algebraic.append("O-O"); // Kingside castling
-            } else {
-                algebraic.append("O-O-O"); // Queenside castling
-            }
+        if (legalMove.getMoveType() == Move.CASTLING) {
+            algebraic.append(toSquare > fromSquare ? "O-O" : "O-O-O");
         } else {
-            // Non-castling moves
-            char pieceChar = getPieceChar(pieceType);
+            boolean isCapture = board.hasPiece(toSquare) || legalMove.getMoveType() == Move.EN_PASSANT;
 
-            // Add piece type except for pawns
             if (pieceType != Piece.PAWN) {
-                algebraic.append(pieceChar);
-            }
-
-            // Check if disambiguation is needed
-            if (needsDisambiguation(board, move)) {
-                char fromFile = (char)('a' + (fromSquare % 8));
-                char fromRank = (char)('1' + (fromSquare / 8));
-
-                // Try to use file first, then rank, then both
-                if (isFileDisambiguationSufficient(board, move)) {
-                    algebraic.append(fromFile);
-                } else if (isRankDisambiguationSufficient(board, move)) {
-                    algebraic.append(fromRank);
-                } else {
-                    algebraic.append(fromFile).append(fromRank);
+                algebraic.append(getPieceChar(pieceType));
+                // File if it tells the pieces apart, otherwise rank, otherwise both
+                if (ambiguous) {
+                    if (!sameFile) {
+                        algebraic.append(fromFile);
+                    } else if (!sameRank) {
+                        algebraic.append(fromRank);
+                    } else {
+                        algebraic.append(fromFile).append(fromRank);
+                    }
                 }
+            } else if (isCapture) {
+                algebraic.append(fromFile);
             }
 
-            // Add capture symbol if needed
             if (isCapture) {
-                if (pieceType == Piece.PAWN) {
-                    char fromFile = (char)('a' + (fromSquare % 8));
-                    algebraic.append(fromFile);
-                }
-                algebraic.append("x");
+                algebraic.append('x');
             }
 
-            // Add destination square
-            char toFile = (char)('a' + (toSquare % 8));
-            char toRank = (char)('1' + (toSquare / 8));
-            algebraic.append(toFile).append(toRank);
+            algebraic.append((char)('a' + (toSquare % 8))).append((char)('1' + (toSquare / 8)));
 
-            // Add promotion if applicable
-            if (move.isPromotion()) {
-                algebraic.append("=").append(getPieceChar(move.getPromotionPieceType()));
+            if (legalMove.isPromotion()) {
+                algebraic.append('=').append(SAN_PROMOTION_CHARS[legalMove.getPromotionPieceType()]);
             }
         }
 
-        // Add check or checkmate symbol
-        if (isCheckmate) {
-            algebraic.append("#");
-        } else if (isCheck) {
-            algebraic.append("+");
+        // Check and mate suffix
+        board.makeSearchMove(legalMove);
+        if (board.isInCheck()) {
+            MoveList replies = new MoveList(256);
+            board.generateLegalMoves(replies);
+            algebraic.append(replies.size() == 0 ? '#' : '+');
         }
-
-        return algebraic.toString();
+        board.undoSearchMove();
+        return true;
     }
     public static String ToUci(Move move) {
         if (move == null) {
@@ -108,12 +143,25 @@ public class MoveNotation {
 
         // Add promotion piece if applicable
         if (move.isPromotion()) {
-            char promotionPiece = Character.toLowerCase(getPieceChar(move.getPromotionPieceType()));
-            uciMove += promotionPiece;
+            uciMove += UCI_PROMOTION_CHARS[move.getPromotionPieceType()];
         }
 
         return uciMove;
     }
+    /**
+     * Space separated UCI notation of a move sequence stored as {@link Move#toInt()} values,
+     * e.g. a principal variation.
+     */
+    public static String ToUci(int[] moves) {
+        StringBuilder uci = new StringBuilder();
+        for (int i = 0; i < moves.length; i++) {
+            if (i > 0) {
+                uci.append(' ');
+            }
+            uci.append(ToUci(Move.fromInt(moves[i])));
+        }
+        return uci.toString();
+    }
     private static char getPieceChar(int pieceType) {
         switch (pieceType) {
             case Piece.KING: return 'K';
@@ -125,82 +173,4 @@ public class MoveNotation {
             default: return '?';
         }
     }
-    private static boolean needsDisambiguation(Board board, Move move) {
-        int fromSquare = move.getFrom();
-        int toSquare = move.getTo();
-        int pieceType = board.getPieceType(fromSquare);
-        boolean isWhitePiece = board.isWhitePiece(fromSquare);
-
-        // Pawns use file disambiguation only for captures, which is handled separately
-        if (pieceType == Piece.PAWN) {
-            return false;
-        }
-
-        // Find all pieces of the same type and color that can move to the same square
-        for (int square = 0; square < 64; square++) {
-            if (square == fromSquare) continue;
-
-            if (board.hasPiece(square) &&
-                    board.getPieceType(square) == pieceType &&
-                    board.isWhitePiece(square) == isWhitePiece) {
-
-                // Check if this piece can legally move to the destination
-                if (board.isLegalMove(new Move(square, toSquare))) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
-    }
-    private static boolean isFileDisambiguationSufficient(Board board, Move move) {
-        int fromSquare = move.getFrom();
-        int toSquare = move.getTo();
-        int pieceType = board.getPieceType(fromSquare);
-        boolean isWhitePiece = board.isWhitePiece(fromSquare);
-        int fromFile = fromSquare % 8;
-
-        // Check if any piece of the same type and color on a different file can move to the same square
-        for (int square = 0; square < 64; square++) {
-            if (square == fromSquare) continue;
-
-            if (board.hasPiece(square) &&
-                    board.getPieceType(square) == pieceType &&
-                    board.isWhitePiece(square) == isWhitePiece &&
-                    square % 8 != fromFile) {
-
-                // Check if this piece can legally move to the destination
-                if (board.isLegalMove(new Move(square, toSquare))) {
-                    return false;
-                }
-            }
-        }
-
-        return true;
-    }
-    private static boolean isRankDisambiguationSufficient(Board board, Move move) {
-        int fromSquare = move.getFrom();
-        int toSquare = move.getTo();
-        int pieceType = board.getPieceType(fromSquare);
-        boolean isWhitePiece = board.isWhitePiece(fromSquare);
-        int fromRank = fromSquare / 8;
-
-        // Check if any piece of the same type and color on a different rank can move to the same square
-        for (int square = 0; square < 64; square++) {
-            if (square == fromSquare) continue;
-
-            if (board.hasPiece(square) &&
-                    board.getPieceType(square) == pieceType &&
-                    board.isWhitePiece(square) == isWhitePiece &&
-                    square / 8 != fromRank) {
-
-                // Check if this piece can legally move to the destination
-                if (board.isLegalMove(new Move(square, toSquare))) {
-                    return false;
-                }
-            }
-        }
-
-        return true;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+package core.util;
+
+import core.board.Board;
+import core.board.Move;
+import core.board.MoveList;
+
+/**
+ * Resolves moves in standard algebraic notation (e.g. "Nbd7", "exd5", "e8=Q+", "O-O")
+ * against the legal moves of a position.
+ */
+public class SanParser {
+
+    /**
+     * Find the legal move described by the SAN text.
+     *
+     * @param legalMoves Legal moves of the position, as generated by MoveGenerator
+     * @return The matching move, or null if the text does not describe exactly one legal move
+     */
+    public static Move parse(Board board, MoveList legalMoves, CharSequence san) {
+        int end = san.length();
+        // Check, mate and annotation suffixes carry no information for resolving the move
+        while (end > 0 && isSuffix(san.charAt(end - 1))) {
+            end--;
+        }
+        if (end < 2) {
+            return null;
+        }
+
+        if (san.charAt(0) == 'O' || san.charAt(0) == '0') {
+            return parseCastling(board, legalMoves, san, end);
+        }
+
+        int pieceType = Piece.PAWN;
+        int start = 0;
+        switch (san.charAt(0)) {
+            case 'N': pieceType = Piece.KNIGHT; start = 1; break;
+            case 'B': pieceType = Piece.BISHOP; start = 1; break;
+            case 'R': pieceType = Piece.ROOK; start = 1; break;
+            case 'Q': pieceType = Piece.QUEEN; start = 1; break;
+            case 'K': pieceType = Piece.KING; start = 1; break;
+            default: break;
+        }
+
+        // Promotion piece, written "e8=Q" or "e8Q"
+        int promotion = -1;
+        if (pieceType == Piece.PAWN) {
+            promotion = promotionType(san.charAt(end - 1));
+            if (promotion >= 0) {
+                end--;
+                if (end > 0 && san.charAt(end - 1) == '=') {
+                    end--;
+                }
+            }
+        }
+
+        // Destination square is the last two characters left
+        if (end - start < 2) {
+            return null;
+        }
+        char toFile = san.charAt(end - 2);
+        char toRank = san.charAt(end - 1);
+        if (toFile < 'a' || toFile > 'h' || toRank < '1' || toRank > '8') {
+            return null;
+        }
+        int to = (toRank - '1') * 8 + (toFile - 'a');
+
+        // Anything between the piece and the destination is disambiguation or the capture mark
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int i = start; i < end - 2; i++) {
+            char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRank = c - '1';
+            } else if (c != 'x' && c != ':' && c != '-') {
+                return null;
+            }
+        }
+
+        Move match = null;
+        for (int i = 0; i < legalMoves.size(); i++) {
+            Move move = legalMoves.get(i);
+            int from = move.getFrom();
+            if (move.getTo() != to || board.getPieceType(from) != pieceType) {
+                continue;
+            }
+            if ((fromFile >= 0 && from % 8 != fromFile) || (fromRank >= 0 && from / 8 != fromRank)) {
+                continue;
+            }
+            if (move.isPromotion() != (promotion >= 0) ||
+                    (promotion >= 0 && move.getPromotionPieceType() != promotion)) {
+                continue;
+            }
+            if (match != null) {
+                return null; // Ambiguous
+            }
+            match = move;
+        }
+        return match;
+    }
+
+    private static Move parseCastling(Board board, MoveList legalMoves, CharSequence san, int end) {
+        // "O-O" is 3 characters, "O-O-O" is 5 (also written with zeros)
+        boolean queenside;
+        if (end == 3) {
+            queenside = false;
+        } else if (end == 5) {
+            queenside = true;
+        } else {
+            return null;
+        }
+
+        for (int i = 0; i < legalMoves.size(); i++) {
+            Move move = legalMoves.get(i);
+            if (move.getMoveType() == Move.CASTLING && (move.getTo() < move.getFrom()) == queenside) {
+                return move;
+            }
+        }
+        return null;
+    }
+
+    private static int promotionType(char c) {
+        switch (c) {
+            case 'Q': return Move.QUEEN_PROMOTION;
+            case 'R': return Move.ROOK_PROMOTION;
+            case 'B': return Move.BISHOP_PROMOTION;
+            case 'N': return Move.KNIGHT_PROMOTION;
+            default: return -1;
+        }
+    }
+
+    private static boolean isSuffix(char c) {
+        return c == '+' || c == '#' || c == '!' || c == '?';
+    }
+}
@@ -2,8 +2,12 @@ package gui;
 
 import core.board.Board;
 import core.board.Move;
+import core.engine.CancellationToken;
 import core.engine.ChessEngine;
+import core.engine.IterationInfo;
+import core.engine.SearchLine;
 import core.engine.SearchResult;
+import core.eval.CombinedEvaluator;
 import core.util.MoveNotation;
 import core.util.Square;
 import core.board.MoveList;
@@ -19,6 +23,8 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.io.File;
 import java.io.FileWriter;
 import javax.swing.JFileChooser;
@@ -39,12 +45,50 @@ public class ChessGUI extends JFrame {
     private JTextArea moveHistoryArea;
     private JLabel gameStatusLabel;
     private JTextField fenInputField;
+    private JLabel searchInfoLabel;
+    private JButton cancelSearchBtn;
+    // Controls that change the position, disabled while the engine thinks
+    private final List<JComponent> positionControls = new ArrayList<>();
+
+    // The engine searches on this thread so the window stays responsive
+    private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "engine-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Token of the running search, null when the engine is not thinking (EDT only)
+    private CancellationToken searchToken;
+    private long searchStartMillis;
+    private long searchNodes;
+
+    // Depth limit of infinite analysis; it runs until the position changes or analysis is switched off
+    private static final int ANALYSIS_DEPTH = 64;
+    // Number of best moves shown with their lines
+    private static final int ANALYSIS_LINES = 3;
+    // Separate engine for analysis, a Minimax instance cannot run two searches at once. Its
+    // transposition table is kept across restarts, so positions seen before are found again quickly.
+    private final ChessEngine analysisEngine;
+    private final ExecutorService analysisExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "engine-analysis");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Token of the running analysis, null when analysis is off (EDT only)
+    private CancellationToken analysisToken;
+    private JCheckBox analysisBox;
+    private EvaluationBar evaluationBar;
+    private JTextArea analysisArea;
 
     private final Map<Character, Image> pieceImages = new HashMap<>();
     public ChessGUI() {
         this.board = new Board();
         this.engine = new ChessEngine();
         engine.init();
+        this.analysisEngine = new ChessEngine();
+        analysisEngine.getParameters().setMaxDepth(ANALYSIS_DEPTH);
+        analysisEngine.getParameters().setUseOpeningBook(false);
+        analysisEngine.getParameters().setMultiPv(ANALYSIS_LINES);
+        analysisEngine.init();
 
         // Set up the frame
         setTitle("Chess Engine");
@@ -54,6 +98,8 @@ public class ChessGUI extends JFrame {
         // Initialize the board panel
         boardPanel = new BoardPanel();
         add(boardPanel, BorderLayout.CENTER);
+        evaluationBar = new EvaluationBar();
+        add(evaluationBar, BorderLayout.WEST);
 
         // Add a status label at the top
         gameStatusLabel = new JLabel("Game in progress");
@@ -73,11 +119,14 @@ public class ChessGUI extends JFrame {
         JButton engineMoveBtn = new JButton("Engine Move");
         JButton undoBtn = new JButton("Undo");
         JButton exportGameBtn = new JButton("Export Game");
+        cancelSearchBtn = new JButton("Cancel Search");
+        cancelSearchBtn.setEnabled(false);
 
         newGameBtn.addActionListener(e -> resetBoard());
         engineMoveBtn.addActionListener(e -> makeEngineMove());
         undoBtn.addActionListener(e -> undoMove());
         exportGameBtn.addActionListener(e -> exportGameHistory());
+        cancelSearchBtn.addActionListener(e -> cancelEngineMove());
 
         fenPanel.add(new JLabel("FEN Position: "), BorderLayout.WEST);
         fenPanel.add(fenInputField, BorderLayout.CENTER);
@@ -86,19 +135,40 @@ public class ChessGUI extends JFrame {
         buttonPanel.add(engineMoveBtn);
         buttonPanel.add(undoBtn);
         buttonPanel.add(exportGameBtn);
+        buttonPanel.add(cancelSearchBtn);
         controlPanel.add(buttonPanel, BorderLayout.NORTH);
         applyFenBtn.addActionListener(e -> applyFenPosition());
         JButton copyFenBtn = new JButton("Copy Current FEN");
         buttonPanel.add(copyFenBtn);
         copyFenBtn.addActionListener(e -> copyCurrentFen());
+        JCheckBox openingBookBox = new JCheckBox("Opening Book", engine.getParameters().isUseOpeningBook());
+        openingBookBox.addActionListener(e -> engine.getParameters().setUseOpeningBook(openingBookBox.isSelected()));
+        buttonPanel.add(openingBookBox);
+        analysisBox = new JCheckBox("Analysis");
+        analysisBox.addActionListener(e -> restartAnalysis());
+        buttonPanel.add(analysisBox);
+        positionControls.add(newGameBtn);
+        positionControls.add(engineMoveBtn);
+        positionControls.add(undoBtn);
+        positionControls.add(applyFenBtn);
+        positionControls.add(fenInputField);
 
 
         // Move history area
         moveHistoryArea = new JTextArea(5, 20);
         moveHistoryArea.setEditable(false);
         JScrollPane scrollPane = new JScrollPane(moveHistoryArea);
-        controlPanel.add(fenPanel, BorderLayout.SOUTH);
-        controlPanel.add(scrollPane, BorderLayout.CENTER);
+        analysisArea = new JTextArea(5, 20);
+        analysisArea.setEditable(false);
+        JPanel historyPanel = new JPanel(new GridLayout(1, 2));
+        historyPanel.add(scrollPane);
+        historyPanel.add(new JScrollPane(analysisArea));
+        searchInfoLabel = new JLabel(" ");
+        JPanel bottomPanel = new JPanel(new GridLayout(2, 1));
+        bottomPanel.add(searchInfoLabel);
+        bottomPanel.add(fenPanel);
+        controlPanel.add(bottomPanel, BorderLayout.SOUTH);
+        controlPanel.add(historyPanel, BorderLayout.CENTER);
 
         add(controlPanel, BorderLayout.SOUTH);
 
@@ -109,7 +179,7 @@ public class ChessGUI extends JFrame {
         loadPieceImages();
 
         // Set size and center the frame
-        setSize(600, 750);
+        setSize(640, 750);
         setLocationRelativeTo(null);
         setVisible(true);
     }
@@ -192,6 +262,7 @@ public class ChessGUI extends JFrame {
             selectedSquare = null;
             logMove("Applied FEN position: " + fen);
             updateGameStatus();
+            restartAnalysis(true);
         } else {
             JOptionPane.showMessageDialog(this,
                     "The FEN string is invalid. Please check and try again.",
@@ -277,16 +348,24 @@ public class ChessGUI extends JFrame {
         }
     }
     private void resetBoard() {
+        if (isEngineThinking()) {
+            return;
+        }
         board = new Board();
         board.setInitialPosition();
         boardPanel.repaint();
         selectedSquare = null;
         moveHistoryArea.setText("Game started with initial position.\n");
         updateGameStatus();
+        restartAnalysis(true);
     }
+    /**
+     * Start the engine search on the background thread. The board is locked until the search
+     * ends; progress is shown after every iteration and the move is played on the EDT.
+     */
     private void makeEngineMove() {
-        // Check if the game is already over
-        if (isGameOver()) {
+        // Check if the game is already over or the engine is already thinking
+        if (isEngineThinking() || isGameOver()) {
             return;
         }
 
@@ -295,30 +374,197 @@ public class ChessGUI extends JFrame {
         engine.getMoveGenerator().generateLegalMoves(board, moveList);
         System.out.println("Legal moves available for engine: " + moveList.size());
 
-        SearchResult result = engine.search(board);
+        // The search works on a copy, the EDT keeps painting the displayed board. The copy keeps
+        // the positions of the game so the search still sees repetitions.
+        Board searchBoard = board.clone();
+        CancellationToken token = new CancellationToken();
+        setEngineThinking(token);
+
+        searchExecutor.execute(() -> {
+            SearchResult result = null;
+            try {
+                result = engine.search(searchBoard, token,
+                        info -> SwingUtilities.invokeLater(() -> showSearchProgress(token, info)));
+            } catch (RuntimeException e) {
+                System.err.println("Engine search failed: " + e.getMessage());
+                e.printStackTrace();
+            }
+            SearchResult finalResult = result;
+            SwingUtilities.invokeLater(() -> finishEngineMove(token, finalResult));
+        });
+    }
+    private void cancelEngineMove() {
+        if (searchToken != null) {
+            searchToken.cancel(); // The search stops within a few thousand nodes
+            cancelSearchBtn.setEnabled(false);
+        }
+    }
+    private boolean isEngineThinking() {
+        return searchToken != null;
+    }
+    private void setEngineThinking(CancellationToken token) {
+        searchToken = token;
+        boolean thinking = token != null;
+        if (thinking) {
+            searchStartMillis = System.currentTimeMillis();
+            searchNodes = 0;
+            searchInfoLabel.setText("Engine thinking...");
+            selectedSquare = null;
+            boardPanel.clearHighlights();
+        }
+        for (JComponent control : positionControls) {
+            control.setEnabled(!thinking);
+        }
+        cancelSearchBtn.setEnabled(thinking);
+        setCursor(Cursor.getPredefinedCursor(thinking ? Cursor.WAIT_CURSOR : Cursor.DEFAULT_CURSOR));
+    }
+    private void showSearchProgress(CancellationToken token, IterationInfo info) {
+        if (token != searchToken) {
+            return; // Update of a search that already finished
+        }
+        searchNodes += info.getNodesSearched();
+        long elapsed = Math.max(1, System.currentTimeMillis() - searchStartMillis);
+        searchInfoLabel.setText(String.format("Depth %d | Nodes %,d | %,d nps | Best: %s | Score: %d",
+                info.getDepth(), searchNodes, searchNodes * 1000 / elapsed,
+                generateAlgebraicNotation(info.getBestMove()), info.getScore()));
+    }
+    private void finishEngineMove(CancellationToken token, SearchResult result) {
+        setEngineThinking(null);
+        if (token.isCancelled()) {
+            searchInfoLabel.setText("Search cancelled");
+            logMove("Engine: search cancelled");
+            return;
+        }
+        if (result == null) {
+            searchInfoLabel.setText("Search failed");
+            return;
+        }
+
         if (result.getBestMove() != null) {
             Move bestMove = result.getBestMove();
             String algebraicMove = generateAlgebraicNotation(bestMove);
-            logMove("Engine: " + algebraicMove);
+            logMove("Engine: " + algebraicMove + (result.isBookMove() ? " (book)" : ""));
             board.makeMove(bestMove);
             boardPanel.repaint();
             System.out.println("Engine move: " + algebraicMove);
             System.out.println("Evaluation: " + result.getScore());
+            System.out.println("Principal variation: " + result.getPrincipalVariationUci());
 
             // Check game state after engine move
             updateGameStatus();
+            restartAnalysis();
         } else {
             logMove("Engine: No legal moves available");
             System.out.println("Engine couldn't find a best move. Nodes searched: " + result.getNodesSearched());
             updateGameStatus(); // This will check for stalemate or checkmate
         }
     }
+    /**
+     * Stop the running analysis and, if analysis is on, start analysing the current position.
+     * The new search waits on the analysis thread until the old one has seen its cancellation,
+     * which takes a few thousand nodes.
+     */
+    private void restartAnalysis() {
+        restartAnalysis(false);
+    }
+    /**
+     * Restart the analysis as above. When moves were taken back or a new game was set up, the
+     * stored results are forgotten as well: their scores may rest on repetitions of positions
+     * that are no longer part of the game.
+     */
+    private void restartAnalysis(boolean historyChanged) {
+        if (analysisToken != null) {
+            analysisToken.cancel();
+            analysisToken = null;
+        }
+        if (!analysisBox.isSelected()) {
+            evaluationBar.clearScore();
+            analysisArea.setText("");
+            return;
+        }
+        if (isGameOver()) {
+            analysisArea.setText("Game over");
+            return;
+        }
+
+        // The copy keeps the positions of the game so the analysis sees repetitions
+        Board analysisBoard = board.clone();
+        CancellationToken token = new CancellationToken();
+        analysisToken = token;
+        analysisArea.setText("Analysing...");
+        analysisExecutor.execute(() -> {
+            if (historyChanged) {
+                analysisEngine.clearHash(); // On this thread, after the old search has finished
+            }
+            if (token.isCancelled()) {
+                return; // The position changed again before this search started
+            }
+            try {
+                analysisEngine.search(analysisBoard, token,
+                        info -> SwingUtilities.invokeLater(() -> showAnalysis(token, analysisBoard, info)));
+            } catch (RuntimeException e) {
+                System.err.println("Analysis failed: " + e.getMessage());
+                e.printStackTrace();
+            }
+        });
+    }
+    private void showAnalysis(CancellationToken token, Board analysisBoard, IterationInfo info) {
+        if (token != analysisToken) {
+            return; // Update of an analysis of an earlier position
+        }
+        evaluationBar.setScore(info.getScore());
+        StringBuilder text = new StringBuilder("Depth " + info.getDepth());
+        for (SearchLine line : info.getLines()) {
+            text.append('\n').append(formatScore(line.getScore())).append("  ")
+                    .append(formatLine(analysisBoard, line.getPrincipalVariation()));
+        }
+        analysisArea.setText(text.toString());
+        analysisArea.setCaretPosition(0);
+    }
+    /**
+     * Score from white's point of view in pawns, or the moves to mate as "M3" / "-M3"
+     */
+    private static String formatScore(int whiteScore) {
+        if (CombinedEvaluator.isMateScore(whiteScore)) {
+            int moves = (CombinedEvaluator.getMateDistance(whiteScore) + 1) / 2;
+            return (whiteScore > 0 ? "M" : "-M") + moves;
+        }
+        return String.format("%+.2f", whiteScore / 100.0);
+    }
+    /**
+     * Moves of a line in standard algebraic notation with move numbers, played on a copy of the board
+     */
+    private static String formatLine(Board start, int[] line) {
+        Board lineBoard = start.clone();
+        StringBuilder text = new StringBuilder();
+        MoveList legalMoves = new MoveList(256);
+        for (int i = 0; i < line.length; i++) {
+            Move move = Move.fromInt(line[i]);
+            if (lineBoard.isWhiteToMove()) {
+                text.append(lineBoard.getFullmoveNumber()).append(". ");
+            } else if (i == 0) {
+                text.append(lineBoard.getFullmoveNumber()).append("... ");
+            }
+            legalMoves.clear();
+            lineBoard.generateLegalMoves(legalMoves);
+            if (!MoveNotation.appendAlgebraic(text, lineBoard, legalMoves, move)) {
+                break;
+            }
+            text.append(' ');
+            lineBoard.makeMove(move);
+        }
+        return text.toString().trim();
+    }
     private void undoMove() {
+        if (isEngineThinking()) {
+            return;
+        }
         board.undoMove();
         boardPanel.repaint();
         selectedSquare = null;
         logMove("Move undone");
         updateGameStatus();
+        restartAnalysis(true);
     }
     private void logMove(String moveText) {
         moveHistoryArea.append(moveText + "\n");
@@ -326,10 +572,8 @@ public class ChessGUI extends JFrame {
         moveHistoryArea.setCaretPosition(moveHistoryArea.getDocument().getLength());
     }
     private String generateAlgebraicNotation(Move move) {
-        // Clone the current board to preserve its state
-        Board tempBoard = board.clone();
-        // Generate notation before making the move
-        return MoveNotation.toAlgebraic(tempBoard, move);
+        // Generate notation before making the move; the board is left as it was
+        return MoveNotation.toAlgebraic(board, move);
     }
     private void updateGameStatus() {
         if (board.isCheckmate()) {
@@ -424,6 +668,8 @@ public class ChessGUI extends JFrame {
         private static final int SQUARE_SIZE = 64;
 
         private java.util.List<Square> possibleMoves = new ArrayList<>();
+        // Targets of captures that lose material according to the static exchange evaluation
+        private java.util.List<Square> losingCaptures = new ArrayList<>();
 
         public BoardPanel() {
             setPreferredSize(new Dimension(8 * SQUARE_SIZE, 8 * SQUARE_SIZE));
@@ -436,8 +682,8 @@ public class ChessGUI extends JFrame {
             addMouseListener(new MouseAdapter() {
                 @Override
                 public void mouseClicked(MouseEvent e) {
-                    // Check if game is over
-                    if (isGameOver()) {
+                    // Check if game is over; the board is locked while the engine thinks
+                    if (isEngineThinking() || isGameOver()) {
                         return;
                     }
 
@@ -513,10 +759,12 @@ public class ChessGUI extends JFrame {
                     board.makeMove(matchingMove);
                     selectedSquare = null;
                     possibleMoves.clear();  // Clear highlights
+                    losingCaptures.clear();
                     repaint();
 
                     // Check game state after human move
                     updateGameStatus();
+                    restartAnalysis();
 
                     // Make engine move if game is not over
                     if (!isGameOver()) {
@@ -535,25 +783,41 @@ public class ChessGUI extends JFrame {
                         } else {
                             selectedSquare = null;
                             possibleMoves.clear();
+                            losingCaptures.clear();
                         }
                     } else {
                         selectedSquare = null;
                         possibleMoves.clear();
+                        losingCaptures.clear();
                     }
                     repaint();
                 }
             }
         }
 
+        private void clearHighlights() {
+            possibleMoves.clear();
+            losingCaptures.clear();
+            repaint();
+        }
+
         private void highlightPossibleMoves(Square selected) {
             possibleMoves.clear();
+            losingCaptures.clear();
             MoveList moveList = new MoveList(256);
             engine.getMoveGenerator().generateLegalMoves(board, moveList);
 
             for (int i = 0; i < moveList.size(); i++) {
                 Move move = moveList.get(i);
                 if (move.getFrom() == selected.getSquare()) {
-                    possibleMoves.add(Square.fromIndex(move.getTo()));
+                    Square target = Square.fromIndex(move.getTo());
+                    if (board.isCapture(move) && board.staticExchangeEvaluation(move) < 0) {
+                        if (!losingCaptures.contains(target)) {
+                            losingCaptures.add(target);
+                        }
+                    } else {
+                        possibleMoves.add(target);
+                    }
                 }
             }
         }
@@ -580,6 +844,15 @@ public class ChessGUI extends JFrame {
                         SQUARE_SIZE / 2, SQUARE_SIZE / 2);
             }
 
+            // Highlight captures that lose material
+            g2d.setColor(new Color(255, 0, 0, 128));
+            for (Square move : losingCaptures) {
+                int file = move.getFile();
+                int rank = move.getRank();
+                g2d.fillOval(file * SQUARE_SIZE + SQUARE_SIZE / 4, (7 - rank) * SQUARE_SIZE + SQUARE_SIZE / 4,
+                        SQUARE_SIZE / 2, SQUARE_SIZE / 2);
+            }
+
             drawPieces(g2d);
         }
 
@@ -647,6 +920,45 @@ public class ChessGUI extends JFrame {
             }
         }
     }
+    /**
+     * Vertical bar showing white's share of the evaluation, white from the bottom
+     */
+    private static class EvaluationBar extends JPanel {
+        private boolean hasScore;
+        private int whiteScore;
+
+        EvaluationBar() {
+            setPreferredSize(new Dimension(24, 8 * BoardPanel.SQUARE_SIZE));
+        }
+
+        void setScore(int whiteScore) {
+            this.whiteScore = whiteScore;
+            this.hasScore = true;
+            repaint();
+        }
+
+        void clearScore() {
+            hasScore = false;
+            repaint();
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            if (!hasScore) {
+                return;
+            }
+            // Expected result of white from the score, a pawn up is about 64%
+            double whiteShare = CombinedEvaluator.isMateScore(whiteScore) ? (whiteScore > 0 ? 1 : 0)
+                    : 1 / (1 + Math.pow(10, -whiteScore / 400.0));
+            int height = getHeight();
+            int whiteHeight = (int) Math.round(height * whiteShare);
+            g.setColor(new Color(60, 60, 60));
+            g.fillRect(0, 0, getWidth(), height - whiteHeight);
+            g.setColor(new Color(235, 235, 235));
+            g.fillRect(0, height - whiteHeight, getWidth(), whiteHeight);
+        }
+    }
     public static void main(String[] args) {
         SwingUtilities.invokeLater(ChessGUI::new);
     }
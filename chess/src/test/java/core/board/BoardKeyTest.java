@@ -0,0 +1,76 @@
+package core.board;
+
+import core.book.PolyglotKey;
+import core.fen.FenParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BoardKeyTest {
+    private static final String[] POSITIONS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            // Castling both ways, en passant, promotions
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+            "n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"
+    };
+
+    @Test
+    void keyFollowsSearchMovesNullMovesAndUndo() {
+        Random random = new Random(7);
+        MoveGenerator moveGenerator = new MoveGenerator();
+        for (String fen : POSITIONS) {
+            Board board = new Board();
+            FenParser.loadPosition(board, fen);
+            for (int game = 0; game < 50; game++) {
+                walk(board, moveGenerator, random, 12);
+                assertEquals(PolyglotKey.hash(board), board.getKey(), fen);
+            }
+        }
+    }
+
+    @Test
+    void keyIsRecomputedAfterTheBoardIsChanged() {
+        Board board = new Board();
+        FenParser.loadPosition(board, POSITIONS[1]);
+        long key = board.getKey();
+        board.setCastleWhiteKingside(false);
+        assertEquals(PolyglotKey.hash(board), board.getKey());
+        board.setCastleWhiteKingside(true);
+        assertEquals(key, board.getKey());
+    }
+
+    /**
+     * Random search moves and null moves to the given depth and back, checking the key at every
+     * node; the key is not asked for at some nodes, as in quiescence search.
+     */
+    private static void walk(Board board, MoveGenerator moveGenerator, Random random, int depth) {
+        boolean askForKey = random.nextInt(4) != 0;
+        if (askForKey) {
+            assertEquals(PolyglotKey.hash(board), board.getKey(), "depth " + depth);
+        }
+        if (depth == 0) {
+            return;
+        }
+        if (random.nextInt(8) == 0 && !board.isInCheck()) {
+            board.makeNullMove();
+            walk(board, moveGenerator, random, depth - 1);
+            board.undoNullMove();
+        } else {
+            MoveList moves = new MoveList(256);
+            moveGenerator.generateLegalMoves(board, moves);
+            if (moves.size() == 0) {
+                return;
+            }
+            board.makeSearchMove(moves.get(random.nextInt(moves.size())));
+            walk(board, moveGenerator, random, depth - 1);
+            board.undoSearchMove();
+        }
+        if (askForKey) {
+            assertEquals(PolyglotKey.hash(board), board.getKey(), "depth " + depth + " after undo");
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package core.engine;
+
+import core.board.Board;
+import core.board.MoveGenerator;
+import core.eval.CombinedEvaluator;
+import core.fen.FenParser;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinimaxTest {
+    @Test
+    void loneMinorPieceSearchesAsDraw() {
+        assertEquals(CombinedEvaluator.STALEMATE_VALUE, score("8/8/8/4k3/8/8/3B4/4K3 w - - 0 1", 6));
+        assertEquals(CombinedEvaluator.STALEMATE_VALUE, score("8/8/8/4k3/8/8/3N4/4K3 b - - 0 1", 6));
+    }
+
+    @Test
+    void sameColouredBishopsSearchAsDraw() {
+        assertEquals(CombinedEvaluator.STALEMATE_VALUE, score("5b2/8/8/4k3/8/8/3B4/4K3 w - - 0 1", 6));
+    }
+
+    @Test
+    void loneRookStillWins() {
+        assertTrue(score("8/8/8/4k3/8/8/3R4/4K3 w - - 0 1", 4) > 0);
+    }
+
+    private static int score(String fen, int depth) {
+        Board board = new Board();
+        FenParser.loadPosition(board, fen);
+        Minimax minimax = new Minimax(new CombinedEvaluator(), new MoveGenerator());
+        return minimax.findBestMove(board, depth).getScore();
+    }
+}
@@ -0,0 +1,50 @@
+package core.eval;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KpkBitbaseTest {
+    @Test
+    void kingInFrontOfPawnOnTheSixthWins() {
+        // Ke6, Pe5 against Ke8 with either side to move
+        assertTrue(KpkBitbase.isWin(square("e6"), square("e5"), square("e8"), true, true));
+        assertTrue(KpkBitbase.isWin(square("e6"), square("e5"), square("e8"), true, false));
+    }
+
+    @Test
+    void oppositionDecides() {
+        // Kd5, Pd4 against Kd7: the side to move loses the opposition
+        assertFalse(KpkBitbase.isWin(square("d5"), square("d4"), square("d7"), true, true));
+        assertTrue(KpkBitbase.isWin(square("d5"), square("d4"), square("d7"), true, false));
+    }
+
+    @Test
+    void rookPawnWithTheKingInTheCornerIsDrawn() {
+        // Kb6, Pa5 against Ka8
+        assertFalse(KpkBitbase.isWin(square("b6"), square("a5"), square("a8"), true, true));
+        assertFalse(KpkBitbase.isWin(square("b6"), square("a5"), square("a8"), true, false));
+    }
+
+    @Test
+    void mirroredPositionsGiveTheSameResult() {
+        // The positions above with a black pawn, and on the other wing
+        assertTrue(KpkBitbase.isWin(square("e3"), square("e4"), square("e1"), false, true));
+        assertFalse(KpkBitbase.isWin(square("d4"), square("d5"), square("d2"), false, true));
+        assertTrue(KpkBitbase.isWin(square("d4"), square("d5"), square("d2"), false, false));
+        assertFalse(KpkBitbase.isWin(square("g6"), square("h5"), square("h8"), true, true));
+    }
+
+    @Test
+    void pawnOnTheFirstOrLastRankIsNoWin() {
+        assertFalse(KpkBitbase.isWin(square("e6"), square("e8"), square("a8"), true, true));
+        assertFalse(KpkBitbase.isWin(square("e6"), square("e1"), square("a8"), true, true));
+        assertFalse(KpkBitbase.isWin(square("e3"), square("e1"), square("a1"), false, false));
+        assertFalse(KpkBitbase.isWin(square("e3"), square("e8"), square("a1"), false, false));
+    }
+
+    private static int square(String name) {
+        return (name.charAt(1) - '1') * 8 + (name.charAt(0) - 'a');
+    }
+}
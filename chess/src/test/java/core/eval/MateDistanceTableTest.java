@@ -0,0 +1,56 @@
+package core.eval;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MateDistanceTableTest {
+    @Test
+    void longestRookMateTakesSixteenMoves() {
+        assertEquals(31, longestMate(MateDistanceTable.rook()));
+    }
+
+    @Test
+    void longestQueenMateTakesTenMoves() {
+        assertEquals(19, longestMate(MateDistanceTable.queen()));
+    }
+
+    @Test
+    void mateInOne() {
+        // Rh1-h8 and Qc1-c8 against Ka8 with Kb6
+        assertEquals(1, MateDistanceTable.rook().getPliesToMate(square("b6"), square("h1"), square("a8"), true));
+        assertEquals(1, MateDistanceTable.queen().getPliesToMate(square("b6"), square("c1"), square("a8"), true));
+    }
+
+    @Test
+    void matedKingIsAtZero() {
+        assertEquals(0, MateDistanceTable.rook().getPliesToMate(square("b6"), square("h8"), square("a8"), false));
+        assertEquals(0, MateDistanceTable.queen().getPliesToMate(square("b6"), square("b7"), square("a8"), false));
+    }
+
+    @Test
+    void lostPieceOrStalemateIsNotWon() {
+        // The lone king takes the undefended rook on h1
+        assertEquals(-1, MateDistanceTable.rook().getPliesToMate(square("a1"), square("h1"), square("g2"), false));
+        // Ka8 has no move against Rb7 defended by Kb6
+        assertEquals(-1, MateDistanceTable.rook().getPliesToMate(square("b6"), square("b7"), square("a8"), false));
+    }
+
+    private static int longestMate(MateDistanceTable table) {
+        int longest = -1;
+        for (int strongKing = 0; strongKing < 64; strongKing++) {
+            for (int piece = 0; piece < 64; piece++) {
+                for (int weakKing = 0; weakKing < 64; weakKing++) {
+                    if (strongKing != piece && piece != weakKing && weakKing != strongKing) {
+                        longest = Math.max(longest, table.getPliesToMate(strongKing, piece, weakKing, true));
+                    }
+                }
+            }
+        }
+        return longest;
+    }
+
+    private static int square(String name) {
+        return (name.charAt(1) - '1') * 8 + (name.charAt(0) - 'a');
+    }
+}
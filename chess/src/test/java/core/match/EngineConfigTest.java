@@ -0,0 +1,72 @@
+package core.match;
+
+import core.board.Board;
+import core.board.MoveGenerator;
+import core.engine.Minimax;
+import core.eval.CombinedEvaluator;
+import core.fen.FenParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class EngineConfigTest {
+    // A rook and twelve pawns: a middlegame with the default phase boundaries
+    private static final String POSITION = "6k1/ppp2ppp/8/8/8/8/PPP2PPP/4K2R w K - 0 1";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void evalFilesDifferingInPhaseBoundariesEvaluateDifferently() throws IOException {
+        EngineConfig base = config("base", "ENDGAME_MATERIAL_THRESHOLD=1500\n");
+        EngineConfig same = config("same", "ENDGAME_MATERIAL_THRESHOLD=1500\n");
+        EngineConfig changed = config("changed", "ENDGAME_MATERIAL_THRESHOLD=2000\n");
+
+        assertEquals(staticEvaluation(base), staticEvaluation(same));
+        assertNotEquals(staticEvaluation(base), staticEvaluation(changed));
+    }
+
+    @Test
+    void evalFilesDifferingInMaterialEvaluateDifferently() throws IOException {
+        EngineConfig base = config("base", "MATERIAL_ROOK=500\n");
+        EngineConfig changed = config("changed", "MATERIAL_ROOK=600\n");
+
+        assertNotEquals(staticEvaluation(base), staticEvaluation(changed));
+    }
+
+    @Test
+    void searchesUseTheLoadedParameters() throws IOException {
+        EngineConfig base = config("base", "ENDGAME_MATERIAL_THRESHOLD=1500\n");
+        EngineConfig changed = config("changed", "ENDGAME_MATERIAL_THRESHOLD=2000\n");
+
+        assertNotEquals(base.createSearch().findBestMove(board(), 1).getScore(),
+                changed.createSearch().findBestMove(board(), 1).getScore());
+    }
+
+    private EngineConfig config(String name, String parameters) throws IOException {
+        Path file = directory.resolve(name + ".properties");
+        Files.writeString(file, parameters);
+        EngineConfig config = EngineConfig.parse("name=" + name + ",eval=" + file, name);
+        assertNotNull(config);
+        return config;
+    }
+
+    private static int staticEvaluation(EngineConfig config) {
+        CombinedEvaluator evaluator = new CombinedEvaluator();
+        new Minimax(evaluator, new MoveGenerator(), config.getParameters());
+        return evaluator.evaluateStatic(board());
+    }
+
+    private static Board board() {
+        Board board = new Board();
+        FenParser.loadPosition(board, POSITION);
+        return board;
+    }
+}
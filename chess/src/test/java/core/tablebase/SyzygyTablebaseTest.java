@@ -0,0 +1,241 @@
+package core.tablebase;
+
+import core.board.Board;
+import core.board.Move;
+import core.board.MoveList;
+import core.eval.KpkBitbase;
+import core.eval.MateDistanceTable;
+import core.fen.FenParser;
+import core.util.MoveNotation;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Probes of real Syzygy tables against positions with known results, and of every KPvK and
+ * KRvK position against the engine's own KPK bitbase and KRK mate distances. Needs KPvK and
+ * KRvK (.rtbw and .rtbz, e.g. from https://tablebase.lichess.ovh/tables/standard/3-4-5/) in
+ * the directory of the syzygy.path system property, by default src/test/resources/syzygy;
+ * the tests are skipped when they are missing.
+ */
+class SyzygyTablebaseTest {
+    private static final String[] REQUIRED_TABLES = {"KPvK", "KRvK"};
+
+    private static SyzygyTablebase tablebase;
+
+    @BeforeAll
+    static void openTables() {
+        tablebase = new SyzygyTablebase(System.getProperty("syzygy.path", "src/test/resources/syzygy"));
+    }
+
+    @AfterAll
+    static void closeTables() throws IOException {
+        tablebase.close();
+    }
+
+    @Test
+    void kingInFrontOfPawnOnTheSixthWins() {
+        assertWdl("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1", SyzygyTablebase.WDL_WIN);
+        assertWdl("4k3/8/4K3/4P3/8/8/8/8 b - - 0 1", SyzygyTablebase.WDL_LOSS);
+    }
+
+    @Test
+    void oppositionDecidesKingAndPawnInTheCentre() {
+        assertWdl("8/3k4/8/3K4/3P4/8/8/8 w - - 0 1", SyzygyTablebase.WDL_DRAW);
+        assertWdl("8/3k4/8/3K4/3P4/8/8/8 b - - 0 1", SyzygyTablebase.WDL_LOSS);
+    }
+
+    @Test
+    void rookPawnWithTheKingInTheCornerIsDrawn() {
+        assertWdl("k7/8/1K6/P7/8/8/8/8 w - - 0 1", SyzygyTablebase.WDL_DRAW);
+        assertWdl("k7/8/1K6/P7/8/8/8/8 b - - 0 1", SyzygyTablebase.WDL_DRAW);
+    }
+
+    @Test
+    void kingAndRookWinUnlessTheRookIsLost() {
+        assertWdl("4k3/8/8/8/8/8/8/R3K3 w - - 0 1", SyzygyTablebase.WDL_WIN);
+        assertWdl("8/8/8/8/8/8/6k1/K6R b - - 0 1", SyzygyTablebase.WDL_DRAW); // Kxh1
+        assertWdl("k7/1R6/1K6/8/8/8/8/8 b - - 0 1", SyzygyTablebase.WDL_DRAW); // Stalemate
+        assertWdl("k6R/8/1K6/8/8/8/8/8 b - - 0 1", SyzygyTablebase.WDL_LOSS); // Mate
+    }
+
+    @Test
+    void distanceToZeroing() {
+        assumeTables();
+        // e7 wins at once
+        assertEquals(1, tablebase.probeDtz(board("7k/5K2/4P3/8/8/8/8/8 w - - 0 1")));
+        assertEquals(0, tablebase.probeDtz(board("k7/8/1K6/P7/8/8/8/8 w - - 0 1")));
+        assertTrue(tablebase.probeDtz(board("4k3/8/4K3/4P3/8/8/8/8 b - - 0 1")) < 0);
+        // King and rook mate in at most 16 moves without a zeroing move on the way; the
+        // table value can be one ply off
+        int dtz = tablebase.probeDtz(board("4k3/8/8/8/8/8/8/R3K3 w - - 0 1"));
+        assertTrue(dtz > 0 && dtz <= 32, "DTZ " + dtz);
+    }
+
+    @Test
+    void rootMovesAreScoredFromTheRoot() {
+        assumeTables();
+        Board board = board("7k/5K2/4P3/8/8/8/8/8 w - - 0 1");
+        assertEquals(1, rootDtz(board, "e6e7"));
+    }
+
+    @Test
+    void rootMoveRepeatingAGamePositionIsADraw() {
+        assumeTables();
+        Board board = board("7k/8/8/8/8/8/8/R6K w - - 0 1");
+        assertTrue(rootDtz(board, "h1g1") > 0);
+
+        // Both kings step back and forth twice, the position after h1g1 has occurred twice
+        for (String move : "h1g1 h8g8 g1h1 g8h8 h1g1 h8g8 g1h1 g8h8".split(" ")) {
+            board.makeMove(find(board, move));
+        }
+        assertEquals(0, rootDtz(board, "h1g1"));
+        assertTrue(rootDtz(board, "a1a7") > 0);
+    }
+
+    @Test
+    void everyKingAndPawnPositionAgreesWithTheBitbase() {
+        assumeTables();
+        Board board = new Board();
+        int positions = 0;
+        for (int pawn = 8; pawn < 56; pawn++) {
+            for (int strongKing = 0; strongKing < 64; strongKing++) {
+                for (int weakKing = 0; weakKing < 64; weakKing++) {
+                    for (boolean strongToMove : new boolean[] {true, false}) {
+                        String fen = load(board, strongKing, pawn, 'P', weakKing, strongToMove);
+                        if (fen == null) {
+                            continue;
+                        }
+                        int expected = !KpkBitbase.isWin(strongKing, pawn, weakKing, true, strongToMove)
+                                ? SyzygyTablebase.WDL_DRAW
+                                : strongToMove ? SyzygyTablebase.WDL_WIN : SyzygyTablebase.WDL_LOSS;
+                        assertEquals(expected, tablebase.probeWdl(board), fen);
+                        positions++;
+                    }
+                }
+            }
+        }
+        assertTrue(positions > 300_000, positions + " positions");
+    }
+
+    @Test
+    void everyKingAndRookPositionAgreesWithTheMateDistances() {
+        assumeTables();
+        MateDistanceTable mates = MateDistanceTable.rook();
+        Board board = new Board();
+        int positions = 0;
+        for (int rook = 0; rook < 64; rook++) {
+            for (int strongKing = 0; strongKing < 64; strongKing++) {
+                for (int weakKing = 0; weakKing < 64; weakKing++) {
+                    for (boolean strongToMove : new boolean[] {true, false}) {
+                        String fen = load(board, strongKing, rook, 'R', weakKing, strongToMove);
+                        if (fen == null) {
+                            continue;
+                        }
+                        int plies = mates.getPliesToMate(strongKing, rook, weakKing, strongToMove);
+                        int expected = plies < 0
+                                ? SyzygyTablebase.WDL_DRAW
+                                : strongToMove ? SyzygyTablebase.WDL_WIN : SyzygyTablebase.WDL_LOSS;
+                        assertEquals(expected, tablebase.probeWdl(board), fen);
+                        if (plies > 0 && strongToMove) {
+                            // Mate is the only zeroing move, so DTZ is the mate distance, give or take a ply
+                            int dtz = tablebase.probeDtz(board);
+                            assertTrue(dtz == plies || dtz == plies + 1, fen + ": DTZ " + dtz + ", mate in " + plies);
+                        }
+                        positions++;
+                    }
+                }
+            }
+        }
+        assertTrue(positions > 300_000, positions + " positions");
+    }
+
+    private static void assertWdl(String fen, int expected) {
+        assumeTables();
+        assertEquals(expected, tablebase.probeWdl(board(fen)), fen);
+    }
+
+    private static void assumeTables() {
+        for (String table : REQUIRED_TABLES) {
+            assumeTrue(tablebase.getTableNames().contains(table), "Syzygy table " + table + " not found");
+        }
+    }
+
+    /**
+     * Load white king and piece against the black king.
+     *
+     * @return The FEN of the position, or null if it is not legal
+     */
+    private static String load(Board board, int strongKing, int piece, char pieceLetter, int weakKing, boolean whiteToMove) {
+        if (strongKing == piece || piece == weakKing || weakKing == strongKing) {
+            return null;
+        }
+        char[] squares = new char[64];
+        squares[strongKing] = 'K';
+        squares[piece] = pieceLetter;
+        squares[weakKing] = 'k';
+        StringBuilder fen = new StringBuilder();
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                char c = squares[rank * 8 + file];
+                if (c == 0) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                fen.append(c);
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (rank > 0) {
+                fen.append('/');
+            }
+        }
+        fen.append(whiteToMove ? " w - - 0 1" : " b - - 0 1");
+        FenParser.loadPosition(board, fen.toString());
+        // The side not to move must not be in check
+        return board.isSquareAttacked(whiteToMove ? weakKing : strongKing, whiteToMove) ? null : fen.toString();
+    }
+
+    private static int rootDtz(Board board, String uci) {
+        MoveList moves = new MoveList(256);
+        board.generateLegalMoves(moves);
+        int[] dtz = tablebase.probeRootDtz(board, moves);
+        assertNotNull(dtz);
+        for (int i = 0; i < moves.size(); i++) {
+            if (MoveNotation.ToUci(moves.get(i)).equals(uci)) {
+                return dtz[i];
+            }
+        }
+        throw new AssertionError("No legal move " + uci);
+    }
+
+    private static Move find(Board board, String uci) {
+        MoveList moves = new MoveList(256);
+        board.generateLegalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            if (MoveNotation.ToUci(moves.get(i)).equals(uci)) {
+                return moves.get(i);
+            }
+        }
+        throw new AssertionError("No legal move " + uci);
+    }
+
+    private static Board board(String fen) {
+        Board board = new Board();
+        FenParser.loadPosition(board, fen);
+        return board;
+    }
+}